@@ -0,0 +1,36 @@
+package com.nevis.search.config;
+
+import com.nevis.search.infra.Bulkhead;
+import com.nevis.search.infra.BulkheadEndpoint;
+import com.nevis.search.infra.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+        MeterRegistry meterRegistry,
+        @Value("${app.bulkhead.split.limit:4}") int splitLimit,
+        @Value("${app.bulkhead.embedding.limit:16}") int embeddingLimit,
+        @Value("${app.bulkhead.summary.limit:4}") int summaryLimit,
+        @Value("${app.bulkhead.retry.limit:2}") int retryLimit
+    ) {
+        return new BulkheadRegistry(List.of(
+            new Bulkhead(BulkheadRegistry.SPLIT, splitLimit, meterRegistry),
+            new Bulkhead(BulkheadRegistry.EMBEDDING, embeddingLimit, meterRegistry),
+            new Bulkhead(BulkheadRegistry.SUMMARY, summaryLimit, meterRegistry),
+            new Bulkhead(BulkheadRegistry.RETRY, retryLimit, meterRegistry)
+        ));
+    }
+
+    @Bean
+    public BulkheadEndpoint bulkheadEndpoint(BulkheadRegistry bulkheadRegistry) {
+        return new BulkheadEndpoint(bulkheadRegistry);
+    }
+}
@@ -1,40 +1,128 @@
 package com.nevis.search.config;
 
+import com.nevis.search.infra.ModelPool;
+import com.nevis.search.infra.PooledChatModel;
+import com.nevis.search.infra.PooledEmbeddingModel;
+import com.nevis.search.infra.ReservationRateLimiter;
+import com.nevis.search.service.EmbeddingTokenAccountant;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.googleai.GoogleAiEmbeddingModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiTokenCountEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 @Configuration
 public class LangChainConfig {
 
-    @Value("${app.gemini.api-key}")
-    private String apiKey;
+    private static final String EMBEDDING_MODEL = "gemini-embedding-001";
+
+    @Value("${app.gemini.api-keys:${app.gemini.api-key}}")
+    private List<String> apiKeys;
+
+    @Value("${app.gemini.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${app.rate-limit.adaptive.enabled:false}")
+    private boolean adaptiveRateLimit;
+
+    @Value("${app.gemini.pool.auth-eject-minutes:30}")
+    private int authEjectMinutes;
+
+    @Value("${app.gemini.pool.quota-eject-seconds:60}")
+    private int quotaEjectSeconds;
+
+    @Bean
+    public ChatModel chatLanguageModel(
+        MeterRegistry meterRegistry,
+        @Value("${app.rate-limit.chat.rpm:12}") int rpm,
+        @Value("${app.rate-limit.chat.max-rpm:60}") int maxRpm
+    ) {
+        if (apiKeys.size() == 1) {
+            return chatModel(apiKeys.getFirst());
+        }
+        // chat calls are only limited by requests, like the chat limiter
+        return new PooledChatModel(pool("chat", this::chatModel, memberLimit(rpm, maxRpm), Integer.MAX_VALUE, meterRegistry));
+    }
+
+    @Bean
+    public EmbeddingModel embeddingModel(
+        MeterRegistry meterRegistry,
+        EmbeddingTokenAccountant tokenAccountant,
+        @Value("${app.rate-limit.embedding.rpm:12}") int rpm,
+        @Value("${app.rate-limit.embedding.max-rpm:60}") int maxRpm,
+        @Value("${app.rate-limit.embedding.tpm:500000}") int tpm,
+        @Value("${app.rate-limit.embedding.max-tpm:2500000}") int maxTpm
+    ) {
+        if (apiKeys.size() == 1) {
+            return embeddingModel(apiKeys.getFirst());
+        }
+        return new PooledEmbeddingModel(pool("embedding", this::embeddingModel, memberLimit(rpm, maxRpm), memberLimit(tpm, maxTpm), meterRegistry),
+            tokenAccountant::estimate);
+    }
 
     @Bean
-    public ChatModel chatLanguageModel() {
+    public TokenCountEstimator embeddingTokenCountEstimator(
+        @Value("${app.embedding.tokens.count-model:" + EMBEDDING_MODEL + "}") String countModel
+    ) {
+        return GoogleAiGeminiTokenCountEstimator.builder()
+            .apiKey(apiKeys.getFirst())
+            .modelName(countModel)
+            .timeout(Duration.ofSeconds(10))
+            .maxRetries(0)
+            .build();
+    }
+
+    private ChatModel chatModel(String apiKey) {
         return GoogleAiGeminiChatModel.builder()
             .apiKey(apiKey)
             .modelName("gemini-3-flash-preview")
             .timeout(Duration.ofSeconds(60))
-            .maxRetries(5)
+            .maxRetries(modelRetries())
             .logRequests(true)
             .logResponses(true)
             .build();
     }
 
-    @Bean
-    public EmbeddingModel embeddingModel() {
+    private EmbeddingModel embeddingModel(String apiKey) {
         return GoogleAiEmbeddingModel.builder()
             .apiKey(apiKey)
-            .modelName("gemini-embedding-001")
+            .modelName(EMBEDDING_MODEL)
             .outputDimensionality(768)
-            .maxRetries(5)
+            .maxRetries(modelRetries())
             .build();
     }
-}
\ No newline at end of file
+
+    private <M> ModelPool<M> pool(String name, Function<String, M> factory, int rpmPerKey, int tpmPerKey, MeterRegistry meterRegistry) {
+        List<ModelPool.Member<M>> members = new ArrayList<>();
+        for (int i = 0; i < apiKeys.size(); i++) {
+            members.add(new ModelPool.Member<>(
+                "key-" + (i + 1),
+                factory.apply(apiKeys.get(i)),
+                new ReservationRateLimiter(rpmPerKey, tpmPerKey)
+            ));
+        }
+        return new ModelPool<>(name, members, Duration.ofMinutes(authEjectMinutes), Duration.ofSeconds(quotaEjectSeconds),
+            maxRetries, Duration.ofSeconds(1), meterRegistry);
+    }
+
+    private int memberLimit(int limit, int maxLimit) {
+        // an adaptive limiter in front of the pool may learn rates up to the ceiling
+        return adaptiveRateLimit ? Math.max(limit, maxLimit) : limit;
+    }
+
+    private int modelRetries() {
+        // throttled calls are retried by the adaptive limiter or on another pool member,
+        // both of which need to see every 429; a pool retries other transient errors itself
+        return adaptiveRateLimit || apiKeys.size() > 1 ? 0 : maxRetries;
+    }
+}
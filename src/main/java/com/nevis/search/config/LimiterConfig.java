@@ -1,21 +1,88 @@
 package com.nevis.search.config;
 
-import com.nevis.search.infra.InMemoryRpmRateLimiter;
+import com.nevis.search.infra.AdaptiveRateLimiter;
 import com.nevis.search.infra.RateLimiter;
-import com.nevis.search.infra.InMemoryDualRateLimiter;
+import com.nevis.search.infra.ReservationRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class LimiterConfig {
 
+    @Value("${app.gemini.api-keys:${app.gemini.api-key}}")
+    private List<String> apiKeys;
+
+    @Value("${app.rate-limit.adaptive.enabled:false}")
+    private boolean adaptiveEnabled;
+
+    @Value("${app.rate-limit.adaptive.increase-rpm:1}")
+    private double increaseRpm;
+
+    @Value("${app.rate-limit.adaptive.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    @Value("${app.rate-limit.adaptive.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${app.rate-limit.adaptive.default-retry-after-seconds:10}")
+    private int defaultRetryAfterSeconds;
+
     @Bean("chatLimiter")
-    public RateLimiter chatLimiter() {
-        return new InMemoryRpmRateLimiter(12);
+    public RateLimiter chatLimiter(
+        MeterRegistry meterRegistry,
+        @Value("${app.rate-limit.chat.rpm:12}") int rpm,
+        @Value("${app.rate-limit.chat.max-rpm:60}") int maxRpm
+    ) {
+        return limiter("chat", meterRegistry, rpm, maxRpm, Integer.MAX_VALUE, Integer.MAX_VALUE);
     }
 
     @Bean("embeddingLimiter")
-    public RateLimiter embeddingLimiter() {
-        return new InMemoryDualRateLimiter(12, 500_000);
+    public RateLimiter embeddingLimiter(
+        MeterRegistry meterRegistry,
+        @Value("${app.rate-limit.embedding.rpm:12}") int rpm,
+        @Value("${app.rate-limit.embedding.max-rpm:60}") int maxRpm,
+        @Value("${app.rate-limit.embedding.tpm:500000}") int tpm,
+        @Value("${app.rate-limit.embedding.max-tpm:2500000}") int maxTpm
+    ) {
+        return limiter("embedding", meterRegistry, rpm, maxRpm, tpm, maxTpm);
+    }
+
+    @Bean("tokenCountLimiter")
+    public RateLimiter tokenCountLimiter(@Value("${app.rate-limit.token-count.rpm:30}") int rpm) {
+        // calibration counts have their own quota and must not spend or adapt the embedding budget
+        return new ReservationRateLimiter(scale(rpm), Integer.MAX_VALUE);
+    }
+
+    private RateLimiter limiter(String name, MeterRegistry meterRegistry, int rpmPerKey, int maxRpmPerKey, int tpmPerKey, int maxTpmPerKey) {
+        // limits are per provider key; with a key pool this limiter caps the pool as a whole
+        int rpm = scale(rpmPerKey);
+        int maxRpm = scale(maxRpmPerKey);
+        int tpm = scale(tpmPerKey);
+        int maxTpm = scale(maxTpmPerKey);
+
+        ReservationRateLimiter limiter = new ReservationRateLimiter(rpm, tpm);
+        if (!adaptiveEnabled) {
+            return limiter;
+        }
+
+        return new AdaptiveRateLimiter(limiter, new AdaptiveRateLimiter.Limits(
+            rpm,
+            Math.max(rpm, maxRpm),
+            tpm,
+            Math.max(tpm, maxTpm),
+            increaseRpm,
+            decreaseFactor,
+            maxRetries,
+            Duration.ofSeconds(defaultRetryAfterSeconds)
+        ), name, meterRegistry);
+    }
+
+    private int scale(int perKeyLimit) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) perKeyLimit * apiKeys.size());
     }
-}
\ No newline at end of file
+}
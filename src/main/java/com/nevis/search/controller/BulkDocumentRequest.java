@@ -0,0 +1,12 @@
+package com.nevis.search.controller;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+public record BulkDocumentRequest(
+    @JsonProperty("client_id") UUID clientId,
+    String title,
+    String content,
+    @JsonProperty("idempotency_key") String idempotencyKey
+) {}
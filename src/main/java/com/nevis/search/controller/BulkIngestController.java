@@ -0,0 +1,53 @@
+package com.nevis.search.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevis.search.service.AdmissionController;
+import com.nevis.search.service.BulkIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequiredArgsConstructor
+public class BulkIngestController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final BulkIngestService bulkIngestService;
+    private final ObjectMapper objectMapper;
+    private final AdmissionController admissionController;
+
+    @PostMapping(path = "/documents/bulk", consumes = NDJSON, produces = NDJSON)
+    public void bulkIngest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        admissionController.admit();
+
+        Charset charset = request.getCharacterEncoding() != null
+            ? Charset.forName(request.getCharacterEncoding())
+            : StandardCharsets.UTF_8;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter writer = response.getWriter();
+
+        bulkIngestService.ingest(new InputStreamReader(request.getInputStream(), charset), result -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(result));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.nevis.search.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkIngestResult(
+    int line,
+    Status status,
+    @JsonProperty("document_id") UUID documentId,
+    String error
+) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        REJECTED
+    }
+
+    public static BulkIngestResult created(int line, UUID documentId) {
+        return new BulkIngestResult(line, Status.CREATED, documentId, null);
+    }
+
+    public static BulkIngestResult duplicate(int line, UUID documentId) {
+        return new BulkIngestResult(line, Status.DUPLICATE, documentId, null);
+    }
+
+    public static BulkIngestResult rejected(int line, String error) {
+        return new BulkIngestResult(line, Status.REJECTED, null, error);
+    }
+}
@@ -1,35 +1,96 @@
 package com.nevis.search.controller;
 
+import com.nevis.search.exception.WrongQueryException;
+import com.nevis.search.service.AdmissionController;
 import com.nevis.search.service.ClientService;
 import com.nevis.search.service.DocumentService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
 public class DocumentController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final DocumentService documentService;
     private final ClientService clientService;
+    private final AdmissionController admissionController;
 
     @PostMapping("/clients/{clientId}/documents")
     public ResponseEntity<DocumentResponse> createDocument(
         @PathVariable UUID clientId,
+        @RequestHeader(name = "Idempotency-Key", required = false) Optional<String> idempotencyKey,
+        @RequestParam(defaultValue = "false") boolean async,
         @Valid @RequestBody DocumentRequest request) {
 
+        validateIdempotencyKey(idempotencyKey);
+        admissionController.admit();
+
         if (clientId != null) {
             clientService.getById(clientId);
         }
 
+        if (async) {
+            DocumentResponse accepted = documentService.acceptDocument(
+                request.title(),
+                request.content(),
+                clientId,
+                idempotencyKey
+            );
+
+            return ResponseEntity.accepted()
+                .location(URI.create("/documents/" + accepted.id()))
+                .body(accepted);
+        }
+
         DocumentResponse response = documentService.ingestDocument(
             request.title(),
             request.content(),
-            clientId
+            clientId,
+            idempotencyKey
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping(path = "/clients/{clientId}/documents/stream", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<DocumentResponse> streamDocument(
+        @PathVariable UUID clientId,
+        @RequestParam String title,
+        @RequestHeader(name = "Idempotency-Key", required = false) Optional<String> idempotencyKey,
+        HttpServletRequest request) throws IOException {
+
+        if (title.isBlank()) {
+            throw new WrongQueryException("Title cannot be empty");
+        }
+        validateIdempotencyKey(idempotencyKey);
+        admissionController.admit();
+
+        clientService.getById(clientId);
+
+        Charset charset = request.getCharacterEncoding() != null
+            ? Charset.forName(request.getCharacterEncoding())
+            : StandardCharsets.UTF_8;
+
+        DocumentResponse response = documentService.ingestDocumentStream(
+            title,
+            new InputStreamReader(request.getInputStream(), charset),
+            clientId,
+            idempotencyKey
         );
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -40,4 +101,12 @@ public class DocumentController {
         DocumentResponse response = documentService.getById(id);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    private void validateIdempotencyKey(Optional<String> idempotencyKey) {
+        idempotencyKey.ifPresent(key -> {
+            if (key.isBlank() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new WrongQueryException("Idempotency-Key must be between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+        });
+    }
+}
@@ -22,7 +22,9 @@ public record DocumentResponse(
     DocumentTaskStatus summaryStatus,
     
     DocumentTaskStatus status,
-    
+
+    int progress,
+
     @JsonProperty("created_at")
     OffsetDateTime createdAt
 ) {}
\ No newline at end of file
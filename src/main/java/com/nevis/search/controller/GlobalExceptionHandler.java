@@ -1,8 +1,10 @@
 package com.nevis.search.controller;
 
+import com.nevis.search.exception.BacklogExceededException;
 import com.nevis.search.exception.EntityNotFoundException;
 import com.nevis.search.exception.WrongQueryException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -34,6 +36,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BacklogExceededException.class)
+    public ResponseEntity<ErrorResponse> handleBacklogExceeded(BacklogExceededException ex) {
+        HttpStatus status = ex.isOverloaded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        ErrorResponse error = new ErrorResponse(
+            ex.getMessage(),
+            status.value(),
+            Instant.now().toEpochMilli()
+        );
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+            .body(error);
+    }
+
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<ErrorResponse> handleMissingParams(MissingServletRequestParameterException ex) {
         String message = String.format("Parameter '%s' is missing", ex.getParameterName());
@@ -1,5 +0,0 @@
-package com.nevis.search.event;
-
-import java.util.UUID;
-
-public record DocumentIngestedEvent(UUID documentId) {}
\ No newline at end of file
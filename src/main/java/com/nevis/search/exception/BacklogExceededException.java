@@ -0,0 +1,22 @@
+package com.nevis.search.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when ingestion is refused because the processing backlog is too large.
+ * {@code overloaded} distinguishes shedding (503) from throttling a producer (429).
+ */
+@Getter
+public class BacklogExceededException extends RuntimeException {
+
+    private final boolean overloaded;
+    private final Duration retryAfter;
+
+    public BacklogExceededException(String message, boolean overloaded, Duration retryAfter) {
+        super(message);
+        this.overloaded = overloaded;
+        this.retryAfter = retryAfter;
+    }
+}
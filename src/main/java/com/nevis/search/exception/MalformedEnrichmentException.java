@@ -0,0 +1,7 @@
+package com.nevis.search.exception;
+
+import lombok.experimental.StandardException;
+
+@StandardException
+public class MalformedEnrichmentException extends RuntimeException {
+}
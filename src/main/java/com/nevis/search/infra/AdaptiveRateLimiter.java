@@ -0,0 +1,141 @@
+package com.nevis.search.infra;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * AIMD wrapper around a {@link ReservationRateLimiter}. Every successful call adds
+ * {@code increaseRpm / currentRpm} to the learned rate, so the rate grows by roughly
+ * {@code increaseRpm} per minute of clean traffic; a 429 or {@code RESOURCE_EXHAUSTED}
+ * multiplies it by {@code decreaseFactor}, pauses the key for the provider's retry delay
+ * and retries the call. Further throttles within that delay come from calls already in
+ * flight and do not lower the rate again. The learned rate stays between the configured floor and ceiling,
+ * and the token limit is scaled along with it.
+ */
+@Slf4j
+public class AdaptiveRateLimiter implements RateLimiter {
+
+    private final ReservationRateLimiter delegate;
+    private final Limits limits;
+
+    private double learnedRpm;
+    private int appliedRpm;
+    private long decreaseBlockedUntilNanos = System.nanoTime();
+
+    public AdaptiveRateLimiter(ReservationRateLimiter delegate, Limits limits, String name, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.limits = limits;
+        this.learnedRpm = limits.floorRpm();
+        this.appliedRpm = limits.floorRpm();
+        delegate.updateLimits(limits.floorRpm(), limits.floorTpm());
+
+        Gauge.builder("rate_limiter.learned_rpm", this, AdaptiveRateLimiter::learnedRpm)
+            .tag("limiter", name)
+            .description("Request rate currently allowed by the adaptive limiter")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Floor and ceiling of the learned limits and the AIMD parameters.
+     */
+    public record Limits(
+        int floorRpm,
+        int ceilingRpm,
+        int floorTpm,
+        int ceilingTpm,
+        double increaseRpm,
+        double decreaseFactor,
+        int maxRetries,
+        Duration defaultRetryAfter
+    ) {}
+
+    @Override
+    public CompletableFuture<Void> reserve(String key, int permits, Priority priority) {
+        return delegate.reserve(key, permits, priority);
+    }
+
+    @Override
+    public void acquire(String key, int permits) {
+        delegate.acquire(key, permits);
+    }
+
+    @Override
+    public void release(String key, int permits) {
+        delegate.release(key, permits);
+    }
+
+    @Override
+    public void reconcile(String key, int reserved, int actual) {
+        delegate.reconcile(key, reserved, actual);
+    }
+
+    @Override
+    public <T> T execute(String key, int permits, Supplier<T> task) {
+        return execute(key, permits, Priority.BACKGROUND, task);
+    }
+
+    @Override
+    public <T> T execute(String key, int permits, Priority priority, Supplier<T> task) {
+        for (int attempt = 0; ; attempt++) {
+            delegate.reserve(key, permits, priority).join();
+            try {
+                T result = task.get();
+                onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!ProviderErrors.isThrottled(e)) {
+                    throw e;
+                }
+
+                Duration retryAfter = ProviderErrors.retryAfter(e).orElse(limits.defaultRetryAfter());
+                onThrottled(key, retryAfter);
+
+                if (attempt >= limits.maxRetries()) {
+                    throw e;
+                }
+                log.warn("Limiter '{}' throttled by provider, retry {}/{} after {}", key, attempt + 1, limits.maxRetries(), retryAfter);
+            }
+        }
+    }
+
+    public synchronized double learnedRpm() {
+        return learnedRpm;
+    }
+
+    private synchronized void onSuccess() {
+        learnedRpm = Math.min(limits.ceilingRpm(), learnedRpm + limits.increaseRpm() / learnedRpm);
+        applyLearnedRate();
+    }
+
+    private void onThrottled(String key, Duration retryAfter) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - decreaseBlockedUntilNanos >= 0) {
+                decreaseBlockedUntilNanos = now + retryAfter.toNanos();
+                learnedRpm = Math.max(limits.floorRpm(), learnedRpm * limits.decreaseFactor());
+                applyLearnedRate();
+            }
+        }
+        delegate.pause(key, retryAfter);
+    }
+
+    private void applyLearnedRate() {
+        int rpm = (int) Math.floor(learnedRpm);
+        if (rpm == appliedRpm) {
+            return;
+        }
+        appliedRpm = rpm;
+
+        int rpmRange = limits.ceilingRpm() - limits.floorRpm();
+        double share = rpmRange == 0 ? 0 : (double) (rpm - limits.floorRpm()) / rpmRange;
+        int tpm = (int) (limits.floorTpm() + share * (limits.ceilingTpm() - limits.floorTpm()));
+
+        log.info("Adaptive limiter now allows {} RPM / {} TPM", rpm, tpm);
+        delegate.updateLimits(rpm, tpm);
+    }
+}
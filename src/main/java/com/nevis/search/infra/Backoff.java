@@ -0,0 +1,20 @@
+package com.nevis.search.infra;
+
+import java.time.Duration;
+
+/**
+ * Exponential retry delay: {@code base * 2^(attempt - 1)}, capped at {@code max}, with equal
+ * jitter (a random factor between 0.5 and 1) so rows that failed together don't retry together.
+ */
+public record Backoff(Duration base, Duration max) {
+
+    private static final String SQL_DELAY_MS = "LEAST(:maxMs, :baseMs * POWER(2, GREATEST(%s - 1, 0))) * (0.5 + random() / 2)";
+
+    /**
+     * SQL expression for the delay in milliseconds of the given attempt number,
+     * expecting {@code :baseMs} and {@code :maxMs} to be bound.
+     */
+    public static String sqlDelayMs(String attempt) {
+        return SQL_DELAY_MS.formatted(attempt);
+    }
+}
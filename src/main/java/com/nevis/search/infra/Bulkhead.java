@@ -0,0 +1,185 @@
+package com.nevis.search.infra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one class of background work. The limit can be changed while
+ * tasks are running; shrinking it lets running tasks finish and only holds back new ones.
+ * Publishes {@code bulkhead.active}, {@code bulkhead.queued}, {@code bulkhead.limit},
+ * {@code bulkhead.rejected} and a {@code bulkhead.wait} histogram, tagged by name.
+ * <p>
+ * Work that is claimed from a queue only once a slot is free never waits here, so its owner
+ * reports the queue depth with {@link #updateBacklog}, claims it had to put off with
+ * {@link #defer} and how long each item waited in the queue with {@link #recordWait}.
+ * {@code queued} is that backlog plus the callers blocked in {@link #acquire}, and
+ * {@code rejected} also counts failed {@link #tryAcquire} calls and callers that had to block.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private int limit;
+    private int active;
+    private int waiting;
+    private volatile long backlog;
+
+    private final Counter rejected;
+    private final Timer waitTime;
+
+    public Bulkhead(String name, int limit, MeterRegistry meterRegistry) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Bulkhead limit must be positive: " + limit);
+        }
+        this.name = name;
+        this.limit = limit;
+
+        Gauge.builder("bulkhead.active", this, Bulkhead::active).tag("bulkhead", name).register(meterRegistry);
+        Gauge.builder("bulkhead.queued", this, Bulkhead::queued).tag("bulkhead", name).register(meterRegistry);
+        Gauge.builder("bulkhead.limit", this, Bulkhead::limit).tag("bulkhead", name).register(meterRegistry);
+        this.rejected = Counter.builder("bulkhead.rejected").tag("bulkhead", name).register(meterRegistry);
+        this.waitTime = Timer.builder("bulkhead.wait")
+            .tag("bulkhead", name)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Takes a slot if one is free right now; otherwise counts a rejection.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (active < limit) {
+                active++;
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a slot, counting the caller as queued meanwhile and as rejected if it had to wait.
+     */
+    public void acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (active >= limit) {
+                rejected.increment();
+            }
+            waiting++;
+            try {
+                while (active >= limit) {
+                    released.await();
+                }
+            } finally {
+                waiting--;
+            }
+            active++;
+        } finally {
+            lock.unlock();
+        }
+        waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the number of items waiting for this bulkhead outside of {@link #acquire}.
+     */
+    public void updateBacklog(long backlog) {
+        this.backlog = Math.max(0, backlog);
+    }
+
+    /**
+     * Counts a claim that was put off because no slot was free.
+     */
+    public void defer() {
+        rejected.increment();
+    }
+
+    /**
+     * Records how long an item waited before it got a slot.
+     */
+    public void recordWait(Duration wait) {
+        waitTime.record(wait.isNegative() ? Duration.ZERO : wait);
+    }
+
+    public long backlog() {
+        return backlog;
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            active--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void resize(int newLimit) {
+        if (newLimit < 1) {
+            throw new IllegalArgumentException("Bulkhead limit must be positive: " + newLimit);
+        }
+        lock.lock();
+        try {
+            limit = newLimit;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int available() {
+        lock.lock();
+        try {
+            return Math.max(0, limit - active);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int active() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long queued() {
+        lock.lock();
+        try {
+            return waiting + backlog;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nevis.search.infra;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/bulkheads}: shows every bulkhead and resizes one at runtime
+ * with a POST of {@code {"limit": n}} to {@code /actuator/bulkheads/{name}}.
+ */
+@Endpoint(id = "bulkheads")
+public class BulkheadEndpoint {
+
+    private final BulkheadRegistry registry;
+
+    public BulkheadEndpoint(BulkheadRegistry registry) {
+        this.registry = registry;
+    }
+
+    public record BulkheadState(int limit, int active, long queued) {
+
+        static BulkheadState of(Bulkhead bulkhead) {
+            return new BulkheadState(bulkhead.limit(), bulkhead.active(), bulkhead.queued());
+        }
+    }
+
+    @ReadOperation
+    public Map<String, BulkheadState> bulkheads() {
+        Map<String, BulkheadState> states = new LinkedHashMap<>();
+        registry.all().forEach(bulkhead -> states.put(bulkhead.name(), BulkheadState.of(bulkhead)));
+        return states;
+    }
+
+    @ReadOperation
+    public BulkheadState bulkhead(@Selector String name) {
+        return registry.find(name).map(BulkheadState::of).orElse(null);
+    }
+
+    @WriteOperation
+    public BulkheadState resize(@Selector String name, int limit) {
+        return registry.find(name)
+            .map(bulkhead -> {
+                bulkhead.resize(limit);
+                return BulkheadState.of(bulkhead);
+            })
+            .orElse(null);
+    }
+}
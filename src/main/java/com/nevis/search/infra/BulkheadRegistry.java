@@ -0,0 +1,35 @@
+package com.nevis.search.infra;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The bulkheads of the background workloads, looked up by name.
+ */
+public class BulkheadRegistry {
+
+    public static final String SPLIT = "split";
+    public static final String EMBEDDING = "embedding";
+    public static final String SUMMARY = "summary";
+    public static final String RETRY = "retry";
+
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    public BulkheadRegistry(Collection<Bulkhead> bulkheads) {
+        bulkheads.forEach(bulkhead -> this.bulkheads.put(bulkhead.name(), bulkhead));
+    }
+
+    public Bulkhead get(String name) {
+        return find(name).orElseThrow(() -> new IllegalArgumentException("Unknown bulkhead: " + name));
+    }
+
+    public Optional<Bulkhead> find(String name) {
+        return Optional.ofNullable(bulkheads.get(name));
+    }
+
+    public Collection<Bulkhead> all() {
+        return bulkheads.values();
+    }
+}
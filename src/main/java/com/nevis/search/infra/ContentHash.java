@@ -0,0 +1,23 @@
+package com.nevis.search.infra;
+
+import lombok.SneakyThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * Hex-encoded SHA-256 of the UTF-8 bytes, matching
+     * {@code encode(sha256(convert_to(content, 'UTF8')), 'hex')} in Postgres.
+     */
+    @SneakyThrows
+    public static String sha256(String content) {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
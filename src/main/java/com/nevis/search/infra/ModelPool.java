@@ -0,0 +1,166 @@
+package com.nevis.search.infra;
+
+import com.nevis.search.exception.BacklogExceededException;
+import dev.langchain4j.exception.RateLimitException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Spreads model calls over several provider keys or projects. Every member has its own
+ * request buckets and a call goes to the healthy member with the largest share of budget
+ * left. A member that fails authentication or runs out of quota is ejected for a while and
+ * the call is retried on the next one; when every member failed, the last error is thrown.
+ * Other transient errors (5xx, timeouts) eject nobody and are retried up to {@code maxRetries}
+ * times with exponential backoff, since the members' clients do not retry on their own.
+ */
+@Slf4j
+public class ModelPool<M> {
+
+    public record Member<M>(String name, M model, ReservationRateLimiter limiter) {}
+
+    private final String poolName;
+    private final List<Member<M>> members;
+    private final Duration authEjection;
+    private final Duration quotaEjection;
+    private final int maxRetries;
+    private final Duration retryDelay;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> ejectedUntil = new ConcurrentHashMap<>();
+
+    public ModelPool(String poolName, List<Member<M>> members, Duration authEjection, Duration quotaEjection,
+                     int maxRetries, Duration retryDelay, MeterRegistry meterRegistry) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Model pool '" + poolName + "' needs at least one member");
+        }
+        this.poolName = poolName;
+        this.members = List.copyOf(members);
+        this.authEjection = authEjection;
+        this.quotaEjection = quotaEjection;
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T call(Function<M, T> call) {
+        return call(1, call);
+    }
+
+    public <T> T call(int tokens, Function<M, T> call) {
+        return call(tokens, Priority.BACKGROUND, null, call);
+    }
+
+    /**
+     * Calls a member, charging {@code tokens} to its token bucket with the caller's
+     * {@code priority}. With a {@code maxWait} the call gives up with a
+     * {@link BacklogExceededException} once the member's quota was not granted in time;
+     * without one it waits as long as the member needs.
+     */
+    public <T> T call(int tokens, Priority priority, Duration maxWait, Function<M, T> call) {
+        long deadline = maxWait != null ? System.nanoTime() + maxWait.toNanos() : 0;
+        Set<String> tried = new HashSet<>();
+        RuntimeException lastError = null;
+        int retries = 0;
+
+        Optional<Member<M>> next;
+        while ((next = select(tried)).isPresent()) {
+            Member<M> member = next.get();
+
+            awaitQuota(member, tokens, priority, maxWait, deadline);
+            try {
+                return call.apply(member.model());
+            } catch (RuntimeException e) {
+                if (ProviderErrors.isAuthFailure(e)) {
+                    eject(member, authEjection, "auth");
+                    tried.add(member.name());
+                } else if (ProviderErrors.isThrottled(e)) {
+                    eject(member, ProviderErrors.retryAfter(e).orElse(quotaEjection), "quota");
+                    tried.add(member.name());
+                } else if (ProviderErrors.isTransient(e) && retries < maxRetries) {
+                    retries++;
+                    log.warn("Model pool '{}': {} failed, retry {}/{}: {}", poolName, member.name(), retries, maxRetries, e.getMessage());
+                    sleep(backoff(retries));
+                } else {
+                    throw e;
+                }
+                lastError = e;
+            }
+        }
+
+        if (lastError != null) {
+            throw lastError;
+        }
+        throw new RateLimitException("All " + members.size() + " members of model pool '" + poolName + "' are ejected");
+    }
+
+    public M primary() {
+        return members.getFirst().model();
+    }
+
+    public boolean isEjected(String memberName) {
+        return ejectedUntil.getOrDefault(memberName, 0L) > System.nanoTime();
+    }
+
+    private Optional<Member<M>> select(Set<String> tried) {
+        return members.stream()
+            .filter(member -> !tried.contains(member.name()))
+            .filter(member -> !isEjected(member.name()))
+            .max(Comparator.comparingDouble(member -> member.limiter().availableShare(member.name())));
+    }
+
+    private void awaitQuota(Member<M> member, int tokens, Priority priority, Duration maxWait, long deadline) {
+        CompletableFuture<Void> granted = member.limiter().reserve(member.name(), tokens, priority);
+        if (maxWait == null) {
+            granted.join();
+            return;
+        }
+
+        try {
+            granted.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (granted.cancel(false)) {
+                throw new BacklogExceededException("Quota of " + member.name() + " in model pool '" + poolName + "' exhausted, retry later", true, maxWait);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Quota reservation failed in model pool '" + poolName + "'", e.getCause());
+        } catch (InterruptedException e) {
+            granted.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for model pool quota", e);
+        }
+    }
+
+    private Duration backoff(int retry) {
+        long delayMillis = retryDelay.toMillis() << Math.min(retry - 1, 10);
+        return Duration.ofMillis((long) (delayMillis * (0.5 + ThreadLocalRandom.current().nextDouble() / 2)));
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry a model call", e);
+        }
+    }
+
+    private void eject(Member<M> member, Duration duration, String reason) {
+        ejectedUntil.put(member.name(), System.nanoTime() + duration.toNanos());
+        meterRegistry.counter("llm.pool.ejections", "pool", poolName, "member", member.name(), "reason", reason).increment();
+        log.warn("Model pool '{}': ejected {} for {} ({})", poolName, member.name(), duration, reason);
+    }
+}
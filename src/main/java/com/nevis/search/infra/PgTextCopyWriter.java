@@ -0,0 +1,80 @@
+package com.nevis.search.infra;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes rows in the PostgreSQL text COPY format ({@code COPY ... FROM STDIN}) to an output
+ * stream. Unlike {@link PgBinaryCopyWriter} a field needs no length prefix, so a text value can
+ * be streamed from a {@link Reader} of unknown size without holding it in memory.
+ */
+public class PgTextCopyWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public PgTextCopyWriter(OutputStream target) {
+        this.out = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public void writeText(Reader value) throws IOException {
+        startField();
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = value.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                writeEscaped(buffer[i]);
+            }
+        }
+    }
+
+    public void writeText(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        startField();
+        for (int i = 0; i < value.length(); i++) {
+            writeEscaped(value.charAt(i));
+        }
+    }
+
+    public void writeNull() throws IOException {
+        startField();
+        out.write("\\N");
+    }
+
+    public void endRow() throws IOException {
+        out.write('\n');
+        firstField = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void startField() throws IOException {
+        if (!firstField) {
+            out.write('\t');
+        }
+        firstField = false;
+    }
+
+    private void writeEscaped(char c) throws IOException {
+        switch (c) {
+            case '\\' -> out.write("\\\\");
+            case '\n' -> out.write("\\n");
+            case '\r' -> out.write("\\r");
+            case '\t' -> out.write("\\t");
+            default -> out.write(c);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.nevis.search.infra;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.util.Set;
+
+/**
+ * {@link ChatModel} that sends every request to a member of a {@link ModelPool}.
+ */
+public class PooledChatModel implements ChatModel {
+
+    private final ModelPool<ChatModel> pool;
+
+    public PooledChatModel(ModelPool<ChatModel> pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        return pool.call(model -> model.chat(request));
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return pool.primary().defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return pool.primary().provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return pool.primary().supportedCapabilities();
+    }
+}
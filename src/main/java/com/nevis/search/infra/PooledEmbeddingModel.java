@@ -0,0 +1,52 @@
+package com.nevis.search.infra;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * {@link EmbeddingModel} that sends every request to a member of a {@link ModelPool},
+ * charging the member's token bucket with the caller's token estimate of the request.
+ * Plain {@link #embedAll(List)} calls wait for the member's quota as background work;
+ * interactive callers use {@link #embed(String, Priority, Duration)} to bound the wait.
+ */
+public class PooledEmbeddingModel implements EmbeddingModel {
+
+    private final ModelPool<EmbeddingModel> pool;
+    private final ToIntFunction<List<String>> tokenEstimator;
+
+    public PooledEmbeddingModel(ModelPool<EmbeddingModel> pool, ToIntFunction<List<String>> tokenEstimator) {
+        this.pool = pool;
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return embedAll(textSegments, Priority.BACKGROUND, null);
+    }
+
+    public Response<Embedding> embed(String text, Priority priority, Duration maxWait) {
+        Response<List<Embedding>> response = embedAll(List.of(TextSegment.from(text)), priority, maxWait);
+        return Response.from(response.content().getFirst(), response.tokenUsage(), response.finishReason(), response.metadata());
+    }
+
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments, Priority priority, Duration maxWait) {
+        int tokens = tokenEstimator.applyAsInt(textSegments.stream().map(TextSegment::text).toList());
+        return pool.call(tokens, priority, maxWait, model -> model.embedAll(textSegments));
+    }
+
+    @Override
+    public int dimension() {
+        return pool.primary().dimension();
+    }
+
+    @Override
+    public String modelName() {
+        return pool.primary().modelName();
+    }
+}
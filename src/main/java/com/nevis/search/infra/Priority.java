@@ -0,0 +1,10 @@
+package com.nevis.search.infra;
+
+/**
+ * Admission class of a rate limited call. Waiting {@link #INTERACTIVE} reservations
+ * are always served before {@link #BACKGROUND} ones for the same key.
+ */
+public enum Priority {
+    INTERACTIVE,
+    BACKGROUND
+}
@@ -0,0 +1,87 @@
+package com.nevis.search.infra;
+
+import dev.langchain4j.exception.AuthenticationException;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.NonRetriableException;
+import dev.langchain4j.exception.RateLimitException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies errors thrown by LLM provider clients. LangChain4j does not expose response
+ * headers, so the retry delay is read from the error text (Gemini RetryInfo
+ * {@code retryDelay}, "retry in Ns" or a Retry-After value).
+ */
+public final class ProviderErrors {
+
+    private static final Pattern RETRY_DELAY = Pattern.compile(
+        "(?i)(?:retry[- ]?after[\"']?\\s*[:=]?\\s*[\"']?|retryDelay[\"']?\\s*:\\s*[\"']|retry in\\s+)(\\d+(?:\\.\\d+)?)\\s*(ms|s)?");
+
+    private ProviderErrors() {
+    }
+
+    public static boolean isThrottled(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RateLimitException) {
+                return true;
+            }
+            if (cause instanceof HttpException http && http.statusCode() == 429) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().contains("RESOURCE_EXHAUSTED")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isAuthFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AuthenticationException) {
+                return true;
+            }
+            if (cause instanceof HttpException http && (http.statusCode() == 401 || http.statusCode() == 403)) {
+                return true;
+            }
+            if (cause.getMessage() != null
+                && (cause.getMessage().contains("PERMISSION_DENIED") || cause.getMessage().contains("API_KEY_INVALID"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a retry may succeed: anything but errors LangChain4j marks as non-retriable
+     * (invalid request, unknown model, filtered content) and other 4xx responses.
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NonRetriableException) {
+                return false;
+            }
+            if (cause instanceof HttpException http && http.statusCode() >= 400 && http.statusCode() < 500) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static Optional<Duration> retryAfter(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() == null) {
+                continue;
+            }
+            Matcher matcher = RETRY_DELAY.matcher(cause.getMessage());
+            if (matcher.find()) {
+                double value = Double.parseDouble(matcher.group(1));
+                long millis = "ms".equalsIgnoreCase(matcher.group(2)) ? (long) value : (long) (value * 1000);
+                return Optional.of(Duration.ofMillis(millis));
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -1,11 +1,29 @@
 package com.nevis.search.infra;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 public interface RateLimiter {
 
     void acquire(String key, int permits);
     void release(String key, int permits);
 
-    default <T> T execute(String key, int permits, java.util.function.Supplier<T> task) {
+    /**
+     * Returns a future that completes once the permits are granted. Blocking
+     * implementations grant the permits on the calling thread before returning.
+     */
+    default CompletableFuture<Void> reserve(String key, int permits, Priority priority) {
+        acquire(key, permits);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Corrects a finished call's reservation with the number of permits it really used.
+     */
+    default void reconcile(String key, int reserved, int actual) {
+    }
+
+    default <T> T execute(String key, int permits, Supplier<T> task) {
         try {
             acquire(key, permits);
             return task.get();
@@ -13,4 +31,13 @@ public interface RateLimiter {
             release(key, permits);
         }
     }
-}
\ No newline at end of file
+
+    default <T> T execute(String key, int permits, Priority priority, Supplier<T> task) {
+        try {
+            reserve(key, permits, priority).join();
+            return task.get();
+        } finally {
+            release(key, permits);
+        }
+    }
+}
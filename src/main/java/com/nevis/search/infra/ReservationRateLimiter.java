@@ -0,0 +1,273 @@
+package com.nevis.search.infra;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.EstimationProbe;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and token rate limiter that never parks the caller: {@link #reserve} queues the
+ * request and returns a future completed by a scheduler once both buckets can pay for it.
+ * Each key has one FIFO lane per {@link Priority}; the head of the interactive lane is always
+ * served first, so background work only gets the quota interactive callers leave over.
+ * Reservations whose future was cancelled or timed out before being granted are dropped
+ * without consuming quota.
+ */
+@Slf4j
+public class ReservationRateLimiter implements RateLimiter, AutoCloseable {
+
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile int rpmLimit;
+    private volatile int tpmLimit;
+    private final Duration period;
+
+    public ReservationRateLimiter(int rpmLimit, int tpmLimit) {
+        this(rpmLimit, tpmLimit, Duration.ofMinutes(1));
+    }
+
+    public ReservationRateLimiter(int rpmLimit, int tpmLimit, Duration period) {
+        this.rpmLimit = rpmLimit;
+        this.tpmLimit = tpmLimit;
+        this.period = period;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("rate-limiter-scheduler")
+            .daemon(true)
+            .factory());
+    }
+
+    @Override
+    public CompletableFuture<Void> reserve(String key, int permits, Priority priority) {
+        Lane lane = lanes.computeIfAbsent(key, k -> new Lane());
+        Reservation reservation = new Reservation(Math.clamp(permits, 0, tpmLimit), new CompletableFuture<>());
+
+        synchronized (lane) {
+            lane.queues.get(priority).add(reservation);
+        }
+        drain(lane);
+
+        return reservation.granted();
+    }
+
+    /**
+     * Share of the key's request and token budget that could be granted right now, between
+     * 0 and 1. A key with queued reservations has no spare budget.
+     */
+    public double availableShare(String key) {
+        Lane lane = lanes.get(key);
+        if (lane == null) {
+            return 1.0;
+        }
+
+        synchronized (lane) {
+            if (lane.head() != null) {
+                return 0.0;
+            }
+            double requests = (double) lane.rpm.getAvailableTokens() / rpmLimit;
+            double tokens = (double) lane.tpm.getAvailableTokens() / tpmLimit;
+            return Math.max(0.0, Math.min(requests, tokens));
+        }
+    }
+
+    /**
+     * Returns over-reserved tokens to the key's bucket, or takes the shortfall even if that
+     * leaves the bucket in debt, so later reservations wait for it.
+     */
+    @Override
+    public void reconcile(String key, int reserved, int actual) {
+        Lane lane = lanes.get(key);
+        if (lane == null || actual == reserved) {
+            return;
+        }
+
+        synchronized (lane) {
+            if (actual > reserved) {
+                lane.tpm.consumeIgnoringRateLimits(actual - reserved);
+            } else {
+                lane.tpm.addTokens(reserved - actual);
+            }
+        }
+        drain(lane);
+    }
+
+    /**
+     * Replaces the request and token limits of every key. Tokens already in a bucket are kept
+     * up to the new capacity.
+     */
+    public void updateLimits(int rpmLimit, int tpmLimit) {
+        this.rpmLimit = rpmLimit;
+        this.tpmLimit = tpmLimit;
+
+        lanes.values().forEach(lane -> {
+            synchronized (lane) {
+                lane.rpm.replaceConfiguration(createConfiguration(rpmLimit), TokensInheritanceStrategy.AS_IS);
+                lane.tpm.replaceConfiguration(createConfiguration(tpmLimit), TokensInheritanceStrategy.AS_IS);
+            }
+            drain(lane);
+        });
+    }
+
+    /**
+     * Grants nothing for the key until the pause is over, e.g. to honour a provider Retry-After.
+     */
+    public void pause(String key, Duration duration) {
+        Lane lane = lanes.computeIfAbsent(key, k -> new Lane());
+        long until = System.nanoTime() + duration.toNanos();
+
+        synchronized (lane) {
+            lane.pausedUntilNanos = Math.max(lane.pausedUntilNanos, until);
+        }
+    }
+
+    @Override
+    public void acquire(String key, int permits) {
+        reserve(key, permits, Priority.BACKGROUND).join();
+    }
+
+    @Override
+    public void release(String key, int permits) {
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void drain(Lane lane) {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+
+        synchronized (lane) {
+            long pausedNanos = lane.pausedUntilNanos - System.nanoTime();
+            if (pausedNanos > 0) {
+                if (lane.head() != null) {
+                    scheduleDrain(lane, pausedNanos);
+                }
+                return;
+            }
+
+            Reservation next;
+            while ((next = lane.head()) != null) {
+                EstimationProbe requests = lane.rpm.estimateAbilityToConsume(1);
+                EstimationProbe tokens = lane.tpm.estimateAbilityToConsume(next.permits());
+
+                if (!requests.canBeConsumed() || !tokens.canBeConsumed()) {
+                    long waitNanos = Math.max(requests.getNanosToWaitForRefill(), tokens.getNanosToWaitForRefill());
+                    scheduleDrain(lane, waitNanos);
+                    break;
+                }
+
+                lane.rpm.tryConsume(1);
+                lane.tpm.tryConsume(next.permits());
+                lane.poll();
+                granted.add(next.granted());
+            }
+        }
+
+        granted.forEach(future -> future.complete(null));
+    }
+
+    /**
+     * Called with the lane locked. A drain that is already due sooner is kept; a later one is
+     * replaced, so a reservation that can be granted sooner, e.g. a small interactive one behind a
+     * large background wait, does not sit out the old timer.
+     */
+    private void scheduleDrain(Lane lane, long waitNanos) {
+        long delayNanos = Math.max(1, waitNanos);
+        long dueNanos = System.nanoTime() + delayNanos;
+        if (lane.scheduledDrain != null) {
+            if (lane.drainDueNanos - dueNanos <= 0) {
+                return;
+            }
+            lane.scheduledDrain.cancel(false);
+        }
+
+        lane.drainDueNanos = dueNanos;
+        lane.scheduledDrain = scheduler.schedule(() -> {
+            synchronized (lane) {
+                if (lane.drainDueNanos == dueNanos) {
+                    lane.scheduledDrain = null;
+                }
+            }
+            try {
+                drain(lane);
+            } catch (RuntimeException e) {
+                log.error("Rate limiter drain failed: {}", e.getMessage());
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Bucket createBucket(int limit) {
+        return Bucket.builder()
+            .addLimit(bandwidth(limit))
+            .build();
+    }
+
+    private BucketConfiguration createConfiguration(int limit) {
+        return BucketConfiguration.builder()
+            .addLimit(bandwidth(limit))
+            .build();
+    }
+
+    private Bandwidth bandwidth(int limit) {
+        return Bandwidth.builder()
+            .capacity(limit)
+            .refillGreedy(limit, period)
+            .build();
+    }
+
+    private record Reservation(int permits, CompletableFuture<Void> granted) {}
+
+    private final class Lane {
+
+        private final Bucket rpm = createBucket(rpmLimit);
+        private final Bucket tpm = createBucket(tpmLimit);
+        private final Map<Priority, Queue<Reservation>> queues = new EnumMap<>(Priority.class);
+        private ScheduledFuture<?> scheduledDrain;
+        private long drainDueNanos;
+        private long pausedUntilNanos = System.nanoTime();
+
+        private Lane() {
+            for (Priority priority : Priority.values()) {
+                queues.put(priority, new ArrayDeque<>());
+            }
+        }
+
+        private Reservation head() {
+            for (Queue<Reservation> queue : queues.values()) {
+                while (!queue.isEmpty() && queue.peek().granted().isDone()) {
+                    queue.poll();
+                }
+                if (!queue.isEmpty()) {
+                    return queue.peek();
+                }
+            }
+            return null;
+        }
+
+        private void poll() {
+            for (Queue<Reservation> queue : queues.values()) {
+                if (!queue.isEmpty()) {
+                    queue.poll();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.nevis.search.infra;
+
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * A character stream copied to a temporary UTF-8 file, hashed on the way so the
+ * text never has to be held in memory to compute its {@link ContentHash}.
+ */
+public final class SpooledText implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path file;
+    private final long length;
+    private final boolean blank;
+    private final String sha256;
+
+    private SpooledText(Path file, long length, boolean blank, String sha256) {
+        this.file = file;
+        this.length = length;
+        this.blank = blank;
+        this.sha256 = sha256;
+    }
+
+    public static SpooledText spool(Reader reader) throws IOException {
+        Path file = Files.createTempFile("ingest-", ".txt");
+        MessageDigest digest = newDigest();
+        long length = 0;
+        boolean blank = true;
+
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(Files.newOutputStream(file), digest), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                writer.write(buffer, 0, read);
+                length += read;
+                for (int i = 0; blank && i < read; i++) {
+                    blank = Character.isWhitespace(buffer[i]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        return new SpooledText(file, length, blank, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /** Number of UTF-16 chars, as {@link String#length()} would report for the same text. */
+    public long length() {
+        return length;
+    }
+
+    public boolean isBlank() {
+        return blank;
+    }
+
+    public String sha256() {
+        return sha256;
+    }
+
+    public Reader openReader() throws IOException {
+        return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @SneakyThrows
+    private static MessageDigest newDigest() {
+        return MessageDigest.getInstance("SHA-256");
+    }
+}
@@ -0,0 +1,8 @@
+package com.nevis.search.model;
+
+import java.util.List;
+
+public record ChunkEnrichment(
+    List<String> terms,
+    String summary
+) {}
@@ -13,6 +13,8 @@ public record Document(
     String summaryErrorMessage,
     int summaryAttempts,
     DocumentTaskStatus status,
+    int totalChunks,
+    int pendingChunks,
     OffsetDateTime createdAt,
     OffsetDateTime updatedAt
 ) {}
\ No newline at end of file
@@ -8,6 +8,7 @@ public record DocumentChunk(
     UUID id,
     UUID documentId,
     String content,
+    String contentHash,
     String chunkSummary,
     DocumentTaskStatus status,
     String errorMessage,
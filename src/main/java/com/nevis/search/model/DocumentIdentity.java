@@ -0,0 +1,10 @@
+package com.nevis.search.model;
+
+import java.util.UUID;
+
+public record DocumentIdentity(
+    UUID id,
+    UUID clientId,
+    String contentHash,
+    String idempotencyKey
+) {}
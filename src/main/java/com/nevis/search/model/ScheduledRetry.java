@@ -0,0 +1,7 @@
+package com.nevis.search.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record ScheduledRetry(UUID documentId, OffsetDateTime dueAt) {
+}
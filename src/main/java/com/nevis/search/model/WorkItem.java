@@ -0,0 +1,16 @@
+package com.nevis.search.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record WorkItem(
+    long id,
+    WorkType workType,
+    UUID documentId,
+    int priority,
+    int attempts,
+    Instant availableAt
+) {
+    public static final int DEFAULT_PRIORITY = 0;
+    public static final int BACKGROUND_PRIORITY = 10;
+}
@@ -0,0 +1,6 @@
+package com.nevis.search.model;
+
+public enum WorkType {
+    SPLIT,
+    SUMMARIZE
+}
@@ -4,11 +4,14 @@ import com.nevis.search.model.Client;
 import com.nevis.search.controller.ClientSearchResponse;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ClientRepository {
     Client save(Client client);
     Optional<Client> findById(UUID id);
+    Set<UUID> findExistingIds(Collection<UUID> ids);
     ClientSearchResponse search(String query, Optional<Integer> limit, Optional<Double> similarity);
 }
\ No newline at end of file
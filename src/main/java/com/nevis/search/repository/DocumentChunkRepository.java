@@ -1,5 +1,6 @@
 package com.nevis.search.repository;
 
+import com.nevis.search.infra.Backoff;
 import com.nevis.search.model.DocumentChunk;
 import com.nevis.search.model.DocumentTaskStatus;
 import com.nevis.search.controller.DocumentSearchResultItem;
@@ -7,17 +8,29 @@ import dev.langchain4j.data.segment.TextSegment;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface DocumentChunkRepository {
     void saveChunks(UUID docId, List<TextSegment> segments);
-    int countPendingByDocumentId(UUID docId);
-    Optional<DocumentChunk> claimNextPendingChunk(UUID docId, int maxAttempts);
-    boolean areAllChunksProcessed(UUID docId);
+    void saveChunks(Map<UUID, List<TextSegment>> segmentsByDocument, int priority);
+    long countUnprocessed(int maxAttempts);
+    long countClaimable(int maxAttempts);
+    List<DocumentChunk> claimReadyChunks(int batchSize, int maxAttempts);
+    Optional<Integer> markReady(UUID chunkId);
     void updateStatus(UUID chunkId, DocumentTaskStatus status);
     void markAsFailed(UUID id, String error);
+    void updateChunkSummary(UUID chunkId, String summary);
+    List<String> findChunkSummaries(UUID docId);
     void insertChunkVector(UUID docId, UUID chunkId, String content, float[] vector);
+    void insertChunkVectors(UUID docId, UUID chunkId, Map<String, float[]> vectors);
+    Optional<UUID> findReadyChunkIdByContentHash(String contentHash);
+    int copyChunkVectors(UUID sourceChunkId, UUID docId, UUID chunkId);
+    List<DocumentChunk> claimForProvisionalEmbedding(int limit);
+    void releaseProvisionalClaims(List<UUID> chunkIds);
+    int insertProvisionalVectors(Map<UUID, float[]> vectorsByChunk);
+    int deleteProvisionalVectors(UUID chunkId);
     List<DocumentSearchResultItem> findSimilar(float[] vector, Optional<Integer> limit, Optional<UUID> clientId, double threshold);
-    List<UUID> resetStaleAndFailedChunks(int maxAttempts, int staleThresholdMinutes);
+    int resetStaleAndFailedChunks(int maxAttempts, int staleThresholdMinutes, Backoff backoff, int limit);
 }
\ No newline at end of file
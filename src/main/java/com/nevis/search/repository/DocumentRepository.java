@@ -1,19 +1,36 @@
 package com.nevis.search.repository;
 
+import com.nevis.search.infra.Backoff;
 import com.nevis.search.model.Document;
+import com.nevis.search.model.DocumentIdentity;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.ScheduledRetry;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Reader;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface DocumentRepository {
     Document save(Document document);
+    Document save(Document document, String idempotencyKey);
     Optional<Document> findById(UUID id);
+    Optional<Document> findByIdempotencyKey(UUID clientId, String idempotencyKey);
+    Optional<Document> findByContentHash(UUID clientId, String contentHash);
+    void lockForIngest(UUID clientId, String fingerprint);
+    void lockForIngest(List<Map.Entry<UUID, String>> fingerprints);
+    void updateContent(UUID id, Reader content, String contentHash);
+    Optional<Document> claimForSplit(UUID id);
+    boolean failUnsplit(UUID id);
+    void copyAll(List<Document> documents, Map<UUID, String> idempotencyKeys);
+    List<DocumentIdentity> findIdentities(Collection<UUID> clientIds, Collection<String> contentHashes, Collection<String> idempotencyKeys);
     void updateStatus(UUID id, DocumentTaskStatus status);
     void updateSummaryStatus(UUID id, DocumentTaskStatus status, String error);
     void updateSummary(UUID id, String summary, DocumentTaskStatus status);
     Optional<Document> claimForSummary(UUID docId, int maxAttempts);
-    List<UUID> resetStaleAndFailedSummaries(int maxAttempts, int staleMinutes);
+    List<ScheduledRetry> resetStaleAndFailedSummaries(int maxAttempts, int staleMinutes, Backoff backoff, int limit);
+    List<UUID> claimStrandedSummaries(int maxChunkAttempts, int limit);
 }
\ No newline at end of file
@@ -11,8 +11,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -63,6 +66,18 @@ public class JdbcClientRepository implements ClientRepository {
             .optional();
     }
 
+    @Override
+    public Set<UUID> findExistingIds(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbcClient.sql("SELECT id FROM clients WHERE id = ANY(CAST(:ids AS uuid[]))")
+            .param("ids", ids.stream().map(UUID::toString).toArray(String[]::new))
+            .query(UUID.class)
+            .list());
+    }
+
     @Transactional(readOnly = true)
     @Override
     public ClientSearchResponse search(String query, Optional<Integer> limit, Optional<Double> similarity) {
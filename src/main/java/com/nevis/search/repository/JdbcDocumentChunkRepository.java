@@ -1,23 +1,36 @@
 package com.nevis.search.repository;
 
 import com.nevis.search.exception.EntityNotFoundException;
+import com.nevis.search.infra.ContentHash;
+import com.nevis.search.infra.PgBinaryCopyWriter;
+import com.nevis.search.infra.Backoff;
 import com.nevis.search.model.DocumentChunk;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.WorkItem;
 import com.nevis.search.controller.DocumentSearchResultItem;
 import com.pgvector.PGvector;
 import dev.langchain4j.data.segment.TextSegment;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,6 +46,7 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
         rs.getObject("id", UUID.class),
         rs.getObject("document_id", UUID.class),
         rs.getString("content"),
+        rs.getString("content_hash"),
         rs.getString("chunk_summary"),
         DocumentTaskStatus.valueOf(rs.getString("status")),
         rs.getString("error_message"),
@@ -41,15 +55,25 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
         rs.getObject("updated_at", OffsetDateTime.class)
     );
 
+    @Value("${app.ingest.copy-threshold:200}")
+    private int copyThreshold;
+
     @Override
     public void saveChunks(UUID docId, List<TextSegment> segments) {
         if (segments == null || segments.isEmpty()) {
             return;
         }
 
+        if (segments.size() >= copyThreshold) {
+            copyChunks(Map.of(docId, segments), WorkItem.DEFAULT_PRIORITY);
+            return;
+        }
+
+        addChunkCounts(Map.of(docId, segments));
+
         String sql = """
-                INSERT INTO document_chunks (document_id, content, status) 
-                VALUES (?, ?, 'PENDING'::task_status)
+                INSERT INTO document_chunks (document_id, content, content_hash, status) 
+                VALUES (?, ?, ?, 'PENDING'::task_status)
             """;
 
         jdbcTemplate.batchUpdate(sql, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
@@ -59,6 +83,7 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
                 TextSegment segment = segments.get(i);
                 ps.setObject(1, docId);
                 ps.setString(2, segment.text());
+                ps.setString(3, ContentHash.sha256(segment.text()));
             }
 
             @Override
@@ -68,60 +93,221 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
         });
     }
 
-    @Transactional
     @Override
-    public Optional<DocumentChunk> claimNextPendingChunk(UUID docId, int maxAttempts) {
+    public void saveChunks(Map<UUID, List<TextSegment>> segmentsByDocument, int priority) {
+        if (segmentsByDocument == null || segmentsByDocument.values().stream().allMatch(List::isEmpty)) {
+            return;
+        }
+        copyChunks(segmentsByDocument, priority);
+    }
+
+    private void copyChunks(Map<UUID, List<TextSegment>> segmentsByDocument, int priority) {
+        addChunkCounts(segmentsByDocument);
+
+        String sql = "COPY document_chunks (document_id, content, content_hash, priority) FROM STDIN WITH (FORMAT binary)";
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql);
+            try {
+                PgBinaryCopyWriter writer = new PgBinaryCopyWriter(copyStream);
+                for (Map.Entry<UUID, List<TextSegment>> entry : segmentsByDocument.entrySet()) {
+                    for (TextSegment segment : entry.getValue()) {
+                        writer.startRow(4);
+                        writer.writeUuid(entry.getKey());
+                        writer.writeText(segment.text());
+                        writer.writeText(ContentHash.sha256(segment.text()));
+                        writer.writeSmallint(priority);
+                    }
+                }
+                writer.close();
+            } catch (IOException e) {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new SQLException("COPY of chunks failed for documents " + segmentsByDocument.keySet(), e);
+            }
+            return null;
+        });
+
+        log.debug("Copied chunks for {} documents", segmentsByDocument.size());
+    }
+
+    /**
+     * Grows the documents' chunk counters in the same transaction as the insert.
+     */
+    private void addChunkCounts(Map<UUID, List<TextSegment>> segmentsByDocument) {
+        List<UUID> docIds = List.copyOf(segmentsByDocument.keySet());
+
         String sql = """
-            UPDATE document_chunks 
+            UPDATE documents d
+            SET total_chunks = d.total_chunks + added.count,
+                pending_chunks = d.pending_chunks + added.count
+            FROM unnest(CAST(:ids AS uuid[]), CAST(:counts AS int[])) AS added(document_id, count)
+            WHERE d.id = added.document_id
+            """;
+
+        jdbcClient.sql(sql)
+            .param("ids", docIds.stream().map(UUID::toString).toArray(String[]::new))
+            .param("counts", docIds.stream().map(id -> segmentsByDocument.get(id).size()).toArray(Integer[]::new))
+            .update();
+    }
+
+    /**
+     * Claims pending chunks across documents, taking the oldest chunk of every document before
+     * the second chunk of any, so one large document cannot starve the others. The documents
+     * are found with a skip scan over idx_chunks_ready_queue, starting at a random document and
+     * wrapping around, and each contributes at most {@code batchSize} chunks, so a claim reads
+     * O(batchSize²) index entries however large the backlog is.
+     * <p>
+     * Interactive chunks are claimed first; bulk-loaded chunks at background priority only fill
+     * what is left of the batch, so a backfill cannot starve live uploads.
+     */
+    @Override
+    public List<DocumentChunk> claimReadyChunks(int batchSize, int maxAttempts) {
+        List<DocumentChunk> claimed = new ArrayList<>(claimReadyChunks(WorkItem.DEFAULT_PRIORITY, batchSize, maxAttempts));
+        if (claimed.size() < batchSize) {
+            claimed.addAll(claimReadyChunks(WorkItem.BACKGROUND_PRIORITY, batchSize - claimed.size(), maxAttempts));
+        }
+        return claimed;
+    }
+
+    private List<DocumentChunk> claimReadyChunks(int priority, int batchSize, int maxAttempts) {
+        String sql = """
+            WITH RECURSIVE after_start AS (
+                (SELECT document_id FROM document_chunks
+                 WHERE status = 'PENDING'::task_status AND priority = :priority AND document_id >= :start
+                   AND attempts < :maxAttempts AND (next_attempt_at IS NULL OR next_attempt_at <= NOW())
+                 ORDER BY document_id LIMIT 1)
+                UNION ALL
+                SELECT (SELECT c.document_id FROM document_chunks c
+                        WHERE c.status = 'PENDING'::task_status AND c.priority = :priority AND c.document_id > after_start.document_id
+                          AND c.attempts < :maxAttempts AND (c.next_attempt_at IS NULL OR c.next_attempt_at <= NOW())
+                        ORDER BY c.document_id LIMIT 1)
+                FROM after_start
+                WHERE after_start.document_id IS NOT NULL
+            ), before_start AS (
+                (SELECT document_id FROM document_chunks
+                 WHERE status = 'PENDING'::task_status AND priority = :priority AND document_id < :start
+                   AND attempts < :maxAttempts AND (next_attempt_at IS NULL OR next_attempt_at <= NOW())
+                 ORDER BY document_id LIMIT 1)
+                UNION ALL
+                SELECT (SELECT c.document_id FROM document_chunks c
+                        WHERE c.status = 'PENDING'::task_status AND c.priority = :priority
+                          AND c.document_id > before_start.document_id AND c.document_id < :start
+                          AND c.attempts < :maxAttempts AND (c.next_attempt_at IS NULL OR c.next_attempt_at <= NOW())
+                        ORDER BY c.document_id LIMIT 1)
+                FROM before_start
+                WHERE before_start.document_id IS NOT NULL
+            ), ready_documents AS (
+                SELECT document_id FROM (
+                    (SELECT document_id FROM after_start WHERE document_id IS NOT NULL)
+                    UNION ALL
+                    (SELECT document_id FROM before_start WHERE document_id IS NOT NULL)
+                ) documents
+                LIMIT :batchSize
+            )
+            UPDATE document_chunks
             SET status = 'PROCESSING'::task_status, updated_at = NOW()
-            WHERE id = (
-                SELECT id FROM document_chunks 
-                WHERE document_id = :docId 
-                  AND status = 'PENDING'::task_status
-                  AND attempts < :maxAttempts
-                ORDER BY created_at ASC 
-                LIMIT 1 FOR UPDATE SKIP LOCKED
+            WHERE id IN (
+                SELECT c.id
+                FROM document_chunks c
+                JOIN (
+                    SELECT chunk.id, chunk.turn, chunk.created_at
+                    FROM ready_documents d
+                    CROSS JOIN LATERAL (
+                        SELECT id, created_at, ROW_NUMBER() OVER (ORDER BY created_at) AS turn
+                        FROM document_chunks
+                        WHERE document_id = d.document_id
+                          AND status = 'PENDING'::task_status
+                          AND priority = :priority
+                          AND attempts < :maxAttempts
+                          AND (next_attempt_at IS NULL OR next_attempt_at <= NOW())
+                        ORDER BY created_at
+                        LIMIT :batchSize
+                    ) chunk
+                ) queue ON queue.id = c.id
+                WHERE c.status = 'PENDING'::task_status
+                ORDER BY queue.turn, queue.created_at
+                LIMIT :batchSize
+                FOR UPDATE OF c SKIP LOCKED
             )
             RETURNING *
             """;
 
         return jdbcClient.sql(sql)
-            .param("docId", docId)
+            .param("start", UUID.randomUUID())
+            .param("priority", priority)
             .param("maxAttempts", maxAttempts)
+            .param("batchSize", batchSize)
             .query(documentChunkMapper)
-            .optional();
+            .list();
     }
 
+    /**
+     * Counts the chunks still in flight or that can still be claimed; pending chunks that
+     * used up their attempts are left for the maintenance worker and not counted.
+     */
     @Override
-    public int countPendingByDocumentId(UUID docId) {
+    public long countUnprocessed(int maxAttempts) {
         String sql = """
-            SELECT COUNT(*) 
-            FROM document_chunks 
-            WHERE document_id = :docId 
-              AND status = 'PENDING'::task_status
+            SELECT COUNT(*)
+            FROM document_chunks
+            WHERE status = 'PROCESSING'::task_status
+               OR (status = 'PENDING'::task_status AND attempts < :maxAttempts)
             """;
 
         return jdbcClient.sql(sql)
-            .param("docId", docId)
-            .query(Integer.class)
+            .param("maxAttempts", maxAttempts)
+            .query(Long.class)
             .single();
     }
 
+    /**
+     * Counts the chunks {@link #claimReadyChunks} could hand out right now.
+     */
     @Override
-    public boolean areAllChunksProcessed(UUID docId) {
+    public long countClaimable(int maxAttempts) {
         String sql = """
-            SELECT COUNT(*) 
-            FROM document_chunks 
-            WHERE document_id = :docId 
-              AND status != 'READY'::task_status
+            SELECT COUNT(*)
+            FROM document_chunks
+            WHERE status = 'PENDING'::task_status
+              AND attempts < :maxAttempts
+              AND (next_attempt_at IS NULL OR next_attempt_at <= NOW())
             """;
 
-        Integer count = jdbcClient.sql(sql)
-            .param("docId", docId)
-            .query(Integer.class)
+        return jdbcClient.sql(sql)
+            .param("maxAttempts", maxAttempts)
+            .query(Long.class)
             .single();
+    }
+
+    @Override
+    public Optional<Integer> markReady(UUID chunkId) {
+        // the status guard keeps a redelivered chunk from decrementing the counter twice
+        String sql = """
+            WITH ready AS (
+                UPDATE document_chunks
+                SET status = 'READY'::task_status, updated_at = NOW()
+                WHERE id = :id
+                  AND status <> 'READY'::task_status
+                RETURNING document_id
+            )
+            UPDATE documents d
+            SET pending_chunks = d.pending_chunks - 1,
+                status = CASE WHEN d.pending_chunks = 1 THEN 'READY'::task_status ELSE d.status END,
+                updated_at = NOW()
+            FROM ready
+            WHERE d.id = ready.document_id
+            RETURNING d.pending_chunks
+            """;
 
-        return count == 0;
+        return jdbcClient.sql(sql)
+            .param("id", chunkId)
+            .query(Integer.class)
+            .optional();
     }
 
     @Override
@@ -163,6 +349,41 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
         }
     }
 
+    @Override
+    public void updateChunkSummary(UUID chunkId, String summary) {
+        String sql = """
+            UPDATE document_chunks
+            SET chunk_summary = :summary,
+                updated_at = NOW()
+            WHERE id = :id
+            """;
+
+        int rowsAffected = jdbcClient.sql(sql)
+            .param("summary", summary)
+            .param("id", chunkId)
+            .update();
+
+        if (rowsAffected == 0) {
+            throw new EntityNotFoundException(chunkId);
+        }
+    }
+
+    @Override
+    public List<String> findChunkSummaries(UUID docId) {
+        String sql = """
+            SELECT chunk_summary
+            FROM document_chunks
+            WHERE document_id = :docId
+              AND chunk_summary IS NOT NULL
+            ORDER BY created_at, id
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("docId", docId)
+            .query(String.class)
+            .list();
+    }
+
     @Override
     public void insertChunkVector(UUID docId, UUID chunkId, String content, float[] vector) {
         String sql = """
@@ -180,6 +401,169 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
         );
     }
 
+    @Override
+    public void insertChunkVectors(UUID docId, UUID chunkId, Map<String, float[]> vectors) {
+        if (vectors == null || vectors.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            INSERT INTO 
+            document_chunk_embeddings 
+            (document_id, chunk_id, content, embedding) 
+            VALUES (?, ?, ?, ?)
+            """;
+
+        List<Map.Entry<String, float[]>> entries = List.copyOf(vectors.entrySet());
+
+        jdbcTemplate.batchUpdate(sql, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+            @Override
+            @SneakyThrows
+            public void setValues(PreparedStatement ps, int i) {
+                Map.Entry<String, float[]> entry = entries.get(i);
+                ps.setObject(1, docId);
+                ps.setObject(2, chunkId);
+                ps.setString(3, entry.getKey());
+                ps.setObject(4, new PGvector(entry.getValue()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    @Override
+    public Optional<UUID> findReadyChunkIdByContentHash(String contentHash) {
+        String sql = """
+            SELECT id FROM document_chunks
+            WHERE content_hash = :contentHash
+              AND status = 'READY'::task_status
+            ORDER BY updated_at DESC
+            LIMIT 1
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("contentHash", contentHash)
+            .query(UUID.class)
+            .optional();
+    }
+
+    @Override
+    public int copyChunkVectors(UUID sourceChunkId, UUID docId, UUID chunkId) {
+        String sql = """
+            INSERT INTO document_chunk_embeddings (document_id, chunk_id, content, embedding)
+            SELECT :docId, :chunkId, content, embedding
+            FROM document_chunk_embeddings
+            WHERE chunk_id = :sourceChunkId
+              AND source = 'TERM'::embedding_source
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("docId", docId)
+            .param("chunkId", chunkId)
+            .param("sourceChunkId", sourceChunkId)
+            .update();
+    }
+
+    @Override
+    public List<DocumentChunk> claimForProvisionalEmbedding(int limit) {
+        String sql = """
+            UPDATE document_chunks
+            SET provisional_embedded = TRUE
+            WHERE id IN (
+                SELECT id FROM document_chunks
+                WHERE NOT provisional_embedded
+                  AND status <> 'READY'::task_status
+                ORDER BY created_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("limit", limit)
+            .query(documentChunkMapper)
+            .list();
+    }
+
+    /**
+     * Hands chunks whose provisional embedding failed back to the next poll.
+     */
+    @Override
+    public void releaseProvisionalClaims(List<UUID> chunkIds) {
+        if (chunkIds.isEmpty()) {
+            return;
+        }
+
+        jdbcClient.sql("UPDATE document_chunks SET provisional_embedded = FALSE WHERE id = ANY(CAST(:ids AS uuid[]))")
+            .param("ids", chunkIds.stream().map(UUID::toString).toArray(String[]::new))
+            .update();
+    }
+
+    /**
+     * Skips chunks that became READY meanwhile; locking the chunk row orders the insert
+     * against a concurrent {@link #markReady} so the provisional vector cannot outlive it.
+     */
+    @Override
+    public int insertProvisionalVectors(Map<UUID, float[]> vectorsByChunk) {
+        if (vectorsByChunk == null || vectorsByChunk.isEmpty()) {
+            return 0;
+        }
+
+        String sql = """
+            INSERT INTO document_chunk_embeddings (document_id, chunk_id, content, embedding, source)
+            SELECT c.document_id, c.id, c.content, ?, 'PROVISIONAL'::embedding_source
+            FROM document_chunks c
+            WHERE c.id = ?
+              AND c.status <> 'READY'::task_status
+            FOR UPDATE OF c
+            """;
+
+        List<Map.Entry<UUID, float[]>> entries = List.copyOf(vectorsByChunk.entrySet());
+
+        int[] inserted = jdbcTemplate.batchUpdate(sql, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+            @Override
+            @SneakyThrows
+            public void setValues(PreparedStatement ps, int i) {
+                Map.Entry<UUID, float[]> entry = entries.get(i);
+                ps.setObject(1, new PGvector(entry.getValue()));
+                ps.setObject(2, entry.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        return Arrays.stream(inserted).map(count -> Math.max(count, 0)).sum();
+    }
+
+    /**
+     * Drops the provisional vector once the chunk has term vectors to replace it; a chunk
+     * without extracted terms keeps it as its only searchable vector.
+     */
+    @Override
+    public int deleteProvisionalVectors(UUID chunkId) {
+        String sql = """
+            DELETE FROM document_chunk_embeddings
+            WHERE chunk_id = :chunkId
+              AND source = 'PROVISIONAL'::embedding_source
+              AND EXISTS (
+                  SELECT 1 FROM document_chunk_embeddings
+                  WHERE chunk_id = :chunkId
+                    AND source = 'TERM'::embedding_source
+              )
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("chunkId", chunkId)
+            .update();
+    }
+
     @Override
     public List<DocumentSearchResultItem> findSimilar(float[] vector, Optional<Integer> limit, Optional<UUID> clientId, double threshold) {
         PGvector pgVector = new PGvector(vector);
@@ -227,30 +611,35 @@ public class JdbcDocumentChunkRepository implements DocumentChunkRepository {
 
     @Override
     @Transactional
-    public List<UUID> resetStaleAndFailedChunks(int maxAttempts, int staleThresholdMinutes) {
+    public int resetStaleAndFailedChunks(int maxAttempts, int staleThresholdMinutes, Backoff backoff, int limit) {
         String sql = """
         UPDATE document_chunks
         SET status = 'PENDING'::task_status,
             attempts = attempts + 1,
+            next_attempt_at = NOW() + INTERVAL '1 millisecond' * %s,
             updated_at = NOW()
         WHERE id IN (
             SELECT id
             FROM document_chunks
-            WHERE (
-                status = 'FAILED'::task_status 
-                OR (status = 'PROCESSING'::task_status AND updated_at < NOW() - (INTERVAL '1 minute' * :staleMins))
-            )
-            AND attempts < :maxAttempts
+            WHERE status IN ('FAILED'::task_status, 'PROCESSING'::task_status)
+              AND (
+                status = 'FAILED'::task_status
+                OR updated_at < NOW() - (INTERVAL '1 minute' * :staleMins)
+              )
+              AND attempts < :maxAttempts
+            ORDER BY updated_at
+            LIMIT :limit
             FOR UPDATE SKIP LOCKED
         )
-        RETURNING document_id
-        """;
+        """.formatted(Backoff.sqlDelayMs("attempts + 1"));
 
         return jdbcClient.sql(sql)
             .param("maxAttempts", maxAttempts)
             .param("staleMins", staleThresholdMinutes)
-            .query(UUID.class)
-            .list();
+            .param("baseMs", backoff.base().toMillis())
+            .param("maxMs", backoff.max().toMillis())
+            .param("limit", limit)
+            .update();
     }
 
 }
\ No newline at end of file
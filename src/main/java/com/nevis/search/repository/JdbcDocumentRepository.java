@@ -1,22 +1,33 @@
 package com.nevis.search.repository;
 
 import com.nevis.search.exception.EntityNotFoundException;
+import com.nevis.search.infra.Backoff;
+import com.nevis.search.infra.ContentHash;
+import com.nevis.search.infra.PgBinaryCopyWriter;
+import com.nevis.search.infra.PgTextCopyWriter;
 import com.nevis.search.model.Document;
-import com.nevis.search.model.DocumentChunk;
+import com.nevis.search.model.DocumentIdentity;
 import com.nevis.search.model.DocumentTaskStatus;
-import dev.langchain4j.data.segment.TextSegment;
+import com.nevis.search.model.ScheduledRetry;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
-import org.springframework.beans.factory.annotation.Value;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -49,73 +60,251 @@ public class JdbcDocumentRepository implements DocumentRepository {
             rs.getString("summary_error_message"),
             rs.getInt("summary_attempts"),
             mainStatus,
+            rs.getInt("total_chunks"),
+            rs.getInt("pending_chunks"),
             rs.getObject("created_at", OffsetDateTime.class),
             rs.getObject("updated_at", OffsetDateTime.class)
         );
     };
 
-    private final RowMapper<DocumentChunk> documentChunkMapper = (rs, rowNum) -> new DocumentChunk(
-        rs.getObject("id", UUID.class),
-        rs.getObject("document_id", UUID.class),
-        rs.getString("content"),
-        rs.getString("chunk_summary"),
-        DocumentTaskStatus.valueOf(rs.getString("status")),
-        rs.getString("error_message"),
-        rs.getInt("attempts"),
-        rs.getObject("created_at", OffsetDateTime.class),
-        rs.getObject("updated_at", OffsetDateTime.class)
-    );
-
     @Override
     public Document save(Document document) {
+        return save(document, null);
+    }
+
+    @Override
+    public Document save(Document document, String idempotencyKey) {
         return jdbcClient.sql("""
-                INSERT INTO documents (client_id, title, content, summary, status)
-                VALUES (:clientId, :title, :content, :summary, :status::task_status)
+                INSERT INTO documents (client_id, title, content, content_hash, idempotency_key, summary, status)
+                VALUES (:clientId, :title, :content, :contentHash, :idempotencyKey, :summary, :status::task_status)
                 RETURNING *
                 """)
             .param("clientId", document.clientId())
             .param("title", document.title())
             .param("content", document.content())
+            .param("contentHash", ContentHash.sha256(document.content()))
+            .param("idempotencyKey", idempotencyKey)
             .param("summary", document.summary())
             .param("status", document.status() != null ? document.status().name() : DocumentTaskStatus.PENDING.name())
             .query(documentRowMapper)
             .single();
     }
 
-    public void saveChunks(UUID docId, List<TextSegment> segments) {
-        if (segments == null || segments.isEmpty()) {
+    @Override
+    public Optional<Document> findById(UUID id) {
+        return jdbcClient.sql("SELECT * FROM documents WHERE id = :id")
+            .param("id", id)
+            .query(documentRowMapper)
+            .optional();
+    }
+
+    @Override
+    public Optional<Document> findByIdempotencyKey(UUID clientId, String idempotencyKey) {
+        return jdbcClient.sql("SELECT * FROM documents WHERE client_id = :clientId AND idempotency_key = :idempotencyKey")
+            .param("clientId", clientId)
+            .param("idempotencyKey", idempotencyKey)
+            .query(documentRowMapper)
+            .optional();
+    }
+
+    @Override
+    public Optional<Document> findByContentHash(UUID clientId, String contentHash) {
+        String sql = """
+            SELECT * FROM documents
+            WHERE client_id = :clientId
+              AND content_hash = :contentHash
+              AND status != 'FAILED'::task_status
+            ORDER BY created_at ASC
+            LIMIT 1
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("clientId", clientId)
+            .param("contentHash", contentHash)
+            .query(documentRowMapper)
+            .optional();
+    }
+
+    @Override
+    public void lockForIngest(UUID clientId, String fingerprint) {
+        jdbcClient.sql("SELECT pg_advisory_xact_lock(hashtextextended(:lockKey, 0))")
+            .param("lockKey", clientId + ":" + fingerprint)
+            .query()
+            .listOfRows();
+    }
+
+    /**
+     * Takes the same locks as {@link #lockForIngest(UUID, String)} for many fingerprints in one
+     * round trip, in the order given; the lock function runs after the sort.
+     */
+    @Override
+    public void lockForIngest(List<Map.Entry<UUID, String>> fingerprints) {
+        if (fingerprints.isEmpty()) {
             return;
         }
 
         String sql = """
-                INSERT INTO document_chunks (document_id, content, status) 
-                VALUES (?, ?, 'PENDING'::task_status)
+            SELECT pg_advisory_xact_lock(hashtextextended(lock.key, 0))
+            FROM unnest(CAST(:lockKeys AS text[])) WITH ORDINALITY AS lock(key, position)
+            ORDER BY lock.position
+            """;
+
+        jdbcClient.sql(sql)
+            .param("lockKeys", fingerprints.stream().map(entry -> entry.getKey() + ":" + entry.getValue()).toArray(String[]::new))
+            .query()
+            .listOfRows();
+    }
+
+    /**
+     * Streams the text into a temporary table with COPY and moves it into the document from
+     * there, so the JVM never holds the whole body; a bound parameter would be read into a
+     * single String by the driver.
+     */
+    @Override
+    @Transactional
+    public void updateContent(UUID id, Reader content, String contentHash) {
+        String sql = """
+            UPDATE documents d
+            SET content = upload.content,
+                content_hash = ?
+            FROM document_content_upload upload
+            WHERE d.id = ?
             """;
 
-        jdbcTemplate.batchUpdate(sql, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
-            @Override
-            @SneakyThrows
-            public void setValues(PreparedStatement ps, int i) {
-                TextSegment segment = segments.get(i);
-                ps.setObject(1, docId);
-                ps.setString(2, segment.text());
+        Integer rowsAffected = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE document_content_upload (content text) ON COMMIT DROP");
             }
 
-            @Override
-            public int getBatchSize() {
-                return segments.size();
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                "COPY document_content_upload (content) FROM STDIN");
+            try {
+                PgTextCopyWriter writer = new PgTextCopyWriter(copyStream);
+                writer.writeText(content);
+                writer.endRow();
+                writer.close();
+            } catch (IOException e) {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new SQLException("COPY of document content failed", e);
+            }
+
+            try (PreparedStatement update = connection.prepareStatement(sql);
+                 Statement drop = connection.createStatement()) {
+                update.setString(1, contentHash);
+                update.setObject(2, id);
+                int updated = update.executeUpdate();
+                drop.execute("DROP TABLE document_content_upload");
+                return updated;
             }
         });
+
+        if (rowsAffected == null || rowsAffected == 0) {
+            throw new EntityNotFoundException(id);
+        }
     }
 
     @Override
-    public Optional<Document> findById(UUID id) {
-        return jdbcClient.sql("SELECT * FROM documents WHERE id = :id")
+    public Optional<Document> claimForSplit(UUID id) {
+        String sql = """
+            UPDATE documents 
+            SET status = 'PROCESSING'::task_status
+            WHERE id = :id
+              AND status = 'PENDING'::task_status
+            RETURNING *
+            """;
+
+        return jdbcClient.sql(sql)
             .param("id", id)
             .query(documentRowMapper)
             .optional();
     }
 
+    @Override
+    public boolean failUnsplit(UUID id) {
+        String sql = """
+            UPDATE documents 
+            SET status = 'FAILED'::task_status
+            WHERE id = :id
+              AND status = 'PENDING'::task_status
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("id", id)
+            .update() > 0;
+    }
+
+    @Override
+    public void copyAll(List<Document> documents, Map<UUID, String> idempotencyKeys) {
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            COPY documents (id, client_id, title, content, content_hash, idempotency_key, status)
+            FROM STDIN WITH (FORMAT binary)
+            """;
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql);
+            try {
+                PgBinaryCopyWriter writer = new PgBinaryCopyWriter(copyStream);
+                for (Document document : documents) {
+                    writer.startRow(7);
+                    writer.writeUuid(document.id());
+                    writer.writeUuid(document.clientId());
+                    writer.writeText(document.title());
+                    writer.writeText(document.content());
+                    writer.writeText(ContentHash.sha256(document.content()));
+                    writer.writeText(idempotencyKeys.get(document.id()));
+                    writer.writeText(document.status().name());
+                }
+                writer.close();
+            } catch (IOException e) {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new SQLException("COPY of documents failed", e);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<DocumentIdentity> findIdentities(Collection<UUID> clientIds, Collection<String> contentHashes, Collection<String> idempotencyKeys) {
+        if (clientIds == null || clientIds.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = """
+            SELECT id, client_id, content_hash, idempotency_key
+            FROM documents
+            WHERE client_id = ANY(CAST(:clientIds AS uuid[]))
+              AND (content_hash = ANY(:contentHashes) OR idempotency_key = ANY(:idempotencyKeys))
+              AND status != 'FAILED'::task_status
+            ORDER BY created_at ASC
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("clientIds", clientIds.stream().map(UUID::toString).toArray(String[]::new))
+            .param("contentHashes", contentHashes.toArray(new String[0]))
+            .param("idempotencyKeys", idempotencyKeys.toArray(new String[0]))
+            .query((rs, rowNum) -> new DocumentIdentity(
+                rs.getObject("id", UUID.class),
+                rs.getObject("client_id", UUID.class),
+                rs.getString("content_hash"),
+                rs.getString("idempotency_key")
+            ))
+            .list();
+    }
+
     @Override
     public void updateStatus(UUID id, DocumentTaskStatus status) {
         String sql = """
@@ -205,30 +394,80 @@ public class JdbcDocumentRepository implements DocumentRepository {
 
     @Override
     @Transactional
-    public List<UUID> resetStaleAndFailedSummaries(int maxAttempts, int staleThresholdMinutes) {
+    public List<ScheduledRetry> resetStaleAndFailedSummaries(int maxAttempts, int staleThresholdMinutes, Backoff backoff, int limit) {
         String sql = """
-        UPDATE documents 
+        UPDATE documents
         SET summary_status = 'PENDING'::task_status,
-            summary_attempts = summary_attempts + 1, 
+            summary_attempts = summary_attempts + 1,
             updated_at = NOW()
         WHERE id IN (
-            SELECT id 
+            SELECT id
             FROM documents
-            WHERE (
-                summary_status = 'FAILED'::task_status 
-                OR (summary_status = 'PROCESSING'::task_status AND updated_at < NOW() - (INTERVAL '1 minute' * :staleMins))
-            )
-            AND summary_attempts < :maxAttempts
+            WHERE summary_status IN ('FAILED'::task_status, 'PROCESSING'::task_status)
+              AND (
+                summary_status = 'FAILED'::task_status
+                OR updated_at < NOW() - (INTERVAL '1 minute' * :staleMins)
+              )
+              AND summary_attempts < :maxAttempts
+            ORDER BY updated_at
+            LIMIT :limit
             FOR UPDATE SKIP LOCKED
         )
-        RETURNING id        
-        """;
+        RETURNING id, NOW() + INTERVAL '1 millisecond' * %s AS due_at
+        """.formatted(Backoff.sqlDelayMs("summary_attempts"));
 
         return jdbcClient.sql(sql)
             .param("maxAttempts", maxAttempts)
             .param("staleMins", staleThresholdMinutes)
-            .query(UUID.class)
+            .param("baseMs", backoff.base().toMillis())
+            .param("maxMs", backoff.max().toMillis())
+            .param("limit", limit)
+            .query((rs, rowNum) -> new ScheduledRetry(
+                rs.getObject("id", UUID.class),
+                rs.getObject("due_at", OffsetDateTime.class)
+            ))
             .list();
     }
 
-}
\ No newline at end of file
+    /**
+     * Finds documents whose summary is still PENDING although none of their chunks can make
+     * progress any more: every chunk is READY or has used up its attempts, so the last-chunk
+     * trigger of the combined summary never fires. Documents that already have a SUMMARIZE
+     * item queued are skipped; the rows stay locked until the caller's transaction commits.
+     */
+    @Override
+    @Transactional
+    public List<UUID> claimStrandedSummaries(int maxChunkAttempts, int limit) {
+        String sql = """
+        UPDATE documents
+        SET updated_at = NOW()
+        WHERE id IN (
+            SELECT d.id
+            FROM documents d
+            WHERE d.summary_status = 'PENDING'::task_status
+              AND d.pending_chunks > 0
+              AND NOT EXISTS (
+                  SELECT 1 FROM document_chunks c
+                  WHERE c.document_id = d.id
+                    AND (c.status = 'PROCESSING'::task_status
+                         OR (c.status IN ('PENDING'::task_status, 'FAILED'::task_status) AND c.attempts < :maxChunkAttempts))
+              )
+              AND NOT EXISTS (
+                  SELECT 1 FROM work_queue w
+                  WHERE w.document_id = d.id
+                    AND w.work_type = 'SUMMARIZE'::work_type
+              )
+            ORDER BY d.updated_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING id
+        """;
+
+        return jdbcClient.sql(sql)
+            .param("maxChunkAttempts", maxChunkAttempts)
+            .param("limit", limit)
+            .query(UUID.class)
+            .list();
+    }
+}
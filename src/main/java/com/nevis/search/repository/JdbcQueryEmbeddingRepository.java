@@ -0,0 +1,64 @@
+package com.nevis.search.repository;
+
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcQueryEmbeddingRepository implements QueryEmbeddingRepository {
+
+    private final JdbcClient jdbcClient;
+
+    @Override
+    public Optional<float[]> find(String queryKey, String modelVersion, Duration maxAge) {
+        String sql = """
+            SELECT embedding::text
+            FROM query_embeddings
+            WHERE query_key = :queryKey
+              AND model_version = :modelVersion
+              AND created_at > NOW() - (INTERVAL '1 second' * :maxAgeSeconds)
+            """;
+
+        return jdbcClient.sql(sql)
+            .param("queryKey", queryKey)
+            .param("modelVersion", modelVersion)
+            .param("maxAgeSeconds", maxAge.toSeconds())
+            .query(String.class)
+            .optional()
+            .map(this::toVector);
+    }
+
+    @Override
+    public void save(String queryKey, String modelVersion, float[] vector) {
+        String sql = """
+            INSERT INTO query_embeddings (query_key, model_version, embedding)
+            VALUES (:queryKey, :modelVersion, :embedding)
+            ON CONFLICT (query_key, model_version)
+            DO UPDATE SET embedding = EXCLUDED.embedding, created_at = NOW()
+            """;
+
+        jdbcClient.sql(sql)
+            .param("queryKey", queryKey)
+            .param("modelVersion", modelVersion)
+            .param("embedding", new PGvector(vector))
+            .update();
+    }
+
+    @Override
+    public int deleteOlderThan(Duration maxAge) {
+        return jdbcClient.sql("DELETE FROM query_embeddings WHERE created_at < NOW() - (INTERVAL '1 second' * :maxAgeSeconds)")
+            .param("maxAgeSeconds", maxAge.toSeconds())
+            .update();
+    }
+
+    @SneakyThrows
+    private float[] toVector(String value) {
+        return new PGvector(value).toArray();
+    }
+}
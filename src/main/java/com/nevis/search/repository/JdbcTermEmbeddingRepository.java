@@ -0,0 +1,79 @@
+package com.nevis.search.repository;
+
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcTermEmbeddingRepository implements TermEmbeddingRepository {
+
+    private final JdbcClient jdbcClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, float[]> findByTerms(Collection<String> terms, String modelVersion) {
+        Map<String, float[]> result = new HashMap<>();
+        if (terms == null || terms.isEmpty()) {
+            return result;
+        }
+
+        String sql = """
+            SELECT term, embedding::text AS embedding
+            FROM term_embeddings
+            WHERE model_version = :modelVersion
+              AND term = ANY(:terms)
+            """;
+
+        jdbcClient.sql(sql)
+            .param("modelVersion", modelVersion)
+            .param("terms", terms.toArray(new String[0]))
+            .query(rs -> {
+                result.put(rs.getString("term"), new PGvector(rs.getString("embedding")).toArray());
+            });
+
+        return result;
+    }
+
+    @Override
+    public void saveAll(Map<String, float[]> embeddings, String modelVersion) {
+        if (embeddings == null || embeddings.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            INSERT INTO term_embeddings (term, model_version, embedding)
+            VALUES (?, ?, ?)
+            ON CONFLICT (term, model_version) DO NOTHING
+            """;
+
+        List<Map.Entry<String, float[]>> entries = new ArrayList<>(embeddings.entrySet());
+
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            @SneakyThrows
+            public void setValues(PreparedStatement ps, int i) {
+                Map.Entry<String, float[]> entry = entries.get(i);
+                ps.setString(1, entry.getKey());
+                ps.setString(2, modelVersion);
+                ps.setObject(3, new PGvector(entry.getValue()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,201 @@
+package com.nevis.search.repository;
+
+import com.nevis.search.model.ScheduledRetry;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcWorkQueueRepository implements WorkQueueRepository {
+
+    private final JdbcClient jdbcClient;
+
+    private final RowMapper<WorkItem> workItemMapper = (rs, rowNum) -> new WorkItem(
+        rs.getLong("id"),
+        WorkType.valueOf(rs.getString("work_type")),
+        rs.getObject("document_id", UUID.class),
+        rs.getInt("priority"),
+        rs.getInt("attempts"),
+        rs.getTimestamp("available_at").toInstant()
+    );
+
+    @Override
+    public void enqueue(WorkType workType, UUID documentId) {
+        jdbcClient.sql("INSERT INTO work_queue (work_type, document_id, priority) VALUES (:workType::work_type, :documentId, :priority)")
+            .param("workType", workType.name())
+            .param("documentId", documentId)
+            .param("priority", WorkItem.DEFAULT_PRIORITY)
+            .update();
+    }
+
+    @Override
+    public void enqueueAll(WorkType workType, Collection<UUID> documentIds, int priority) {
+        if (documentIds.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            INSERT INTO work_queue (work_type, document_id, priority)
+            SELECT :workType::work_type, id, :priority
+            FROM unnest(CAST(:ids AS uuid[])) AS id
+            """;
+
+        jdbcClient.sql(sql)
+            .param("workType", workType.name())
+            .param("priority", priority)
+            .param("ids", documentIds.stream().map(UUID::toString).toArray(String[]::new))
+            .update();
+    }
+
+    @Override
+    public void enqueueScheduled(WorkType workType, List<ScheduledRetry> retries, int priority) {
+        if (retries.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            INSERT INTO work_queue (work_type, document_id, priority, available_at)
+            SELECT :workType::work_type, retry.id, :priority, retry.due_at
+            FROM unnest(CAST(:ids AS uuid[]), CAST(:dueAts AS timestamptz[])) AS retry(id, due_at)
+            """;
+
+        jdbcClient.sql(sql)
+            .param("workType", workType.name())
+            .param("priority", priority)
+            .param("ids", retries.stream().map(retry -> retry.documentId().toString()).toArray(String[]::new))
+            .param("dueAts", retries.stream().map(retry -> retry.dueAt().toString()).toArray(String[]::new))
+            .update();
+    }
+
+    /**
+     * Wakes the chunk worker pools on every node once the current transaction commits.
+     */
+    @Override
+    public void notifyChunksReady() {
+        jdbcClient.sql("SELECT pg_notify('work_queue', :payload)")
+            .param("payload", CHUNKS_READY)
+            .query()
+            .listOfRows();
+    }
+
+    /**
+     * Claims items of one type that have not been attempted yet.
+     */
+    @Override
+    public List<WorkItem> claim(WorkType workType, int limit, Duration lease) {
+        return claimWhere("work_type = :workType::work_type AND attempts = 0", Map.of("workType", workType.name()), limit, lease);
+    }
+
+    /**
+     * Claims items of any type that already failed at least once.
+     */
+    @Override
+    public List<WorkItem> claimRetries(int limit, Duration lease) {
+        return claimWhere("attempts > 0", Map.of(), limit, lease);
+    }
+
+    private List<WorkItem> claimWhere(String condition, Map<String, ?> params, int limit, Duration lease) {
+        String sql = """
+            UPDATE work_queue
+            SET locked_until = NOW() + (INTERVAL '1 second' * :leaseSeconds),
+                attempts = attempts + 1
+            WHERE id IN (
+                SELECT id FROM work_queue
+                WHERE %s
+                  AND available_at <= NOW()
+                  AND (locked_until IS NULL OR locked_until < NOW())
+                ORDER BY priority, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+            """.formatted(condition);
+
+        return jdbcClient.sql(sql)
+            .params(params)
+            .param("leaseSeconds", lease.toSeconds())
+            .param("limit", limit)
+            .query(workItemMapper)
+            .list();
+    }
+
+    @Override
+    public void complete(long id) {
+        jdbcClient.sql("DELETE FROM work_queue WHERE id = :id")
+            .param("id", id)
+            .update();
+    }
+
+    @Override
+    public void retryLater(long id, Duration delay) {
+        String sql = """
+            UPDATE work_queue
+            SET locked_until = NULL,
+                available_at = NOW() + (INTERVAL '1 millisecond' * :delayMs)
+            WHERE id = :id
+            """;
+
+        jdbcClient.sql(sql)
+            .param("id", id)
+            .param("delayMs", delay.toMillis())
+            .update();
+    }
+
+    @Override
+    public long countQueued() {
+        return jdbcClient.sql("SELECT COUNT(*) FROM work_queue")
+            .query(Long.class)
+            .single();
+    }
+
+    /**
+     * Counts the first attempts that {@link #claim} could hand out right now, by type.
+     */
+    @Override
+    public Map<WorkType, Long> countWaitingByType() {
+        String sql = """
+            SELECT work_type, COUNT(*) AS waiting
+            FROM work_queue
+            WHERE attempts = 0
+              AND available_at <= NOW()
+              AND (locked_until IS NULL OR locked_until < NOW())
+            GROUP BY work_type
+            """;
+
+        Map<WorkType, Long> waiting = new EnumMap<>(WorkType.class);
+        jdbcClient.sql(sql)
+            .query((rs, rowNum) -> Map.entry(WorkType.valueOf(rs.getString("work_type")), rs.getLong("waiting")))
+            .list()
+            .forEach(entry -> waiting.put(entry.getKey(), entry.getValue()));
+        return waiting;
+    }
+
+    /**
+     * Counts the retries that {@link #claimRetries} could hand out right now.
+     */
+    @Override
+    public long countWaitingRetries() {
+        String sql = """
+            SELECT COUNT(*)
+            FROM work_queue
+            WHERE attempts > 0
+              AND available_at <= NOW()
+              AND (locked_until IS NULL OR locked_until < NOW())
+            """;
+
+        return jdbcClient.sql(sql)
+            .query(Long.class)
+            .single();
+    }
+}
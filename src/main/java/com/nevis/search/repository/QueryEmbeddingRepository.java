@@ -0,0 +1,10 @@
+package com.nevis.search.repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public interface QueryEmbeddingRepository {
+    Optional<float[]> find(String queryKey, String modelVersion, Duration maxAge);
+    void save(String queryKey, String modelVersion, float[] vector);
+    int deleteOlderThan(Duration maxAge);
+}
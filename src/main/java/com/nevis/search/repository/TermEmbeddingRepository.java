@@ -0,0 +1,9 @@
+package com.nevis.search.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface TermEmbeddingRepository {
+    Map<String, float[]> findByTerms(Collection<String> terms, String modelVersion);
+    void saveAll(Map<String, float[]> embeddings, String modelVersion);
+}
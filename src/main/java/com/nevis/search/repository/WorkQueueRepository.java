@@ -0,0 +1,29 @@
+package com.nevis.search.repository;
+
+import com.nevis.search.model.ScheduledRetry;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface WorkQueueRepository {
+
+    /** Payload of the work_queue notification sent when new chunks are ready to be claimed. */
+    String CHUNKS_READY = "CHUNKS_READY";
+
+    void enqueue(WorkType workType, UUID documentId);
+    void enqueueAll(WorkType workType, Collection<UUID> documentIds, int priority);
+    void enqueueScheduled(WorkType workType, List<ScheduledRetry> retries, int priority);
+    void notifyChunksReady();
+    List<WorkItem> claim(WorkType workType, int limit, Duration lease);
+    List<WorkItem> claimRetries(int limit, Duration lease);
+    void complete(long id);
+    void retryLater(long id, Duration delay);
+    long countQueued();
+    Map<WorkType, Long> countWaitingByType();
+    long countWaitingRetries();
+}
@@ -0,0 +1,5 @@
+package com.nevis.search.service;
+
+public interface AdmissionController {
+    void admit();
+}
@@ -0,0 +1,111 @@
+package com.nevis.search.service;
+
+import com.nevis.search.exception.BacklogExceededException;
+import com.nevis.search.repository.DocumentChunkRepository;
+import com.nevis.search.repository.WorkQueueRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Refuses new ingests while the pipeline backlog is too large. The backlog (chunks that are
+ * in flight or can still be claimed, and queued work items) is sampled on a schedule so admission never hits the database.
+ * Above the throttle thresholds producers get 429, above the shed thresholds 503; the
+ * Retry-After is the time the pipeline needs to drain back below the throttle threshold.
+ */
+@Service
+@Slf4j
+public class AdmissionControllerImpl implements AdmissionController {
+
+    private final DocumentChunkRepository chunkRepository;
+    private final WorkQueueRepository workQueueRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ingest.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ingest.admission.throttle-pending-chunks:5000}")
+    private long throttlePendingChunks;
+
+    @Value("${app.ingest.admission.shed-pending-chunks:20000}")
+    private long shedPendingChunks;
+
+    @Value("${app.ingest.admission.throttle-queued-work:2000}")
+    private long throttleQueuedWork;
+
+    @Value("${app.ingest.admission.shed-queued-work:10000}")
+    private long shedQueuedWork;
+
+    @Value("${app.ingest.admission.drain-per-minute:12}")
+    private double drainPerMinute;
+
+    @Value("${app.ingest.admission.max-retry-after-seconds:600}")
+    private long maxRetryAfterSeconds;
+
+    @Value("${app.worker.embeddings.max-attempts:5}")
+    private int maxChunkAttempts;
+
+    private volatile long pendingChunks;
+    private volatile long queuedWork;
+
+    public AdmissionControllerImpl(
+        DocumentChunkRepository chunkRepository,
+        WorkQueueRepository workQueueRepository,
+        MeterRegistry meterRegistry
+    ) {
+        this.chunkRepository = chunkRepository;
+        this.workQueueRepository = workQueueRepository;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("ingest.backlog", this, controller -> controller.pendingChunks)
+            .tag("kind", "chunks")
+            .register(meterRegistry);
+        Gauge.builder("ingest.backlog", this, controller -> controller.queuedWork)
+            .tag("kind", "work_queue")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void admit() {
+        if (!enabled) {
+            return;
+        }
+
+        long chunks = pendingChunks;
+        long work = queuedWork;
+        if (chunks < throttlePendingChunks && work < throttleQueuedWork) {
+            return;
+        }
+
+        boolean overloaded = chunks >= shedPendingChunks || work >= shedQueuedWork;
+        long excess = Math.max(chunks - throttlePendingChunks, work - throttleQueuedWork) + 1;
+        Duration retryAfter = Duration.ofSeconds(Math.clamp((long) Math.ceil(excess * 60 / drainPerMinute), 1, maxRetryAfterSeconds));
+
+        meterRegistry.counter("ingest.admission.rejected", "reason", overloaded ? "shed" : "throttle").increment();
+        throw new BacklogExceededException(
+            "Ingestion backlog too large (%d pending chunks, %d queued work items)".formatted(chunks, work),
+            overloaded,
+            retryAfter
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${app.ingest.admission.refresh-interval-ms:5000}")
+    public void refreshBacklog() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            pendingChunks = chunkRepository.countUnprocessed(maxChunkAttempts);
+            queuedWork = workQueueRepository.countQueued();
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh ingestion backlog, keeping the last sample: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.nevis.search.service;
+
+import com.nevis.search.controller.BulkIngestResult;
+
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface BulkIngestService {
+    void ingest(Reader ndjson, Consumer<BulkIngestResult> resultSink);
+}
@@ -0,0 +1,141 @@
+package com.nevis.search.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevis.search.controller.BulkDocumentRequest;
+import com.nevis.search.controller.BulkIngestResult;
+import com.nevis.search.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads newline-delimited JSON documents, validates them and hands them to
+ * {@link DocumentService#ingestBatch} in fixed-size batches, one transaction per batch.
+ */
+@Service
+@Slf4j
+public class BulkIngestServiceImpl implements BulkIngestService {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final DocumentService documentService;
+    private final ClientRepository clientRepository;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public BulkIngestServiceImpl(
+        DocumentService documentService,
+        ClientRepository clientRepository,
+        ObjectMapper objectMapper,
+        @Value("${app.ingest.bulk.batch-size:500}") int batchSize
+    ) {
+        this.documentService = documentService;
+        this.clientRepository = clientRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void ingest(Reader ndjson, Consumer<BulkIngestResult> resultSink) {
+        BufferedReader reader = new BufferedReader(ndjson);
+        Map<Integer, BulkDocumentRequest> batch = new LinkedHashMap<>();
+        List<BulkIngestResult> rejected = new ArrayList<>();
+
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                int current = lineNumber;
+                parse(current, line, rejected).ifPresent(request -> batch.put(current, request));
+
+                if (batch.size() + rejected.size() >= batchSize) {
+                    flush(batch, rejected, resultSink);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read bulk ingest body", e);
+        }
+
+        flush(batch, rejected, resultSink);
+    }
+
+    private Optional<BulkDocumentRequest> parse(int lineNumber, String line, List<BulkIngestResult> rejected) {
+        BulkDocumentRequest request;
+        try {
+            request = objectMapper.readValue(line, BulkDocumentRequest.class);
+        } catch (JsonProcessingException e) {
+            rejected.add(BulkIngestResult.rejected(lineNumber, "Malformed JSON"));
+            return Optional.empty();
+        }
+
+        String error = validate(request);
+        if (error != null) {
+            rejected.add(BulkIngestResult.rejected(lineNumber, error));
+            return Optional.empty();
+        }
+        return Optional.of(request);
+    }
+
+    private String validate(BulkDocumentRequest request) {
+        if (request.clientId() == null) {
+            return "client_id is required";
+        }
+        if (request.title() == null || request.title().isBlank()) {
+            return "title is required";
+        }
+        if (request.content() == null || request.content().isBlank()) {
+            return "content is required";
+        }
+        if (request.idempotencyKey() != null
+            && (request.idempotencyKey().isBlank() || request.idempotencyKey().length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return "idempotency_key must be between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private void flush(Map<Integer, BulkDocumentRequest> batch, List<BulkIngestResult> rejected, Consumer<BulkIngestResult> resultSink) {
+        List<BulkIngestResult> results = new ArrayList<>(rejected);
+
+        Set<UUID> clientIds = batch.values().stream().map(BulkDocumentRequest::clientId).collect(Collectors.toSet());
+        Set<UUID> knownClients = clientRepository.findExistingIds(clientIds);
+
+        Map<Integer, BulkDocumentRequest> accepted = new LinkedHashMap<>();
+        batch.forEach((lineNumber, request) -> {
+            if (knownClients.contains(request.clientId())) {
+                accepted.put(lineNumber, request);
+            } else {
+                results.add(BulkIngestResult.rejected(lineNumber, "Client not found: " + request.clientId()));
+            }
+        });
+
+        if (!accepted.isEmpty()) {
+            try {
+                results.addAll(documentService.ingestBatch(accepted));
+            } catch (RuntimeException e) {
+                log.error("Bulk ingest batch of {} documents failed: {}", accepted.size(), e.getMessage());
+                accepted.keySet().forEach(lineNumber ->
+                    results.add(BulkIngestResult.rejected(lineNumber, "Batch failed, retry the line")));
+            }
+        }
+
+        results.sort(Comparator.comparingInt(BulkIngestResult::line));
+        results.forEach(resultSink);
+
+        batch.clear();
+        rejected.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package com.nevis.search.service;
+
+import com.nevis.search.model.ChunkEnrichment;
+import com.nevis.search.model.DocumentChunk;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ChunkEnrichmentService {
+    ChunkEnrichment enrich(DocumentChunk chunk);
+    Map<UUID, ChunkEnrichment> enrichAll(List<DocumentChunk> chunks);
+}
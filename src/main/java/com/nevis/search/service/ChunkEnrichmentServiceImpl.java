@@ -0,0 +1,188 @@
+package com.nevis.search.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevis.search.exception.MalformedEnrichmentException;
+import com.nevis.search.model.ChunkEnrichment;
+import com.nevis.search.model.DocumentChunk;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.chat.request.ResponseFormatType;
+import dev.langchain4j.model.chat.request.json.JsonArraySchema;
+import dev.langchain4j.model.chat.request.json.JsonObjectSchema;
+import dev.langchain4j.model.chat.request.json.JsonSchema;
+import dev.langchain4j.model.chat.request.json.JsonStringSchema;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts the tag terms and a short summary of a chunk in one structured-output call,
+ * so the document summary can later be reduced from the chunk summaries. {@link #enrichAll}
+ * packs several chunks into one request and answers per chunk id.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkEnrichmentServiceImpl implements ChunkEnrichmentService {
+
+    static final ResponseFormat RESPONSE_FORMAT = ResponseFormat.builder()
+        .type(ResponseFormatType.JSON)
+        .jsonSchema(JsonSchema.builder()
+            .name("ChunkEnrichment")
+            .rootElement(JsonObjectSchema.builder()
+                .addProperty("terms", JsonArraySchema.builder().items(new JsonStringSchema()).build())
+                .addStringProperty("summary")
+                .required("terms", "summary")
+                .build())
+            .build())
+        .build();
+
+    static final ResponseFormat PACKED_RESPONSE_FORMAT = ResponseFormat.builder()
+        .type(ResponseFormatType.JSON)
+        .jsonSchema(JsonSchema.builder()
+            .name("PackedChunkEnrichment")
+            .rootElement(JsonObjectSchema.builder()
+                .addProperty("chunks", JsonArraySchema.builder()
+                    .items(JsonObjectSchema.builder()
+                        .addStringProperty("id")
+                        .addProperty("terms", JsonArraySchema.builder().items(new JsonStringSchema()).build())
+                        .addStringProperty("summary")
+                        .required("id", "terms", "summary")
+                        .build())
+                    .build())
+                .required("chunks")
+                .build())
+            .build())
+        .build();
+
+    private static final String ENRICHMENT_PROMPT_TEMPLATE =
+        """
+            Role: You are an expert Data Architect for a Global Wealth Management firm, preparing a section of a client document for a CRM.
+            
+            Task 1 - terms: Extract meaningful industry terms that are mentioned in the text and should be used to tag this file in a CRM.
+            
+            Regulatory & Compliance: What does this prove for KYC, AML, or tax purposes? (e.g., Source of Wealth, Tax Residency, Identity Verification).
+            
+            Financial Concepts: What asset classes, instruments, or strategies are mentioned or implied? (e.g., Fixed Income, Alternative Investments, Cost-Basis Reporting).
+            
+            Document Equivalents: What are the industry synonyms for this document type? (e.g., if it's a 1040, include Tax Return, Income Disclosure, Fiscal Filing).
+            
+            Task 2 - summary: Describe what this section covers in 1-2 sentences, in a professional, objective tone.
+            
+            Strict Constraints:
+            
+            NO Personal Data: Do not extract actual names, account numbers, or specific dollar amounts.
+            
+            Input Text: %s
+            """;
+
+    private static final String PACKED_ENRICHMENT_PROMPT_TEMPLATE =
+        """
+            Role: You are an expert Data Architect for a Global Wealth Management firm, preparing sections of client documents for a CRM.
+            
+            The input contains several independent sections, each introduced by a line "### Chunk <id>". Treat every section on its own
+            and return exactly one entry per section, with its id copied verbatim.
+            
+            terms: Extract meaningful industry terms that are mentioned in the section and should be used to tag the file in a CRM:
+            regulatory and compliance evidence (KYC, AML, tax), financial concepts (asset classes, instruments, strategies)
+            and industry synonyms of the document type.
+            
+            summary: Describe what the section covers in 1-2 sentences, in a professional, objective tone.
+            
+            Strict Constraints:
+            
+            NO Personal Data: Do not extract actual names, account numbers, or specific dollar amounts.
+            
+            Input:
+            %s
+            """;
+
+    private record PackedEnrichment(List<PackedEntry> chunks) {}
+
+    private record PackedEntry(String id, List<String> terms, String summary) {}
+
+    private final ChatModel chatModel;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public ChunkEnrichment enrich(DocumentChunk chunk) {
+        ChatResponse response = chatModel.chat(ChatRequest.builder()
+            .messages(UserMessage.from(String.format(ENRICHMENT_PROMPT_TEMPLATE, chunk.content())))
+            .responseFormat(RESPONSE_FORMAT)
+            .build());
+
+        String json = response.aiMessage().text();
+        ChunkEnrichment enrichment = json == null || json.isBlank()
+            ? new ChunkEnrichment(List.of(), null)
+            : parse(json, ChunkEnrichment.class);
+
+        ChunkEnrichment cleaned = clean(enrichment.terms(), enrichment.summary());
+        log.debug("Chunk {}: enriched with {} terms", chunk.id(), cleaned.terms().size());
+        return cleaned;
+    }
+
+    /**
+     * Enriches all chunks with one request. Chunks the model left out are missing from the
+     * result; entries with ids that were not asked for are dropped.
+     */
+    @Override
+    public Map<UUID, ChunkEnrichment> enrichAll(List<DocumentChunk> chunks) {
+        String sections = chunks.stream()
+            .map(chunk -> "### Chunk " + chunk.id() + "\n" + chunk.content())
+            .collect(Collectors.joining("\n\n"));
+
+        ChatResponse response = chatModel.chat(ChatRequest.builder()
+            .messages(UserMessage.from(String.format(PACKED_ENRICHMENT_PROMPT_TEMPLATE, sections)))
+            .responseFormat(PACKED_RESPONSE_FORMAT)
+            .build());
+
+        String json = response.aiMessage().text();
+        if (json == null || json.isBlank()) {
+            throw new MalformedEnrichmentException("Chat model returned an empty packed enrichment");
+        }
+        PackedEnrichment packed = parse(json, PackedEnrichment.class);
+        if (packed.chunks() == null) {
+            throw new MalformedEnrichmentException("Packed enrichment has no chunks");
+        }
+
+        Set<String> requested = chunks.stream().map(chunk -> chunk.id().toString()).collect(Collectors.toSet());
+        Map<UUID, ChunkEnrichment> enrichments = new HashMap<>();
+        for (PackedEntry entry : packed.chunks()) {
+            String id = entry.id() == null ? null : entry.id().trim();
+            if (id != null && requested.contains(id)) {
+                enrichments.putIfAbsent(UUID.fromString(id), clean(entry.terms(), entry.summary()));
+            }
+        }
+
+        log.debug("Enriched {} of {} packed chunks", enrichments.size(), chunks.size());
+        return enrichments;
+    }
+
+    private ChunkEnrichment clean(List<String> rawTerms, String rawSummary) {
+        List<String> terms = rawTerms == null ? List.of() : rawTerms.stream()
+            .filter(term -> term != null && !term.isBlank())
+            .map(String::trim)
+            .toList();
+        String summary = rawSummary == null || rawSummary.isBlank() ? null : rawSummary.trim();
+        return new ChunkEnrichment(terms, summary);
+    }
+
+    private <T> T parse(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new MalformedEnrichmentException("Chat model returned malformed chunk enrichment: " + e.getOriginalMessage(), e);
+        }
+    }
+}
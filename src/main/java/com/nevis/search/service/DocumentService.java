@@ -1,18 +1,28 @@
 package com.nevis.search.service;
 
+import com.nevis.search.controller.BulkDocumentRequest;
+import com.nevis.search.controller.BulkIngestResult;
 import com.nevis.search.controller.ClientResponse;
 import com.nevis.search.controller.DocumentResponse;
 import com.nevis.search.model.Document;
 import com.nevis.search.controller.DocumentSearchResultItem;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface DocumentService {
-    DocumentResponse ingestDocument(String title, String content, UUID clientId);
+    DocumentResponse ingestDocument(String title, String content, UUID clientId, Optional<String> idempotencyKey);
+    DocumentResponse acceptDocument(String title, String content, UUID clientId, Optional<String> idempotencyKey);
+    void splitDocument(UUID docId);
+    void failSplit(UUID docId);
+    DocumentResponse ingestDocumentStream(String title, Reader body, UUID clientId, Optional<String> idempotencyKey);
+    List<BulkIngestResult> ingestBatch(Map<Integer, BulkDocumentRequest> requestsByLine);
     void saveEmbeddings(UUID docId, UUID chunkId, Map<String, float[]> embeddingMap);
+    boolean reuseEmbeddings(UUID docId, UUID chunkId, String contentHash);
+    void completeChunk(UUID docId, UUID chunkId);
     List<DocumentSearchResultItem> search(float[] queryVector, Optional<Integer> limit, Optional<UUID> clientId);
     DocumentResponse getById(UUID id);
 }
\ No newline at end of file
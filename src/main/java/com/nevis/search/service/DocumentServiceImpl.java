@@ -1,27 +1,37 @@
 package com.nevis.search.service;
 
+import com.nevis.search.controller.BulkDocumentRequest;
+import com.nevis.search.controller.BulkIngestResult;
 import com.nevis.search.controller.DocumentResponse;
-import com.nevis.search.event.DocumentIngestedEvent;
 import com.nevis.search.exception.EntityNotFoundException;
+import com.nevis.search.exception.WrongQueryException;
+import com.nevis.search.infra.ContentHash;
+import com.nevis.search.infra.SpooledText;
 import com.nevis.search.model.Document;
+import com.nevis.search.model.DocumentIdentity;
 import com.nevis.search.controller.DocumentSearchResultItem;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
 import com.nevis.search.repository.DocumentChunkRepository;
 import com.nevis.search.repository.DocumentRepository;
+import com.nevis.search.repository.WorkQueueRepository;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
 import dev.langchain4j.data.segment.TextSegment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
 
@@ -32,7 +42,8 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentRepository documentRepository;
     private final DocumentChunkRepository chunkRepository;
     private final DocumentSplitter splitter;
-    private final ApplicationEventPublisher eventPublisher;
+    private final WorkQueueRepository workQueueRepository;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${app.worker.embeddings.max-attempts:5}")
     private int maxAttempts;
@@ -43,25 +54,45 @@ public class DocumentServiceImpl implements DocumentService {
     @Value("${app.document.similarity-threshold:0.72}")
     private double documentSimilarityThreshold;
 
+    @Value("${app.ingest.content-dedup.enabled:false}")
+    private boolean contentDedupEnabled;
+
+    @Value("${app.ingest.stream.window-size:262144}")
+    private int streamWindowSize;
+
+    @Value("${app.enrichment.combined:false}")
+    private boolean combinedEnrichment;
+
     public DocumentServiceImpl(
         DocumentRepository documentRepository,
         DocumentChunkRepository chunkRepository,
-        ApplicationEventPublisher eventPublisher,
+        WorkQueueRepository workQueueRepository,
+        TransactionTemplate transactionTemplate,
         @Value("${app.search.chunk-size:3000}") int chunkSize,
         @Value("${app.search.chunk-overlap:300}") int chunkOverlap
     ) {
         this.documentRepository = documentRepository;
         this.splitter = DocumentSplitters.recursive(chunkSize, chunkOverlap);
-        this.eventPublisher = eventPublisher;
+        this.workQueueRepository = workQueueRepository;
+        this.transactionTemplate = transactionTemplate;
         this.chunkRepository = chunkRepository;
     }
 
 
     @Override
     @Transactional
-    public DocumentResponse ingestDocument(String title, String content, UUID clientId) {
+    public DocumentResponse ingestDocument(String title, String content, UUID clientId, Optional<String> idempotencyKey) {
         log.debug("Ingesting document for client {}: {}", clientId, title);
 
+        String contentHash = ContentHash.sha256(content);
+        lockForIngest(clientId, contentHash, idempotencyKey);
+
+        Optional<Document> existing = findExistingDocument(clientId, contentHash, idempotencyKey);
+        if (existing.isPresent()) {
+            log.info("Client {}: Duplicate ingest of document {} ignored", clientId, existing.get().id());
+            return mapToResponse(existing.get());
+        }
+
         Document doc = new Document(
             null,
             clientId,
@@ -72,11 +103,13 @@ public class DocumentServiceImpl implements DocumentService {
             null,
             0,
             DocumentTaskStatus.PENDING,
+            0,
+            0,
             null,
             null
         );
 
-        Document savedDoc = documentRepository.save(doc);
+        Document savedDoc = documentRepository.save(doc, idempotencyKey.orElse(null));
 
         List<TextSegment> segments = getSplittedChunks(content);
 
@@ -93,6 +126,8 @@ public class DocumentServiceImpl implements DocumentService {
                 savedDoc.summaryErrorMessage(),
                 savedDoc.summaryAttempts(),
                 DocumentTaskStatus.READY,
+                0,
+                0,
                 savedDoc.createdAt(),
                 savedDoc.updatedAt()
             );
@@ -100,7 +135,7 @@ public class DocumentServiceImpl implements DocumentService {
             chunkRepository.saveChunks(savedDoc.id(), segments);
             documentRepository.updateStatus(savedDoc.id(), DocumentTaskStatus.PROCESSING);
 
-            eventPublisher.publishEvent(new DocumentIngestedEvent(savedDoc.id()));
+            enqueueEnrichment(savedDoc.id());
 
             savedDoc = new Document(
                 savedDoc.id(),
@@ -112,6 +147,8 @@ public class DocumentServiceImpl implements DocumentService {
                 savedDoc.summaryErrorMessage(),
                 savedDoc.summaryAttempts(),
                 DocumentTaskStatus.PROCESSING,
+                segments.size(),
+                segments.size(),
                 savedDoc.createdAt(),
                 savedDoc.updatedAt()
             );
@@ -119,6 +156,345 @@ public class DocumentServiceImpl implements DocumentService {
         return mapToResponse(savedDoc);
     }
 
+    @Override
+    @Transactional
+    public DocumentResponse acceptDocument(String title, String content, UUID clientId, Optional<String> idempotencyKey) {
+        log.debug("Accepting document for async ingest, client {}: {}", clientId, title);
+
+        String contentHash = ContentHash.sha256(content);
+        lockForIngest(clientId, contentHash, idempotencyKey);
+
+        Optional<Document> existing = findExistingDocument(clientId, contentHash, idempotencyKey);
+        if (existing.isPresent()) {
+            log.info("Client {}: Duplicate async ingest of document {} ignored", clientId, existing.get().id());
+            return mapToResponse(existing.get());
+        }
+
+        Document savedDoc = documentRepository.save(new Document(
+            null,
+            clientId,
+            title,
+            content,
+            null,
+            DocumentTaskStatus.PENDING,
+            null,
+            0,
+            DocumentTaskStatus.PENDING,
+            0,
+            0,
+            null,
+            null
+        ), idempotencyKey.orElse(null));
+
+        workQueueRepository.enqueue(WorkType.SPLIT, savedDoc.id());
+
+        return mapToResponse(savedDoc);
+    }
+
+    @Override
+    @Transactional
+    public void splitDocument(UUID docId) {
+        Optional<Document> claimed = documentRepository.claimForSplit(docId);
+        if (claimed.isEmpty()) {
+            log.debug("Doc {}: Already split or not found, skipping", docId);
+            return;
+        }
+
+        List<TextSegment> segments = getSplittedChunks(claimed.get().content());
+
+        if (segments.isEmpty()) {
+            documentRepository.updateStatus(docId, DocumentTaskStatus.READY);
+            return;
+        }
+
+        chunkRepository.saveChunks(docId, segments);
+        log.info("Doc {}: Split into {} chunks in background", docId, segments.size());
+
+        enqueueEnrichment(docId);
+    }
+
+    @Override
+    public void failSplit(UUID docId) {
+        if (documentRepository.failUnsplit(docId)) {
+            log.error("Doc {}: Could not be split, marked as FAILED", docId);
+        }
+    }
+
+    @Override
+    public DocumentResponse ingestDocumentStream(String title, Reader body, UUID clientId, Optional<String> idempotencyKey) {
+        log.debug("Ingesting streamed document for client {}: {}", clientId, title);
+
+        // the upload is spooled before the transaction so a slow client never holds a connection or ingest lock
+        try (SpooledText content = SpooledText.spool(body)) {
+            if (content.isBlank()) {
+                throw new WrongQueryException("Content cannot be empty");
+            }
+
+            // the body is not echoed back, that would put the whole upload on the heap
+            Document doc = transactionTemplate.execute(status -> saveStreamedDocument(title, content, clientId, idempotencyKey));
+            return mapToResponse(withContent(doc, null));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read document body", e);
+        }
+    }
+
+    private Document saveStreamedDocument(String title, SpooledText content, UUID clientId, Optional<String> idempotencyKey) {
+        lockForIngest(clientId, content.sha256(), idempotencyKey);
+
+        Optional<Document> existing = findExistingDocument(clientId, content.sha256(), idempotencyKey);
+        if (existing.isPresent()) {
+            log.info("Client {}: Duplicate streamed ingest of document {} ignored", clientId, existing.get().id());
+            return existing.get();
+        }
+
+        Document savedDoc = documentRepository.save(new Document(
+            null,
+            clientId,
+            title,
+            "",
+            null,
+            DocumentTaskStatus.PENDING,
+            null,
+            0,
+            DocumentTaskStatus.PENDING,
+            0,
+            0,
+            null,
+            null
+        ), idempotencyKey.orElse(null));
+
+        AtomicInteger chunkCount = new AtomicInteger();
+
+        try (Reader contentReader = content.openReader(); Reader splitReader = content.openReader()) {
+            documentRepository.updateContent(savedDoc.id(), contentReader, content.sha256());
+            new StreamingTextSplitter(splitter, streamWindowSize).split(splitReader, segments -> {
+                chunkRepository.saveChunks(savedDoc.id(), segments);
+                chunkCount.addAndGet(segments.size());
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spooled document body", e);
+        }
+
+        log.info("Doc {}: Streamed {} characters into {} chunks", savedDoc.id(), content.length(), chunkCount.get());
+
+        DocumentTaskStatus status = chunkCount.get() == 0 ? DocumentTaskStatus.READY : DocumentTaskStatus.PROCESSING;
+        documentRepository.updateStatus(savedDoc.id(), status);
+
+        if (status == DocumentTaskStatus.PROCESSING) {
+            enqueueEnrichment(savedDoc.id());
+        }
+
+        return new Document(
+            savedDoc.id(),
+            savedDoc.clientId(),
+            savedDoc.title(),
+            null,
+            savedDoc.summary(),
+            savedDoc.summaryStatus(),
+            savedDoc.summaryErrorMessage(),
+            savedDoc.summaryAttempts(),
+            status,
+            chunkCount.get(),
+            chunkCount.get(),
+            savedDoc.createdAt(),
+            savedDoc.updatedAt()
+        );
+    }
+
+    private Document withContent(Document doc, String content) {
+        return new Document(
+            doc.id(),
+            doc.clientId(),
+            doc.title(),
+            content,
+            doc.summary(),
+            doc.summaryStatus(),
+            doc.summaryErrorMessage(),
+            doc.summaryAttempts(),
+            doc.status(),
+            doc.totalChunks(),
+            doc.pendingChunks(),
+            doc.createdAt(),
+            doc.updatedAt()
+        );
+    }
+
+    @Override
+    @Transactional
+    public List<BulkIngestResult> ingestBatch(Map<Integer, BulkDocumentRequest> requestsByLine) {
+        Map<Integer, String> hashesByLine = new HashMap<>();
+        requestsByLine.forEach((line, request) -> hashesByLine.put(line, ContentHash.sha256(request.content())));
+
+        lockForBatchIngest(requestsByLine, hashesByLine);
+
+        Set<UUID> clientIds = new HashSet<>();
+        Set<String> keys = new HashSet<>();
+        requestsByLine.values().forEach(request -> {
+            clientIds.add(request.clientId());
+            if (request.idempotencyKey() != null) {
+                keys.add(request.idempotencyKey());
+            }
+        });
+
+        Map<String, DocumentIdentity> byKey = new HashMap<>();
+        Map<String, DocumentIdentity> byHash = new HashMap<>();
+        for (DocumentIdentity identity : documentRepository.findIdentities(clientIds, hashesByLine.values(), keys)) {
+            if (identity.idempotencyKey() != null) {
+                byKey.putIfAbsent(identity.clientId() + ":" + identity.idempotencyKey(), identity);
+            }
+            byHash.putIfAbsent(identity.clientId() + ":" + identity.contentHash(), identity);
+        }
+
+        List<BulkIngestResult> results = new ArrayList<>();
+        Map<Integer, UUID> newIdsByLine = new LinkedHashMap<>();
+
+        requestsByLine.forEach((line, request) -> {
+            String hash = hashesByLine.get(line);
+            DocumentIdentity existing = request.idempotencyKey() != null
+                ? byKey.get(request.clientId() + ":" + request.idempotencyKey())
+                : null;
+
+            if (existing != null && !hash.equals(existing.contentHash())) {
+                results.add(BulkIngestResult.rejected(line, "Idempotency-Key was already used for a different document"));
+                return;
+            }
+            if (existing == null && contentDedupEnabled) {
+                existing = byHash.get(request.clientId() + ":" + hash);
+            }
+            if (existing != null) {
+                results.add(BulkIngestResult.duplicate(line, existing.id()));
+                return;
+            }
+
+            UUID id = UUID.randomUUID();
+            DocumentIdentity created = new DocumentIdentity(id, request.clientId(), hash, request.idempotencyKey());
+            byHash.putIfAbsent(request.clientId() + ":" + hash, created);
+            if (request.idempotencyKey() != null) {
+                byKey.put(request.clientId() + ":" + request.idempotencyKey(), created);
+            }
+            newIdsByLine.put(line, id);
+            results.add(BulkIngestResult.created(line, id));
+        });
+
+        if (newIdsByLine.isEmpty()) {
+            return results;
+        }
+
+        Map<UUID, List<TextSegment>> segmentsByDocument = newIdsByLine.entrySet().parallelStream()
+            .collect(Collectors.toConcurrentMap(
+                Map.Entry::getValue,
+                entry -> getSplittedChunks(requestsByLine.get(entry.getKey()).content())
+            ));
+
+        List<Document> documents = new ArrayList<>();
+        Map<UUID, String> idempotencyKeys = new HashMap<>();
+        List<UUID> toEnrich = new ArrayList<>();
+
+        newIdsByLine.forEach((line, id) -> {
+            BulkDocumentRequest request = requestsByLine.get(line);
+            boolean hasChunks = !segmentsByDocument.get(id).isEmpty();
+
+            documents.add(new Document(
+                id,
+                request.clientId(),
+                request.title(),
+                request.content(),
+                null,
+                DocumentTaskStatus.PENDING,
+                null,
+                0,
+                hasChunks ? DocumentTaskStatus.PROCESSING : DocumentTaskStatus.READY,
+                0,
+                0,
+                null,
+                null
+            ));
+            if (request.idempotencyKey() != null) {
+                idempotencyKeys.put(id, request.idempotencyKey());
+            }
+            if (hasChunks) {
+                toEnrich.add(id);
+            }
+        });
+
+        documentRepository.copyAll(documents, idempotencyKeys);
+        chunkRepository.saveChunks(segmentsByDocument, WorkItem.BACKGROUND_PRIORITY);
+
+        log.info("Bulk ingest: {} new documents, {} chunks, {} queued for background enrichment",
+            documents.size(), segmentsByDocument.values().stream().mapToInt(List::size).sum(), toEnrich.size());
+
+        if (!toEnrich.isEmpty()) {
+            workQueueRepository.notifyChunksReady();
+            if (!combinedEnrichment) {
+                workQueueRepository.enqueueAll(WorkType.SUMMARIZE, toEnrich, WorkItem.BACKGROUND_PRIORITY);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Serializes ingests that {@link #findExistingDocument} would match: the same Idempotency-Key,
+     * and with content dedup also the same content. The key lock is always taken first, so two
+     * ingests never wait for each other's locks in opposite order.
+     */
+    private void lockForIngest(UUID clientId, String contentHash, Optional<String> idempotencyKey) {
+        idempotencyKey.ifPresent(key -> documentRepository.lockForIngest(clientId, "key:" + key));
+        if (contentDedupEnabled) {
+            documentRepository.lockForIngest(clientId, "content:" + contentHash);
+        }
+    }
+
+    /**
+     * Takes the locks {@link #lockForIngest} would take for every line, so a concurrent upload
+     * with the same key commits first and the line is reported as a duplicate instead of failing
+     * the batch on the unique index. All key locks come before all content locks, each sorted,
+     * which keeps the order of single ingests and of other batches.
+     */
+    private void lockForBatchIngest(Map<Integer, BulkDocumentRequest> requestsByLine, Map<Integer, String> hashesByLine) {
+        Comparator<Map.Entry<UUID, String>> order = Map.Entry.<UUID, String>comparingByKey().thenComparing(Map.Entry.comparingByValue());
+        Set<Map.Entry<UUID, String>> keyLocks = new TreeSet<>(order);
+        Set<Map.Entry<UUID, String>> contentLocks = new TreeSet<>(order);
+
+        requestsByLine.forEach((line, request) -> {
+            if (request.idempotencyKey() != null) {
+                keyLocks.add(Map.entry(request.clientId(), "key:" + request.idempotencyKey()));
+            }
+            if (contentDedupEnabled) {
+                contentLocks.add(Map.entry(request.clientId(), "content:" + hashesByLine.get(line)));
+            }
+        });
+
+        List<Map.Entry<UUID, String>> locks = new ArrayList<>(keyLocks);
+        locks.addAll(contentLocks);
+        documentRepository.lockForIngest(locks);
+    }
+
+    private Optional<Document> findExistingDocument(UUID clientId, String contentHash, Optional<String> idempotencyKey) {
+        if (idempotencyKey.isPresent()) {
+            Optional<Document> byKey = documentRepository.findByIdempotencyKey(clientId, idempotencyKey.get());
+            if (byKey.isPresent()) {
+                if (!contentHash.equals(ContentHash.sha256(byKey.get().content()))) {
+                    throw new WrongQueryException("Idempotency-Key was already used for a different document");
+                }
+                return byKey;
+            }
+        }
+
+        if (!contentDedupEnabled) {
+            return Optional.empty();
+        }
+        return documentRepository.findByContentHash(clientId, contentHash);
+    }
+
+    private void enqueueEnrichment(UUID docId) {
+        workQueueRepository.notifyChunksReady();
+        // with combined enrichment the summary is reduced from chunk summaries once all chunks are done
+        if (!combinedEnrichment) {
+            workQueueRepository.enqueue(WorkType.SUMMARIZE, docId);
+        }
+    }
+
     private DocumentResponse mapToResponse(Document doc) {
         return new DocumentResponse(
             doc.id(),
@@ -128,10 +504,18 @@ public class DocumentServiceImpl implements DocumentService {
             doc.summary(),
             doc.summaryStatus(),
             doc.status(),
+            progress(doc),
             doc.createdAt()
         );
     }
 
+    private static int progress(Document doc) {
+        if (doc.totalChunks() == 0) {
+            return doc.status() == DocumentTaskStatus.READY ? 100 : 0;
+        }
+        return (doc.totalChunks() - doc.pendingChunks()) * 100 / doc.totalChunks();
+    }
+
     private List<TextSegment> getSplittedChunks(String content) {
         if (content == null || content.isBlank()) {
             return emptyList();
@@ -150,14 +534,41 @@ public class DocumentServiceImpl implements DocumentService {
 
         log.info("Doc {}: Inserting {} chunk embeddings in database", docId, embeddingMap.size());
 
-        embeddingMap.forEach((term, vector) ->
-            chunkRepository.insertChunkVector(docId, chunkId, term, vector));
+        chunkRepository.insertChunkVectors(docId, chunkId, embeddingMap);
 
-        chunkRepository.updateStatus(chunkId, DocumentTaskStatus.READY);
+        completeChunk(docId, chunkId);
+    }
 
-        if (chunkRepository.areAllChunksProcessed(docId)) {
-            log.info("Doc {}: Updating status to Ready", docId);
-            documentRepository.updateStatus(docId, DocumentTaskStatus.READY);
+    @Override
+    @Transactional
+    public boolean reuseEmbeddings(UUID docId, UUID chunkId, String contentHash) {
+        Optional<UUID> source = chunkRepository.findReadyChunkIdByContentHash(contentHash);
+        if (source.isEmpty()) {
+            return false;
+        }
+
+        int copied = chunkRepository.copyChunkVectors(source.get(), docId, chunkId);
+        log.info("Doc {}: Reused {} embeddings for chunk {} from identical chunk {}", docId, copied, chunkId, source.get());
+
+        completeChunk(docId, chunkId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void completeChunk(UUID docId, UUID chunkId) {
+        Optional<Integer> pending = chunkRepository.markReady(chunkId);
+        if (pending.isEmpty()) {
+            log.debug("Doc {}: Chunk {} was already ready", docId, chunkId);
+            return;
+        }
+
+        chunkRepository.deleteProvisionalVectors(chunkId);
+        if (pending.get() == 0) {
+            log.info("Doc {}: Last chunk processed, document is Ready", docId);
+            if (combinedEnrichment) {
+                workQueueRepository.enqueue(WorkType.SUMMARIZE, docId);
+            }
         }
     }
 
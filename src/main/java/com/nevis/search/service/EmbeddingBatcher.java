@@ -0,0 +1,10 @@
+package com.nevis.search.service;
+
+import dev.langchain4j.data.embedding.Embedding;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmbeddingBatcher {
+    CompletableFuture<List<Embedding>> submit(List<String> texts);
+}
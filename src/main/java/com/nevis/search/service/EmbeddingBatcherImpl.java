@@ -0,0 +1,185 @@
+package com.nevis.search.service;
+
+import com.nevis.search.exception.EmbeddingException;
+import com.nevis.search.infra.RateLimiter;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.nevis.search.service.EmbeddingServiceImpl.EMBEDDING_LIMIT;
+
+/**
+ * Collects texts submitted by concurrent chunk workers and sends them to the
+ * embedding model in shared embedAll calls. A batch is flushed once it holds
+ * max-size texts or the linger time since its first request has passed.
+ */
+@Service
+@Slf4j
+public class EmbeddingBatcherImpl implements EmbeddingBatcher {
+
+    private record PendingRequest(List<String> texts, CompletableFuture<List<Embedding>> result) {}
+
+    private final EmbeddingModel embeddingModel;
+    private final RateLimiter embeddingLimiter;
+    private final EmbeddingTokenAccountant tokenAccountant;
+    private final int maxBatchSize;
+    private final Duration linger;
+
+    private final BlockingQueue<PendingRequest> queue = new LinkedBlockingQueue<>();
+    private PendingRequest carryOver;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public EmbeddingBatcherImpl(
+        EmbeddingModel embeddingModel,
+        @Qualifier("embeddingLimiter") RateLimiter embeddingLimiter,
+        EmbeddingTokenAccountant tokenAccountant,
+        @Value("${app.embedding.batch.max-size:100}") int maxBatchSize,
+        @Value("${app.embedding.batch.linger-ms:250}") long lingerMs
+    ) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingLimiter = embeddingLimiter;
+        this.tokenAccountant = tokenAccountant;
+        this.maxBatchSize = maxBatchSize;
+        this.linger = Duration.ofMillis(lingerMs);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = Thread.ofVirtual().name("embedding-batcher").start(this::runLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+
+        List<PendingRequest> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        if (carryOver != null) {
+            abandoned.add(carryOver);
+        }
+        abandoned.forEach(request ->
+            request.result().completeExceptionally(new EmbeddingException("Embedding batcher is shutting down")));
+    }
+
+    @Override
+    public CompletableFuture<List<Embedding>> submit(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        CompletableFuture<List<Embedding>> result = new CompletableFuture<>();
+        queue.add(new PendingRequest(List.copyOf(texts), result));
+        return result;
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                List<PendingRequest> batch = collectBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<PendingRequest> collectBatch() throws InterruptedException {
+        PendingRequest first = carryOver != null ? carryOver : queue.poll(1, TimeUnit.SECONDS);
+        carryOver = null;
+
+        if (first == null) {
+            return List.of();
+        }
+
+        List<PendingRequest> batch = new ArrayList<>();
+        batch.add(first);
+        int size = first.texts().size();
+        long deadline = System.nanoTime() + linger.toNanos();
+
+        while (size < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+
+            PendingRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+
+            if (size + next.texts().size() > maxBatchSize) {
+                carryOver = next;
+                break;
+            }
+
+            batch.add(next);
+            size += next.texts().size();
+        }
+
+        return batch;
+    }
+
+    private void flush(List<PendingRequest> batch) {
+        List<String> texts = batch.stream()
+            .flatMap(request -> request.texts().stream())
+            .toList();
+
+        log.debug("Flushing {} texts from {} requests to embedding model", texts.size(), batch.size());
+
+        try {
+            List<Embedding> embeddings = new ArrayList<>(texts.size());
+            for (int from = 0; from < texts.size(); from += maxBatchSize) {
+                embeddings.addAll(embedSlice(texts.subList(from, Math.min(texts.size(), from + maxBatchSize))));
+            }
+
+            int offset = 0;
+            for (PendingRequest request : batch) {
+                int size = request.texts().size();
+                request.result().complete(List.copyOf(embeddings.subList(offset, offset + size)));
+                offset += size;
+            }
+        } catch (Exception e) {
+            log.error("Embedding batch of {} texts failed: {}", texts.size(), e.getMessage());
+            batch.forEach(request -> request.result().completeExceptionally(e));
+        }
+    }
+
+    private List<Embedding> embedSlice(List<String> texts) {
+        int estimatedTokens = tokenAccountant.estimate(texts);
+
+        Response<List<Embedding>> response = embeddingLimiter.execute(EMBEDDING_LIMIT, estimatedTokens,
+            () -> embeddingModel.embedAll(texts.stream().map(TextSegment::from).toList()));
+
+        if (response.content() == null || response.content().size() != texts.size()) {
+            throw new EmbeddingException("Embedding model returned " +
+                (response.content() == null ? 0 : response.content().size()) + " vectors for " + texts.size() + " texts");
+        }
+
+        tokenAccountant.settle(texts, estimatedTokens, response.tokenUsage());
+
+        return response.content();
+    }
+}
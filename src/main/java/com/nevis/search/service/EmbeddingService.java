@@ -1,8 +1,11 @@
 package com.nevis.search.service;
 
-import java.util.UUID;
+import com.nevis.search.model.DocumentChunk;
+
+import java.util.List;
 
 public interface EmbeddingService {
-    void generateForDocument(UUID docId);
+    void processChunk(DocumentChunk chunk);
+    void processChunks(List<DocumentChunk> chunks);
     float[] embedQuery(String query);
 }
\ No newline at end of file
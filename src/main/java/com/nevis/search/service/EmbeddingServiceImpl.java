@@ -1,12 +1,15 @@
 package com.nevis.search.service;
 
+import com.nevis.search.exception.BacklogExceededException;
 import com.nevis.search.exception.EmbeddingException;
+import com.nevis.search.exception.MalformedEnrichmentException;
+import com.nevis.search.infra.PooledEmbeddingModel;
+import com.nevis.search.infra.Priority;
 import com.nevis.search.infra.RateLimiter;
+import com.nevis.search.model.ChunkEnrichment;
 import com.nevis.search.model.DocumentChunk;
-import com.nevis.search.model.DocumentTaskStatus;
 import com.nevis.search.repository.DocumentChunkRepository;
 import dev.langchain4j.data.embedding.Embedding;
-import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
@@ -16,9 +19,14 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Service
 @Slf4j
@@ -33,9 +41,16 @@ public class EmbeddingServiceImpl implements EmbeddingService {
     private final ChatModel chatModel;
     private final RateLimiter chatLimiter;
     private final RateLimiter embeddingLimiter;
+    private final EmbeddingTokenAccountant tokenAccountant;
+    private final TermEmbeddingService termEmbeddingService;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final ChunkEnrichmentService chunkEnrichmentService;
 
-    @Value("${app.worker.embeddings.max-attempts:5}")
-    private int maxAttempts;
+    @Value("${app.enrichment.combined:false}")
+    private boolean combinedEnrichment;
+
+    @Value("${app.search.query-quota-wait:2s}")
+    private Duration queryQuotaWait;
 
     private static final String SUMMARY_PROMPT_TEMPLATE =
         """            
@@ -63,6 +78,10 @@ public class EmbeddingServiceImpl implements EmbeddingService {
     public EmbeddingServiceImpl(
         @Qualifier("chatLimiter") RateLimiter chatLimiter,
         @Qualifier("embeddingLimiter") RateLimiter embeddingLimiter,
+        EmbeddingTokenAccountant tokenAccountant,
+        TermEmbeddingService termEmbeddingService,
+        QueryEmbeddingCache queryEmbeddingCache,
+        ChunkEnrichmentService chunkEnrichmentService,
         DocumentService documentService,
         DocumentChunkRepository chunkRepository,
         EmbeddingModel embeddingModel,
@@ -70,51 +89,118 @@ public class EmbeddingServiceImpl implements EmbeddingService {
     ) {
         this.chatLimiter = chatLimiter;
         this.embeddingLimiter = embeddingLimiter;
+        this.tokenAccountant = tokenAccountant;
+        this.termEmbeddingService = termEmbeddingService;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.chunkEnrichmentService = chunkEnrichmentService;
         this.documentService = documentService;
         this.chunkRepository = chunkRepository;
         this.embeddingModel = embeddingModel;
         this.chatModel = chatModel;
     }
 
-    public void generateForDocument(UUID docId) {
-        int totalPending = chunkRepository.countPendingByDocumentId(docId);
-        log.info("Found {} pending chunks for document {}", totalPending, docId);
+    @Override
+    public void processChunk(DocumentChunk chunk) {
+        try {
+            if (reuseEmbeddings(chunk)) {
+                return;
+            }
+            applyEnrichment(chunk, enrich(chunk));
+        } catch (Exception e) {
+            markAsFailed(chunk, e);
+        }
+    }
 
-        for (int i = 0; i < totalPending; i++) {
-            chunkRepository
-                .claimNextPendingChunk(docId, maxAttempts)
-                .ifPresent(chunk -> processSingleChunk(docId, chunk));
+    /**
+     * Enriches the chunks with one packed chat request and fans the result out to each chunk.
+     * Chunks the model left out, or all of them when its output is malformed, are enriched one by one.
+     */
+    @Override
+    public void processChunks(List<DocumentChunk> chunks) {
+        List<DocumentChunk> toEnrich = new ArrayList<>();
+        for (DocumentChunk chunk : chunks) {
+            try {
+                if (!reuseEmbeddings(chunk)) {
+                    toEnrich.add(chunk);
+                }
+            } catch (Exception e) {
+                markAsFailed(chunk, e);
+            }
+        }
+
+        if (toEnrich.isEmpty()) {
+            return;
+        }
+
+        Optional<Map<UUID, ChunkEnrichment>> enrichments = toEnrich.size() > 1 ? enrichPacked(toEnrich) : Optional.of(Map.of());
+        if (enrichments.isEmpty()) {
+            return;
+        }
+
+        for (DocumentChunk chunk : toEnrich) {
+            try {
+                ChunkEnrichment enrichment = enrichments.get().get(chunk.id());
+                applyEnrichment(chunk, enrichment != null ? enrichment : enrich(chunk));
+            } catch (Exception e) {
+                markAsFailed(chunk, e);
+            }
         }
     }
 
-    private void processSingleChunk(UUID docId, DocumentChunk chunk) {
+    /**
+     * Returns the packed result, an empty map when the output was malformed so every chunk
+     * falls back to a single request, or nothing when the call itself failed and the chunks
+     * were marked as failed.
+     */
+    private Optional<Map<UUID, ChunkEnrichment>> enrichPacked(List<DocumentChunk> chunks) {
         try {
-            List<String> terms = chatLimiter.execute(CHAT_LIMIT, 1, () -> getChunkTerms(chunk));
-
-            if (terms.isEmpty()) {
-                chunkRepository.updateStatus(chunk.id(), DocumentTaskStatus.READY);
-                return;
+            return Optional.of(chatLimiter.execute(CHAT_LIMIT, 1, () -> chunkEnrichmentService.enrichAll(chunks)));
+        } catch (Exception e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof MalformedEnrichmentException) {
+                log.warn("Packed enrichment of {} chunks was malformed, falling back to single requests: {}", chunks.size(), cause.getMessage());
+                return Optional.of(Map.of());
             }
+            chunks.forEach(chunk -> markAsFailed(chunk, e));
+            return Optional.empty();
+        }
+    }
 
-            int estimatedTokens = terms.stream().mapToInt(String::length).sum() / 4;
-            Response<List<Embedding>> response = embeddingLimiter.execute(EMBEDDING_LIMIT, estimatedTokens,
-                () -> embeddingModel.embedAll(
-                    terms.stream().map(TextSegment::from).toList()
-                ));
+    private boolean reuseEmbeddings(DocumentChunk chunk) {
+        return chunk.contentHash() != null && documentService.reuseEmbeddings(chunk.documentId(), chunk.id(), chunk.contentHash());
+    }
 
-            Map<String, float[]> embeddingMap = IntStream.range(0, terms.size())
-                .boxed()
-                .collect(Collectors.toMap(
-                    terms::get,
-                    i -> response.content().get(i).vector()
-                ));
+    private ChunkEnrichment enrich(DocumentChunk chunk) {
+        if (combinedEnrichment) {
+            return chatLimiter.execute(CHAT_LIMIT, 1, () -> chunkEnrichmentService.enrich(chunk));
+        }
+        return new ChunkEnrichment(chatLimiter.execute(CHAT_LIMIT, 1, () -> getChunkTerms(chunk)), null);
+    }
 
-            documentService.saveEmbeddings(docId, chunk.id(), embeddingMap);
+    private void applyEnrichment(DocumentChunk chunk, ChunkEnrichment enrichment) {
+        UUID docId = chunk.documentId();
+        if (enrichment.summary() != null) {
+            chunkRepository.updateChunkSummary(chunk.id(), enrichment.summary());
+        }
 
-        } catch (Exception e) {
-            log.error("Error on chunk {}: {}", chunk.id(), e.getMessage());
-            chunkRepository.markAsFailed(chunk.id(), e.getMessage());
+        if (enrichment.terms().isEmpty()) {
+            documentService.completeChunk(docId, chunk.id());
+            return;
         }
+
+        Map<String, float[]> embeddingMap = termEmbeddingService.embedTerms(enrichment.terms());
+
+        documentService.saveEmbeddings(docId, chunk.id(), embeddingMap);
+    }
+
+    private void markAsFailed(DocumentChunk chunk, Exception e) {
+        Throwable cause = unwrap(e);
+        log.error("Error on chunk {}: {}", chunk.id(), cause.getMessage());
+        chunkRepository.markAsFailed(chunk.id(), cause.getMessage());
+    }
+
+    private static Throwable unwrap(Exception e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     @Override
@@ -123,28 +209,68 @@ public class EmbeddingServiceImpl implements EmbeddingService {
             throw new IllegalArgumentException("Query cannot be empty");
         }
 
-        String query = inputQuery.trim().toLowerCase();
+        String query = inputQuery.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
         if (query.length() > 1000) {
             query = query.substring(0, 1000);
             log.warn("Query was truncated for embedding: {}", query);
         }
 
+        Optional<float[]> cached = queryEmbeddingCache.find(query);
+        if (cached.isPresent()) {
+            log.debug("Query embedding cache hit for: '{}'", query);
+            return cached.get();
+        }
+
         log.debug("Generating embedding for query: '{}'", query);
 
         try {
-            float[] vector = embeddingModel.embed(query).content().vector();
+            String text = query;
+            int estimatedTokens = tokenAccountant.estimate(List.of(text));
+            long deadline = System.nanoTime() + queryQuotaWait.toNanos();
+            awaitQueryQuota(estimatedTokens);
+            Response<Embedding> response;
+            try {
+                response = embeddingModel instanceof PooledEmbeddingModel pooled
+                    ? pooled.embed(text, Priority.INTERACTIVE, Duration.ofNanos(Math.max(0, deadline - System.nanoTime())))
+                    : embeddingModel.embed(text);
+            } finally {
+                embeddingLimiter.release(EMBEDDING_LIMIT, estimatedTokens);
+            }
+            tokenAccountant.settle(List.of(text), estimatedTokens, response.tokenUsage());
+
+            float[] vector = response.content().vector();
             if (vector == null || vector.length == 0) {
                 throw new IllegalStateException("Embedding model returned an empty vector for query: " + query);
             }
 
+            queryEmbeddingCache.put(query, vector);
             return vector;
 
+        } catch (BacklogExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to generate embedding for query: {}", query, e);
             throw new EmbeddingException("Error during query vectorization", e);
         }
     }
 
+    /**
+     * Waits for the shared embedding quota at most {@code queryQuotaWait}, so a search behind a
+     * background backlog fails fast with 503 instead of hanging. A reservation that was not
+     * granted in time is cancelled and consumes nothing. A pooled model's member quota is
+     * awaited with whatever is left of the same wait.
+     */
+    private void awaitQueryQuota(int estimatedTokens) throws InterruptedException, ExecutionException {
+        CompletableFuture<Void> granted = embeddingLimiter.reserve(EMBEDDING_LIMIT, estimatedTokens, Priority.INTERACTIVE);
+        try {
+            granted.get(queryQuotaWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (granted.cancel(false)) {
+                throw new BacklogExceededException("Embedding quota exhausted, retry later", true, queryQuotaWait);
+            }
+        }
+    }
+
     private List<String> getChunkTerms(DocumentChunk chunk) {
         String termsList = chatModel.chat(String.format(SUMMARY_PROMPT_TEMPLATE, chunk.content()));
         if (termsList.isBlank()) {
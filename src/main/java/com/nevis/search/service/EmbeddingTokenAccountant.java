@@ -0,0 +1,10 @@
+package com.nevis.search.service;
+
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+
+public interface EmbeddingTokenAccountant {
+    int estimate(List<String> texts);
+    void settle(List<String> texts, int estimatedTokens, TokenUsage usage);
+}
@@ -0,0 +1,124 @@
+package com.nevis.search.service;
+
+import com.nevis.search.infra.Priority;
+import com.nevis.search.infra.RateLimiter;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.nevis.search.service.EmbeddingServiceImpl.EMBEDDING_LIMIT;
+
+/**
+ * Estimates embedding tokens from a learned characters-per-token ratio and settles the
+ * estimate with the embedding limiter once the real count is known. The real count comes from
+ * the response's TokenUsage when the provider reports it; otherwise a sample of calls is
+ * counted with the token count estimator. A sampled batch is counted in one request on a
+ * background thread, at most one at a time, so the caller never waits for it. That request runs
+ * under its own limiter so it neither spends embedding quota nor counts as an embedding success.
+ * Each real count also recalibrates the ratio.
+ */
+@Service
+@Slf4j
+public class EmbeddingTokenAccountantImpl implements EmbeddingTokenAccountant {
+
+    static final String TOKEN_COUNT_LIMIT = "token_count_limit";
+
+    private final RateLimiter embeddingLimiter;
+    private final RateLimiter tokenCountLimiter;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final double sampleRate;
+    private final double smoothing;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean counting = new AtomicBoolean();
+
+    private volatile double charsPerToken;
+
+    public EmbeddingTokenAccountantImpl(
+        @Qualifier("embeddingLimiter") RateLimiter embeddingLimiter,
+        @Qualifier("tokenCountLimiter") RateLimiter tokenCountLimiter,
+        ObjectProvider<TokenCountEstimator> tokenCountEstimator,
+        MeterRegistry meterRegistry,
+        @Value("${app.embedding.tokens.initial-chars-per-token:4.0}") double initialCharsPerToken,
+        @Value("${app.embedding.tokens.calibration-sample-rate:0.02}") double sampleRate,
+        @Value("${app.embedding.tokens.smoothing:0.2}") double smoothing
+    ) {
+        this.embeddingLimiter = embeddingLimiter;
+        this.tokenCountLimiter = tokenCountLimiter;
+        this.tokenCountEstimator = tokenCountEstimator.getIfAvailable();
+        this.sampleRate = sampleRate;
+        this.smoothing = smoothing;
+        this.charsPerToken = initialCharsPerToken;
+
+        Gauge.builder("embedding.tokens.chars_per_token", this, accountant -> accountant.charsPerToken)
+            .description("Learned characters per embedding token")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public int estimate(List<String> texts) {
+        return Math.max(1, (int) Math.ceil(characters(texts) / charsPerToken));
+    }
+
+    @Override
+    public void settle(List<String> texts, int estimatedTokens, TokenUsage usage) {
+        Integer actual = usage != null ? usage.inputTokenCount() : null;
+        if (actual != null) {
+            record(texts, estimatedTokens, actual);
+        } else if (shouldSample()) {
+            executor.execute(() -> countSampled(texts, estimatedTokens));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean shouldSample() {
+        return tokenCountEstimator != null
+            && ThreadLocalRandom.current().nextDouble() < sampleRate
+            && counting.compareAndSet(false, true);
+    }
+
+    private void countSampled(List<String> texts, int estimatedTokens) {
+        try {
+            String batch = String.join("\n", texts);
+            int actual = tokenCountLimiter.execute(TOKEN_COUNT_LIMIT, 0, Priority.BACKGROUND,
+                () -> tokenCountEstimator.estimateTokenCountInText(batch));
+            record(texts, estimatedTokens, actual);
+        } catch (RuntimeException e) {
+            log.debug("Token count for calibration failed: {}", e.getMessage());
+        } finally {
+            counting.set(false);
+        }
+    }
+
+    private void record(List<String> texts, int estimatedTokens, int actual) {
+        if (actual <= 0) {
+            return;
+        }
+
+        charsPerToken = (1 - smoothing) * charsPerToken + smoothing * ((double) characters(texts) / actual);
+        embeddingLimiter.reconcile(EMBEDDING_LIMIT, estimatedTokens, actual);
+
+        log.debug("Embedding tokens: estimated {}, actual {}, chars per token now {}", estimatedTokens, actual, charsPerToken);
+    }
+
+    private static long characters(List<String> texts) {
+        return texts.stream().mapToLong(String::length).sum();
+    }
+}
@@ -0,0 +1,54 @@
+package com.nevis.search.service;
+
+import com.nevis.search.model.DocumentChunk;
+import com.nevis.search.repository.DocumentChunkRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Makes new chunks searchable before term extraction reaches them: the raw chunk text is
+ * embedded in shared embedAll batches and stored as a PROVISIONAL vector, which is dropped
+ * once the chunk's term vectors are saved. When a batch fails its chunks are released
+ * and picked up again by the next poll, unless their term vectors arrive first.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProvisionalEmbeddingServiceImpl implements ProvisionalEmbeddingService {
+
+    private final DocumentChunkRepository chunkRepository;
+    private final EmbeddingBatcher embeddingBatcher;
+
+    @Override
+    public int embedNewChunks(int limit) {
+        List<DocumentChunk> chunks = chunkRepository.claimForProvisionalEmbedding(limit);
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            List<Embedding> embeddings = embeddingBatcher.submit(chunks.stream().map(DocumentChunk::content).toList()).join();
+
+            Map<UUID, float[]> vectorsByChunk = new HashMap<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                vectorsByChunk.put(chunks.get(i).id(), embeddings.get(i).vector());
+            }
+
+            int inserted = chunkRepository.insertProvisionalVectors(vectorsByChunk);
+            log.debug("Stored provisional vectors for {} of {} new chunks", inserted, chunks.size());
+        } catch (Exception e) {
+            log.warn("Provisional embedding of {} chunks failed, releasing them for the next poll: {}", chunks.size(), e.getMessage());
+            chunkRepository.releaseProvisionalClaims(chunks.stream().map(DocumentChunk::id).toList());
+            // don't drain again right away, the released chunks would be claimed straight back
+            return 0;
+        }
+        return chunks.size();
+    }
+}
@@ -0,0 +1,8 @@
+package com.nevis.search.service;
+
+import java.util.Optional;
+
+public interface QueryEmbeddingCache {
+    Optional<float[]> find(String query);
+    void put(String query, float[] vector);
+}
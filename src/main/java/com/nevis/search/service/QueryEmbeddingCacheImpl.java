@@ -0,0 +1,115 @@
+package com.nevis.search.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nevis.search.repository.QueryEmbeddingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Two-tier cache for query vectors: a size and TTL bounded in-memory tier,
+ * optionally backed by the query_embeddings table so hot queries survive restarts.
+ */
+@Service
+@Slf4j
+public class QueryEmbeddingCacheImpl implements QueryEmbeddingCache {
+
+    private static final String METRIC_NAME = "search.query_embedding.cache";
+
+    private final QueryEmbeddingRepository queryEmbeddingRepository;
+    private final String modelVersion;
+    private final boolean persistentEnabled;
+    private final Duration persistentTtl;
+    private final Cache<String, float[]> memory;
+
+    private final Counter memoryHits;
+    private final Counter memoryMisses;
+    private final Counter databaseHits;
+    private final Counter databaseMisses;
+
+    public QueryEmbeddingCacheImpl(
+        QueryEmbeddingRepository queryEmbeddingRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.embedding.model-version:gemini-embedding-001@768}") String modelVersion,
+        @Value("${app.search.query-cache.max-size:1000}") long maxSize,
+        @Value("${app.search.query-cache.ttl-minutes:60}") long ttlMinutes,
+        @Value("${app.search.query-cache.persistent.enabled:false}") boolean persistentEnabled,
+        @Value("${app.search.query-cache.persistent.ttl-hours:168}") long persistentTtlHours
+    ) {
+        this.queryEmbeddingRepository = queryEmbeddingRepository;
+        this.modelVersion = modelVersion;
+        this.persistentEnabled = persistentEnabled;
+        this.persistentTtl = Duration.ofHours(persistentTtlHours);
+        this.memory = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .build();
+
+        this.memoryHits = meterRegistry.counter(METRIC_NAME, "tier", "memory", "result", "hit");
+        this.memoryMisses = meterRegistry.counter(METRIC_NAME, "tier", "memory", "result", "miss");
+        this.databaseHits = meterRegistry.counter(METRIC_NAME, "tier", "database", "result", "hit");
+        this.databaseMisses = meterRegistry.counter(METRIC_NAME, "tier", "database", "result", "miss");
+    }
+
+    @Override
+    public Optional<float[]> find(String query) {
+        float[] cached = memory.getIfPresent(query);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.of(cached);
+        }
+        memoryMisses.increment();
+
+        if (!persistentEnabled) {
+            return Optional.empty();
+        }
+
+        try {
+            Optional<float[]> stored = queryEmbeddingRepository.find(query, modelVersion, persistentTtl);
+            stored.ifPresentOrElse(vector -> {
+                databaseHits.increment();
+                memory.put(query, vector);
+            }, databaseMisses::increment);
+            return stored;
+        } catch (DataAccessException e) {
+            log.warn("Query embedding lookup failed, falling back to the model: {}", e.getMessage());
+            databaseMisses.increment();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String query, float[] vector) {
+        memory.put(query, vector);
+
+        if (!persistentEnabled) {
+            return;
+        }
+
+        try {
+            queryEmbeddingRepository.save(query, modelVersion, vector);
+        } catch (DataAccessException e) {
+            log.warn("Failed to persist query embedding: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.query-cache.persistent.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!persistentEnabled) {
+            return;
+        }
+
+        int removed = queryEmbeddingRepository.deleteOlderThan(persistentTtl);
+        if (removed > 0) {
+            log.info("Removed {} expired query embeddings", removed);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.nevis.search.service;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Applies a {@link DocumentSplitter} to a character stream one window at a time.
+ * Every segment except the last of a window is emitted; the text of the last one
+ * is carried into the next window so segment boundaries and overlap match a
+ * whole-document split as closely as possible.
+ */
+public class StreamingTextSplitter {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final DocumentSplitter splitter;
+    private final int windowSize;
+
+    public StreamingTextSplitter(DocumentSplitter splitter, int windowSize) {
+        this.splitter = splitter;
+        this.windowSize = windowSize;
+    }
+
+    public void split(Reader reader, Consumer<List<TextSegment>> segmentSink) throws IOException {
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        StringBuilder window = new StringBuilder(windowSize + READ_BUFFER_SIZE);
+
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            window.append(buffer, 0, read);
+
+            if (window.length() >= windowSize) {
+                flushWindow(window, segmentSink);
+            }
+        }
+
+        if (!window.toString().isBlank()) {
+            segmentSink.accept(splitter.split(Document.from(window.toString())));
+        }
+    }
+
+    private void flushWindow(StringBuilder window, Consumer<List<TextSegment>> segmentSink) {
+        String text = window.toString();
+        if (text.isBlank()) {
+            window.setLength(0);
+            return;
+        }
+
+        List<TextSegment> segments = splitter.split(Document.from(text));
+        if (segments.size() < 2) {
+            return;
+        }
+
+        TextSegment tail = segments.get(segments.size() - 1);
+        segmentSink.accept(segments.subList(0, segments.size() - 1));
+
+        int tailStart = text.lastIndexOf(tail.text());
+        if (tailStart < 0) {
+            tailStart = Math.max(0, text.length() - tail.text().length());
+        }
+        window.delete(0, tailStart);
+    }
+}
@@ -2,17 +2,20 @@ package com.nevis.search.service;
 
 import com.nevis.search.exception.EntityNotFoundException;
 import com.nevis.search.infra.RateLimiter;
+import com.nevis.search.model.Document;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.repository.DocumentChunkRepository;
 import com.nevis.search.repository.DocumentRepository;
 import dev.langchain4j.model.chat.ChatModel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.nevis.search.service.EmbeddingServiceImpl.CHAT_LIMIT;
 
@@ -21,6 +24,7 @@ import static com.nevis.search.service.EmbeddingServiceImpl.CHAT_LIMIT;
 public class SummaryGeneratorServiceImpl implements SummaryGeneratorService {
 
     private final DocumentRepository documentRepository;
+    private final DocumentChunkRepository chunkRepository;
     private final ChatModel chatModel;
     private final RateLimiter chatLimiter;
 
@@ -33,6 +37,9 @@ public class SummaryGeneratorServiceImpl implements SummaryGeneratorService {
     @Value("${app.worker.summary.stale-threshold-minutes:5}")
     private int staleThresholdMinutes;
 
+    @Value("${app.enrichment.combined:false}")
+    private boolean combinedEnrichment;
+
     private static final String SUMMARY_PROMPT_TEMPLATE =
         """
             Act as an expert Wealth Management Analyst. Describe the provided document to be used as a concise CRM entry.
@@ -47,12 +54,29 @@ public class SummaryGeneratorServiceImpl implements SummaryGeneratorService {
             %s
             """;
 
+    private static final String REDUCE_PROMPT_TEMPLATE =
+        """
+            Act as an expert Wealth Management Analyst. Below are short summaries of consecutive sections of one document.
+            Combine them into a single description of the whole document to be used as a concise CRM entry.
+            
+            Constraint: Keep the entire description under 2-3 sentences. Use a professional, objective tone
+            
+            NO Personal Data: Do not extract actual names, account numbers, or specific dollar amounts.
+            
+            Output: Only summary itself
+            
+            Section summaries:
+            %s
+            """;
+
     public SummaryGeneratorServiceImpl(
         DocumentRepository documentRepository,
+        DocumentChunkRepository chunkRepository,
         ChatModel chatModel,
         @Qualifier("chatLimiter") RateLimiter chatLimiter
     ) {
         this.documentRepository = documentRepository;
+        this.chunkRepository = chunkRepository;
         this.chatModel = chatModel;
         this.chatLimiter = chatLimiter;
     }
@@ -71,11 +95,7 @@ public class SummaryGeneratorServiceImpl implements SummaryGeneratorService {
                         return;
                     }
 
-                    String headContent = content.substring(0, Math.min(content.length(), maxSummaryChars));
-
-                    String summary = chatLimiter.execute(CHAT_LIMIT, 1, () ->
-                        chatModel.chat(String.format(SUMMARY_PROMPT_TEMPLATE, headContent))
-                    );
+                    String summary = combinedEnrichment ? reduceChunkSummaries(document) : summarizeContent(content);
 
                     documentRepository.updateSummary(docId, summary, DocumentTaskStatus.READY);
                     log.info("Summary successfully generated for doc: {}", docId);
@@ -86,4 +106,37 @@ public class SummaryGeneratorServiceImpl implements SummaryGeneratorService {
                 }
             });
     }
-}
\ No newline at end of file
+
+    private String summarizeContent(String content) {
+        String headContent = content.substring(0, Math.min(content.length(), maxSummaryChars));
+
+        return chatLimiter.execute(CHAT_LIMIT, 1, () ->
+            chatModel.chat(String.format(SUMMARY_PROMPT_TEMPLATE, headContent))
+        );
+    }
+
+    /**
+     * Builds the document summary from the summaries written during chunk enrichment. Falls back
+     * to the document head when no chunk has one, e.g. when all embeddings were reused.
+     */
+    private String reduceChunkSummaries(Document document) {
+        List<String> chunkSummaries = chunkRepository.findChunkSummaries(document.id());
+        if (chunkSummaries.isEmpty()) {
+            log.debug("Doc {}: no chunk summaries, summarizing content", document.id());
+            return summarizeContent(document.content());
+        }
+        if (chunkSummaries.size() == 1) {
+            return chunkSummaries.getFirst();
+        }
+
+        String sections = chunkSummaries.stream()
+            .map(summary -> "- " + summary)
+            .collect(Collectors.joining("\n"));
+        String input = sections.substring(0, Math.min(sections.length(), maxSummaryChars));
+
+        log.debug("Doc {}: reducing {} chunk summaries", document.id(), chunkSummaries.size());
+        return chatLimiter.execute(CHAT_LIMIT, 1, () ->
+            chatModel.chat(String.format(REDUCE_PROMPT_TEMPLATE, input))
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.nevis.search.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface TermEmbeddingService {
+    Map<String, float[]> embedTerms(List<String> terms);
+}
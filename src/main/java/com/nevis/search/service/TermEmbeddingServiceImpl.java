@@ -0,0 +1,90 @@
+package com.nevis.search.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nevis.search.repository.TermEmbeddingRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Resolves term vectors through an in-process cache and the term_embeddings
+ * dictionary; only terms missing from both are sent to the embedding model.
+ */
+@Service
+@Slf4j
+public class TermEmbeddingServiceImpl implements TermEmbeddingService {
+
+    private final TermEmbeddingRepository termEmbeddingRepository;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final String modelVersion;
+    private final Cache<String, float[]> cache;
+
+    public TermEmbeddingServiceImpl(
+        TermEmbeddingRepository termEmbeddingRepository,
+        EmbeddingBatcher embeddingBatcher,
+        @Value("${app.embedding.model-version:gemini-embedding-001@768}") String modelVersion,
+        @Value("${app.embedding.term-cache.max-size:10000}") long cacheMaxSize
+    ) {
+        this.termEmbeddingRepository = termEmbeddingRepository;
+        this.embeddingBatcher = embeddingBatcher;
+        this.modelVersion = modelVersion;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .build();
+    }
+
+    @Override
+    public Map<String, float[]> embedTerms(List<String> terms) {
+        Map<String, String> termsByKey = new LinkedHashMap<>();
+        for (String term : terms) {
+            String key = normalize(term);
+            if (!key.isEmpty()) {
+                termsByKey.putIfAbsent(key, term);
+            }
+        }
+
+        Map<String, float[]> vectorsByKey = new HashMap<>(cache.getAllPresent(termsByKey.keySet()));
+
+        List<String> missing = termsByKey.keySet().stream()
+            .filter(key -> !vectorsByKey.containsKey(key))
+            .toList();
+
+        if (!missing.isEmpty()) {
+            Map<String, float[]> stored = termEmbeddingRepository.findByTerms(missing, modelVersion);
+            cache.putAll(stored);
+            vectorsByKey.putAll(stored);
+        }
+
+        List<String> toEmbed = missing.stream()
+            .filter(key -> !vectorsByKey.containsKey(key))
+            .toList();
+
+        log.debug("Resolved {} terms: {} from dictionary, {} sent to embedding model",
+            termsByKey.size(), termsByKey.size() - toEmbed.size(), toEmbed.size());
+
+        if (!toEmbed.isEmpty()) {
+            List<Embedding> embeddings = embeddingBatcher.submit(toEmbed).join();
+
+            Map<String, float[]> fresh = new HashMap<>();
+            for (int i = 0; i < toEmbed.size(); i++) {
+                fresh.put(toEmbed.get(i), embeddings.get(i).vector());
+            }
+
+            termEmbeddingRepository.saveAll(fresh, modelVersion);
+            cache.putAll(fresh);
+            vectorsByKey.putAll(fresh);
+        }
+
+        Map<String, float[]> result = new LinkedHashMap<>();
+        termsByKey.forEach((key, term) -> result.put(term, vectorsByKey.get(key)));
+        return result;
+    }
+
+    static String normalize(String term) {
+        return term == null ? "" : term.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
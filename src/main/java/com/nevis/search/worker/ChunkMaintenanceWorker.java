@@ -1,27 +1,26 @@
 package com.nevis.search.worker;
 
-import com.nevis.search.event.DocumentEmbeddingsRetryEvent;
+import com.nevis.search.infra.Backoff;
 import com.nevis.search.repository.DocumentChunkRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.time.Duration;
 
+/**
+ * Puts failed and stuck chunks back to PENDING with a backed-off next_attempt_at.
+ * The chunk workers only claim chunks whose time has come, so no work is queued here.
+ */
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class ChunkMaintenanceWorker {
 
     private final DocumentChunkRepository chunkRepository;
-    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.worker.embeddings.max-attempts:5}")
     private int maxAttempts;
@@ -29,24 +28,25 @@ public class ChunkMaintenanceWorker {
     @Value("${app.worker.embeddings.stale-threshold-minutes:5}")
     private int staleThresholdMinutes;
 
+    @Value("${app.worker.retry.base-delay-ms:60000}")
+    private long baseDelayMs;
+
+    @Value("${app.worker.retry.max-delay-ms:1800000}")
+    private long maxDelayMs;
+
+    @Value("${app.worker.maintenance.batch-size:500}")
+    private int batchSize;
+
     @Scheduled(fixedDelayString = "${app.worker.cleanup-interval-ms:60000}")
     @Transactional
     public void cleanupStaleChunks() {
         log.debug("Starting maintenance: checking for failed or stuck chunks...");
 
-        List<UUID> affectedDocIds = chunkRepository.resetStaleAndFailedChunks(maxAttempts, staleThresholdMinutes);
+        int recovered = chunkRepository.resetStaleAndFailedChunks(maxAttempts, staleThresholdMinutes,
+            new Backoff(Duration.ofMillis(baseDelayMs), Duration.ofMillis(maxDelayMs)), batchSize);
 
-        if (affectedDocIds.isEmpty()) {
-            return;
+        if (recovered > 0) {
+            log.info("Maintenance scheduled {} failed or stuck chunks for retry", recovered);
         }
-
-        Set<UUID> uniqueDocIds = new HashSet<>(affectedDocIds);
-
-        log.info("Maintenance recovered {} chunks across {} documents. Re-triggering processing...", 
-                 affectedDocIds.size(), uniqueDocIds.size());
-
-        uniqueDocIds.forEach(docId ->
-            eventPublisher.publishEvent(new DocumentEmbeddingsRetryEvent(docId))
-        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.infra.Bulkhead;
+import com.nevis.search.infra.BulkheadRegistry;
+import com.nevis.search.model.DocumentChunk;
+import com.nevis.search.repository.DocumentChunkRepository;
+import com.nevis.search.service.EmbeddingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Claims the next ready chunks across all documents, so a large document no longer
+ * occupies a single task while small ones wait behind it. A long-lived feeder hands
+ * claimed chunks to virtual threads, as many at a time as the embedding bulkhead allows;
+ * when the table is empty it sleeps until {@link #wake()} or the poll interval. With a pack
+ * size above one, each worker takes several chunks, usually of different documents, and
+ * enriches them with a single chat request.
+ * <p>
+ * The embedding bulkhead's backlog is the number of claimable chunks plus the ones already
+ * claimed into the buffer, sampled on a schedule.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.work-queue.enabled", havingValue = "true", matchIfMissing = true)
+public class ChunkWorkerPool {
+
+    private final DocumentChunkRepository chunkRepository;
+    private final EmbeddingService embeddingService;
+    private final Bulkhead bulkhead;
+    private final int claimBatchSize;
+    private final int maxAttempts;
+    private final int packSize;
+    private final long pollIntervalMs;
+
+    private final Queue<DocumentChunk> claimed = new ArrayDeque<>();
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition workAvailable = idleLock.newCondition();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile int buffered;
+    private volatile boolean running;
+    private Thread feeder;
+
+    public ChunkWorkerPool(
+        DocumentChunkRepository chunkRepository,
+        EmbeddingService embeddingService,
+        BulkheadRegistry bulkheads,
+        @Value("${app.worker.embeddings.claim-batch-size:10}") int claimBatchSize,
+        @Value("${app.worker.embeddings.max-attempts:5}") int maxAttempts,
+        @Value("${app.enrichment.pack-size:1}") int packSize,
+        @Value("${app.work-queue.poll-interval-ms:5000}") long pollIntervalMs
+    ) {
+        this.chunkRepository = chunkRepository;
+        this.embeddingService = embeddingService;
+        this.bulkhead = bulkheads.get(BulkheadRegistry.EMBEDDING);
+        this.claimBatchSize = claimBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.packSize = Math.max(1, packSize);
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        feeder = Thread.ofVirtual().name("chunk-feeder").start(this::feedLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (feeder != null) {
+            feeder.interrupt();
+        }
+        executor.shutdown();
+    }
+
+    public void wake() {
+        idleLock.lock();
+        try {
+            workAvailable.signalAll();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * Hands the next chunk, or pack of chunks, to a worker once the bulkhead has room, claiming
+     * a new batch when the buffer runs short. Returns false when there was nothing to do.
+     */
+    boolean dispatchNext() throws InterruptedException {
+        List<DocumentChunk> chunks = nextChunks();
+        if (chunks.isEmpty()) {
+            return false;
+        }
+
+        bulkhead.acquire();
+        executor.execute(() -> {
+            try {
+                if (chunks.size() == 1) {
+                    embeddingService.processChunk(chunks.getFirst());
+                } else {
+                    embeddingService.processChunks(chunks);
+                }
+            } finally {
+                bulkhead.release();
+            }
+        });
+        return true;
+    }
+
+    private List<DocumentChunk> nextChunks() {
+        if (claimed.size() < packSize) {
+            // don't hold more chunks than can start soon, they stay PROCESSING while buffered
+            int wanted = Math.max(claimBatchSize, packSize);
+            int limit = Math.max(1, Math.min(wanted, bulkhead.available() * packSize) - claimed.size());
+            List<DocumentChunk> batch = chunkRepository.claimReadyChunks(limit, maxAttempts);
+            if (!batch.isEmpty()) {
+                log.debug("Claimed {} ready chunks", batch.size());
+                claimed.addAll(batch);
+            }
+        }
+
+        List<DocumentChunk> chunks = new ArrayList<>(packSize);
+        while (chunks.size() < packSize && !claimed.isEmpty()) {
+            chunks.add(claimed.poll());
+        }
+        buffered = claimed.size();
+        return chunks;
+    }
+
+    @Scheduled(fixedDelayString = "${app.work-queue.metrics-interval-ms:10000}")
+    public void refreshBacklog() {
+        try {
+            bulkhead.updateBacklog(chunkRepository.countClaimable(maxAttempts) + buffered);
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh chunk backlog, keeping the last sample: {}", e.getMessage());
+        }
+    }
+
+    private void feedLoop() {
+        while (running) {
+            try {
+                if (!dispatchNext()) {
+                    awaitWork();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Chunk feeder failed: {}", e.getMessage());
+                try {
+                    awaitWork();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitWork() throws InterruptedException {
+        idleLock.lock();
+        try {
+            workAvailable.await(pollIntervalMs, TimeUnit.MILLISECONDS);
+        } finally {
+            idleLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.service.ProvisionalEmbeddingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls for chunks without a provisional vector and drains them in full batches,
+ * so a bulk ingest is searchable long before its chat enrichment finishes.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.provisional-embeddings.enabled", havingValue = "true", matchIfMissing = true)
+public class ProvisionalEmbeddingWorker {
+
+    private final ProvisionalEmbeddingService provisionalEmbeddingService;
+
+    @Value("${app.provisional-embeddings.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.provisional-embeddings.poll-interval-ms:2000}")
+    public void embedNewChunks() {
+        int claimed;
+        do {
+            claimed = provisionalEmbeddingService.embedNewChunks(batchSize);
+        } while (claimed == batchSize);
+    }
+}
@@ -1,24 +1,34 @@
 package com.nevis.search.worker;
 
-import com.nevis.search.event.DocumentSummaryRetryEvent;
+import com.nevis.search.infra.Backoff;
+import com.nevis.search.model.ScheduledRetry;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
 import com.nevis.search.repository.DocumentRepository;
+import com.nevis.search.repository.WorkQueueRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Re-queues failed and stuck summaries with a backed-off due time. With combined enrichment
+ * the summary is only queued once the last chunk is ready, so documents whose remaining
+ * chunks have all used up their attempts are queued here to reduce what is there.
+ */
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class SummaryRetryWorker {
 
     private final DocumentRepository documentRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final WorkQueueRepository workQueueRepository;
 
     @Value("${app.worker.summary.max-attempts:5}")
     private int maxAttempts;
@@ -26,15 +36,40 @@ public class SummaryRetryWorker {
     @Value("${app.worker.summary.stale-threshold-minutes:5}")
     private int staleThresholdMinutes;
 
+    @Value("${app.worker.retry.base-delay-ms:60000}")
+    private long baseDelayMs;
+
+    @Value("${app.worker.retry.max-delay-ms:1800000}")
+    private long maxDelayMs;
+
+    @Value("${app.worker.maintenance.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.worker.embeddings.max-attempts:5}")
+    private int maxChunkAttempts;
+
+    @Value("${app.enrichment.combined:false}")
+    private boolean combinedEnrichment;
+
     @Scheduled(fixedDelayString = "${app.summary.retry-check-interval-ms:60000}")
+    @Transactional
     public void retrySummaries() {
         log.debug("Checking for failed or stale summaries...");
 
-        List<UUID> docIds = documentRepository.resetStaleAndFailedSummaries(maxAttempts, staleThresholdMinutes);
+        List<ScheduledRetry> retries = documentRepository.resetStaleAndFailedSummaries(maxAttempts, staleThresholdMinutes,
+            new Backoff(Duration.ofMillis(baseDelayMs), Duration.ofMillis(maxDelayMs)), batchSize);
+
+        if (!retries.isEmpty()) {
+            log.info("Scheduling {} documents for summary retry", retries.size());
+            workQueueRepository.enqueueScheduled(WorkType.SUMMARIZE, retries, WorkItem.DEFAULT_PRIORITY);
+        }
 
-        if (!docIds.isEmpty()) {
-            log.info("Resetting {} documents for summary retry", docIds.size());
-            docIds.forEach(id -> eventPublisher.publishEvent(new DocumentSummaryRetryEvent(id)));
+        if (combinedEnrichment) {
+            List<UUID> stranded = documentRepository.claimStrandedSummaries(maxChunkAttempts, batchSize);
+            if (!stranded.isEmpty()) {
+                log.info("Summarizing {} documents whose remaining chunks gave up", stranded.size());
+                workQueueRepository.enqueueAll(WorkType.SUMMARIZE, stranded, WorkItem.DEFAULT_PRIORITY);
+            }
         }
     }
-}
\ No newline at end of file
+}
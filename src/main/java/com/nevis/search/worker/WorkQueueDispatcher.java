@@ -0,0 +1,263 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.infra.Bulkhead;
+import com.nevis.search.infra.BulkheadRegistry;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
+import com.nevis.search.repository.WorkQueueRepository;
+import com.nevis.search.service.DocumentService;
+import com.nevis.search.service.SummaryGeneratorService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs the work_queue on every node. A dedicated connection LISTENs on the work_queue channel,
+ * which the table's insert trigger notifies, so new work is claimed (FOR UPDATE SKIP LOCKED,
+ * with a lease) as soon as the enqueueing transaction commits. The queue is also polled as a
+ * fallback. Items whose lease runs out, e.g. because their node died, are claimed again.
+ * Chunks are not queued here: the {@link ChunkWorkerPool} claims them across documents, and
+ * a chunks-ready notification wakes it on every node.
+ * <p>
+ * Each work type runs in its own bulkhead, and items that already failed once run in a
+ * shared retry bulkhead, so a burst of retries cannot take the slots of fresh work.
+ * When an item is given up, the document is marked FAILED if it was never split.
+ * <p>
+ * Items are only claimed while their bulkhead has a free slot, so the claimable depth of each
+ * queue is published as the bulkhead's backlog, a pass that stops with work left counts as a
+ * rejection, and the wait is measured from the time the item became available.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.work-queue.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkQueueDispatcher {
+
+    private static final String CHANNEL = "work_queue";
+
+    private final WorkQueueRepository workQueueRepository;
+    private final DataSource dataSource;
+    private final ChunkWorkerPool chunkWorkerPool;
+    private final Map<WorkType, Consumer<UUID>> handlers = new EnumMap<>(WorkType.class);
+    private final Map<WorkType, Consumer<UUID>> giveUpHandlers = new EnumMap<>(WorkType.class);
+
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final long pollIntervalMs;
+
+    private final Map<WorkType, Bulkhead> typeBulkheads = new EnumMap<>(WorkType.class);
+    private final Bulkhead retryBulkhead;
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile boolean running;
+    private Thread dispatcher;
+    private Thread listener;
+
+    public WorkQueueDispatcher(
+        WorkQueueRepository workQueueRepository,
+        DataSource dataSource,
+        DocumentService documentService,
+        ChunkWorkerPool chunkWorkerPool,
+        SummaryGeneratorService summaryGeneratorService,
+        BulkheadRegistry bulkheads,
+        @Value("${app.work-queue.lease-seconds:900}") long leaseSeconds,
+        @Value("${app.work-queue.max-attempts:5}") int maxAttempts,
+        @Value("${app.work-queue.retry-delay-ms:30000}") long retryDelayMs,
+        @Value("${app.work-queue.poll-interval-ms:5000}") long pollIntervalMs
+    ) {
+        this.workQueueRepository = workQueueRepository;
+        this.dataSource = dataSource;
+        this.chunkWorkerPool = chunkWorkerPool;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Duration.ofMillis(retryDelayMs);
+        this.pollIntervalMs = pollIntervalMs;
+        this.retryBulkhead = bulkheads.get(BulkheadRegistry.RETRY);
+
+        handlers.put(WorkType.SPLIT, documentService::splitDocument);
+        handlers.put(WorkType.SUMMARIZE, summaryGeneratorService::generateSummary);
+        giveUpHandlers.put(WorkType.SPLIT, documentService::failSplit);
+
+        typeBulkheads.put(WorkType.SPLIT, bulkheads.get(BulkheadRegistry.SPLIT));
+        typeBulkheads.put(WorkType.SUMMARIZE, bulkheads.get(BulkheadRegistry.SUMMARY));
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        dispatcher = Thread.ofVirtual().name("work-queue-dispatcher").start(this::dispatchLoop);
+        listener = Thread.ofVirtual().name("work-queue-listener").start(this::listenLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        executor.shutdown();
+    }
+
+    void drain() {
+        typeBulkheads.forEach((type, bulkhead) -> drainInto(bulkhead, limit -> workQueueRepository.claim(type, limit, lease)));
+        drainInto(retryBulkhead, limit -> workQueueRepository.claimRetries(limit, lease));
+    }
+
+    private void drainInto(Bulkhead bulkhead, IntFunction<List<WorkItem>> claimer) {
+        int free;
+        while ((free = bulkhead.available()) > 0) {
+            List<WorkItem> items = claimer.apply(free);
+            if (items.isEmpty()) {
+                return;
+            }
+
+            for (WorkItem item : items) {
+                if (!bulkhead.tryAcquire()) {
+                    // the bulkhead was shrunk after the claim; hand the item back
+                    workQueueRepository.retryLater(item.id(), Duration.ZERO);
+                    continue;
+                }
+                bulkhead.recordWait(Duration.between(item.availableAt(), Instant.now()));
+                executor.execute(() -> {
+                    try {
+                        process(item);
+                    } finally {
+                        bulkhead.release();
+                        signal();
+                    }
+                });
+            }
+        }
+        if (bulkhead.backlog() > 0) {
+            bulkhead.defer();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.work-queue.metrics-interval-ms:10000}")
+    public void refreshBacklog() {
+        try {
+            Map<WorkType, Long> waiting = workQueueRepository.countWaitingByType();
+            typeBulkheads.forEach((type, bulkhead) -> bulkhead.updateBacklog(waiting.getOrDefault(type, 0L)));
+            retryBulkhead.updateBacklog(workQueueRepository.countWaitingRetries());
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh work queue backlog, keeping the last sample: {}", e.getMessage());
+        }
+    }
+
+    void process(WorkItem item) {
+        try {
+            log.debug("Processing {} for doc {} (attempt {})", item.workType(), item.documentId(), item.attempts());
+            handlers.get(item.workType()).accept(item.documentId());
+            workQueueRepository.complete(item.id());
+        } catch (Exception e) {
+            if (item.attempts() >= maxAttempts) {
+                log.error("Giving up on {} for doc {} after {} attempts: {}", item.workType(), item.documentId(), item.attempts(), e.getMessage());
+                giveUp(item);
+                workQueueRepository.complete(item.id());
+            } else {
+                log.warn("{} for doc {} failed, retrying later: {}", item.workType(), item.documentId(), e.getMessage());
+                workQueueRepository.retryLater(item.id(), retryDelay.multipliedBy(item.attempts()));
+            }
+        }
+    }
+
+    private void giveUp(WorkItem item) {
+        Consumer<UUID> handler = giveUpHandlers.get(item.workType());
+        if (handler == null) {
+            return;
+        }
+        try {
+            handler.accept(item.documentId());
+        } catch (Exception e) {
+            log.error("Could not record giving up on {} for doc {}: {}", item.workType(), item.documentId(), e.getMessage());
+        }
+    }
+
+    private void signal() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                drain();
+                wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Work queue dispatch failed: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for work queue notifications");
+                signal();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollIntervalMs);
+                    if (notifications != null && notifications.length > 0) {
+                        signal();
+                        if (Arrays.stream(notifications).anyMatch(n -> WorkQueueRepository.CHUNKS_READY.equals(n.getParameter()))) {
+                            chunkWorkerPool.wake();
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Work queue listener connection lost, reconnecting: {}", e.getMessage());
+                    sleepQuietly();
+                }
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+ALTER TABLE documents
+    ADD COLUMN total_chunks INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN pending_chunks INTEGER NOT NULL DEFAULT 0;
+
+UPDATE documents d
+SET total_chunks = c.total,
+    pending_chunks = c.pending
+FROM (
+    SELECT document_id,
+           COUNT(*) AS total,
+           COUNT(*) FILTER (WHERE status <> 'READY') AS pending
+    FROM document_chunks
+    GROUP BY document_id
+) c
+WHERE c.document_id = d.id;
@@ -0,0 +1,14 @@
+CREATE TYPE embedding_source AS ENUM ('TERM', 'PROVISIONAL');
+
+ALTER TABLE document_chunk_embeddings
+    ADD COLUMN source embedding_source NOT NULL DEFAULT 'TERM';
+
+CREATE INDEX idx_chunk_embeddings_provisional ON document_chunk_embeddings (chunk_id)
+WHERE source = 'PROVISIONAL';
+
+-- existing chunks are not backfilled, only chunks written from now on get a provisional vector
+ALTER TABLE document_chunks ADD COLUMN provisional_embedded BOOLEAN NOT NULL DEFAULT TRUE;
+ALTER TABLE document_chunks ALTER COLUMN provisional_embedded SET DEFAULT FALSE;
+
+CREATE INDEX idx_chunks_provisional_queue ON document_chunks (created_at)
+WHERE NOT provisional_embedded;
@@ -0,0 +1 @@
+DELETE FROM work_queue WHERE work_type = 'EMBED';
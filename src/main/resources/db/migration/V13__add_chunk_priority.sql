@@ -0,0 +1,6 @@
+ALTER TABLE document_chunks ADD COLUMN priority SMALLINT NOT NULL DEFAULT 0;
+
+DROP INDEX idx_chunks_ready_queue;
+
+CREATE INDEX idx_chunks_ready_queue ON document_chunks (priority, document_id, created_at)
+WHERE status = 'PENDING';
@@ -0,0 +1,10 @@
+DELETE FROM work_queue WHERE work_type = 'EMBED';
+
+ALTER TYPE work_type RENAME TO work_type_old;
+
+CREATE TYPE work_type AS ENUM ('SPLIT', 'SUMMARIZE');
+
+ALTER TABLE work_queue
+    ALTER COLUMN work_type TYPE work_type USING work_type::text::work_type;
+
+DROP TYPE work_type_old;
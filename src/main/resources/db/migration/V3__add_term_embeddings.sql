@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS term_embeddings (
+    term            TEXT NOT NULL,
+    model_version   TEXT NOT NULL,
+    embedding       vector(768) NOT NULL,
+
+    created_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (term, model_version)
+);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS query_embeddings (
+    query_key       TEXT NOT NULL,
+    model_version   TEXT NOT NULL,
+    embedding       vector(768) NOT NULL,
+
+    created_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (query_key, model_version)
+);
+
+CREATE INDEX idx_query_embeddings_created_at ON query_embeddings (created_at);
@@ -0,0 +1,7 @@
+ALTER TABLE document_chunks ADD COLUMN content_hash CHAR(64);
+
+UPDATE document_chunks
+SET content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex');
+
+CREATE INDEX idx_chunks_content_hash_ready ON document_chunks (content_hash)
+WHERE status = 'READY';
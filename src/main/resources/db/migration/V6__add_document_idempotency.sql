@@ -0,0 +1,10 @@
+ALTER TABLE documents ADD COLUMN content_hash CHAR(64);
+ALTER TABLE documents ADD COLUMN idempotency_key VARCHAR(255);
+
+UPDATE documents
+SET content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex');
+
+CREATE UNIQUE INDEX idx_documents_client_idempotency_key ON documents (client_id, idempotency_key)
+WHERE idempotency_key IS NOT NULL;
+
+CREATE INDEX idx_documents_client_content_hash ON documents (client_id, content_hash);
@@ -0,0 +1,29 @@
+CREATE TYPE work_type AS ENUM ('SPLIT', 'EMBED', 'SUMMARIZE');
+
+CREATE TABLE IF NOT EXISTS work_queue (
+    id              BIGSERIAL PRIMARY KEY,
+    work_type       work_type NOT NULL,
+    document_id     UUID NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+
+    priority        SMALLINT NOT NULL DEFAULT 0,
+    attempts        INTEGER NOT NULL DEFAULT 0,
+    available_at    TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until    TIMESTAMPTZ,
+
+    created_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_work_queue_claim ON work_queue (priority, id, available_at);
+
+CREATE OR REPLACE FUNCTION notify_work_queue()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('work_queue', NEW.work_type::text);
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER work_queue_notify
+    AFTER INSERT ON work_queue
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_work_queue();
@@ -0,0 +1,2 @@
+CREATE INDEX idx_chunks_ready_queue ON document_chunks (document_id, created_at)
+WHERE status = 'PENDING';
@@ -0,0 +1,7 @@
+ALTER TABLE document_chunks ADD COLUMN next_attempt_at TIMESTAMPTZ;
+
+CREATE INDEX idx_chunks_retry_candidates ON document_chunks (updated_at)
+WHERE status IN ('FAILED', 'PROCESSING');
+
+CREATE INDEX idx_documents_summary_retry_candidates ON documents (updated_at)
+WHERE summary_status IN ('FAILED', 'PROCESSING');
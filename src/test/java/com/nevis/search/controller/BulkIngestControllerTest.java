@@ -0,0 +1,68 @@
+package com.nevis.search.controller;
+
+import com.nevis.search.config.SecurityConfig;
+import com.nevis.search.service.AdmissionController;
+import com.nevis.search.service.BulkIngestService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BulkIngestController.class)
+@Import(SecurityConfig.class)
+@WithMockUser(username = "nevis_admin")
+class BulkIngestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BulkIngestService bulkIngestService;
+
+    @MockitoBean
+    private AdmissionController admissionController;
+
+    @Test
+    @DisplayName("POST /documents/bulk should stream one NDJSON result per input line")
+    void bulkIngest_ShouldStreamResults() throws Exception {
+        UUID docId = UUID.randomUUID();
+
+        doAnswer(invocation -> {
+            Reader body = invocation.getArgument(0);
+            Consumer<BulkIngestResult> sink = invocation.getArgument(1);
+            assertThat(new BufferedReader(body).lines().count()).isEqualTo(2);
+            sink.accept(BulkIngestResult.created(1, docId));
+            sink.accept(BulkIngestResult.rejected(2, "Malformed JSON"));
+            return null;
+        }).when(bulkIngestService).ingest(any(), any());
+
+        String response = mockMvc.perform(post("/documents/bulk")
+                .contentType(BulkIngestController.NDJSON)
+                .content("{\"client_id\":\"" + UUID.randomUUID() + "\"}\n{broken"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(BulkIngestController.NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(response.lines().toList()).containsExactly(
+            "{\"line\":1,\"status\":\"CREATED\",\"document_id\":\"" + docId + "\"}",
+            "{\"line\":2,\"status\":\"REJECTED\",\"error\":\"Malformed JSON\"}"
+        );
+    }
+}
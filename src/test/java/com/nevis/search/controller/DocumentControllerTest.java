@@ -2,8 +2,10 @@ package com.nevis.search.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nevis.search.config.SecurityConfig;
+import com.nevis.search.exception.BacklogExceededException;
 import com.nevis.search.exception.EntityNotFoundException;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.service.AdmissionController;
 import com.nevis.search.service.ClientService;
 import com.nevis.search.service.DocumentService;
 import org.junit.jupiter.api.DisplayName;
@@ -16,12 +18,17 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,16 +50,19 @@ class DocumentControllerTest {
     @MockitoBean
     private ClientService clientService;
 
+    @MockitoBean
+    private AdmissionController admissionController;
+
     @Test
     @DisplayName("POST /clients/{id}/documents should start ingestion and return 201")
     void createDocument_ShouldReturn201() throws Exception {
         UUID clientId = UUID.randomUUID();
         DocumentRequest request = new DocumentRequest("Title", "Content");
         DocumentResponse response = new DocumentResponse(
-            UUID.randomUUID(), clientId, "Title", "Content", null, DocumentTaskStatus.PROCESSING, DocumentTaskStatus.PROCESSING, OffsetDateTime.now()
+            UUID.randomUUID(), clientId, "Title", "Content", null, DocumentTaskStatus.PROCESSING, DocumentTaskStatus.PROCESSING, 0, OffsetDateTime.now()
         );
 
-        when(documentService.ingestDocument(eq("Title"), eq("Content"), eq(clientId)))
+        when(documentService.ingestDocument(eq("Title"), eq("Content"), eq(clientId), eq(Optional.empty())))
             .thenReturn(response);
 
         when(clientService.getById(clientId)).thenReturn(mock(ClientResponse.class));
@@ -65,12 +75,102 @@ class DocumentControllerTest {
             .andExpect(jsonPath("$.status").value("PROCESSING"));
     }
 
+    @Test
+    @DisplayName("POST /clients/{id}/documents should pass the Idempotency-Key header to the service")
+    void createDocument_ShouldPassIdempotencyKey() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        DocumentRequest request = new DocumentRequest("Title", "Content");
+        DocumentResponse response = new DocumentResponse(
+            UUID.randomUUID(), clientId, "Title", "Content", null, DocumentTaskStatus.PROCESSING, DocumentTaskStatus.PROCESSING, 0, OffsetDateTime.now()
+        );
+
+        when(documentService.ingestDocument(eq("Title"), eq("Content"), eq(clientId), eq(Optional.of("upload-42"))))
+            .thenReturn(response);
+        when(clientService.getById(clientId)).thenReturn(mock(ClientResponse.class));
+
+        mockMvc.perform(post("/clients/{id}/documents", clientId)
+                .header("Idempotency-Key", "upload-42")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(response.id().toString()));
+    }
+
+    @Test
+    @DisplayName("POST /clients/{id}/documents should return 400 for an oversized Idempotency-Key")
+    void createDocument_ShouldRejectOversizedIdempotencyKey() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        DocumentRequest request = new DocumentRequest("Title", "Content");
+
+        mockMvc.perform(post("/clients/{id}/documents", clientId)
+                .header("Idempotency-Key", "k".repeat(256))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /clients/{id}/documents?async=true should return 202 with a status location")
+    void createDocument_ShouldReturn202_WhenAsync() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        DocumentRequest request = new DocumentRequest("Title", "Content");
+        DocumentResponse response = new DocumentResponse(
+            UUID.randomUUID(), clientId, "Title", "Content", null, DocumentTaskStatus.PENDING, DocumentTaskStatus.PENDING, 0, OffsetDateTime.now()
+        );
+
+        when(clientService.getById(clientId)).thenReturn(mock(ClientResponse.class));
+        when(documentService.acceptDocument(eq("Title"), eq("Content"), eq(clientId), eq(Optional.empty())))
+            .thenReturn(response);
+
+        mockMvc.perform(post("/clients/{id}/documents", clientId)
+                .param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/documents/" + response.id()))
+            .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    @DisplayName("POST /clients/{id}/documents/stream should ingest a text/plain body")
+    void streamDocument_ShouldReturn201() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        DocumentResponse response = new DocumentResponse(
+            UUID.randomUUID(), clientId, "Filing", null, null, DocumentTaskStatus.PENDING, DocumentTaskStatus.PROCESSING, 0, OffsetDateTime.now()
+        );
+
+        when(clientService.getById(clientId)).thenReturn(mock(ClientResponse.class));
+        when(documentService.ingestDocumentStream(eq("Filing"), any(Reader.class), eq(clientId), eq(Optional.empty())))
+            .thenAnswer(invocation -> {
+                Reader body = invocation.getArgument(1);
+                assertThat(new BufferedReader(body).readLine()).isEqualTo("Annual filing – Zürich");
+                return response;
+            });
+
+        mockMvc.perform(post("/clients/{id}/documents/stream", clientId)
+                .param("title", "Filing")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Annual filing – Zürich".getBytes(StandardCharsets.UTF_8)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(response.id().toString()))
+            .andExpect(jsonPath("$.status").value("PROCESSING"));
+    }
+
+    @Test
+    @DisplayName("POST /clients/{id}/documents/stream should return 400 when title is missing")
+    void streamDocument_ShouldReturn400_WhenTitleMissing() throws Exception {
+        mockMvc.perform(post("/clients/{id}/documents/stream", UUID.randomUUID())
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("text"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /documents/{id} should return document details")
     void getDocument_ShouldReturnDetails() throws Exception {
         UUID docId = UUID.randomUUID();
         DocumentResponse response = new DocumentResponse(
-            docId, UUID.randomUUID(), "Title", "Content", "Summary", DocumentTaskStatus.READY, DocumentTaskStatus.READY, OffsetDateTime.now()
+            docId, UUID.randomUUID(), "Title", "Content", "Summary", DocumentTaskStatus.READY, DocumentTaskStatus.READY, 100, OffsetDateTime.now()
         );
 
         when(documentService.getById(docId)).thenReturn(response);
@@ -78,7 +178,8 @@ class DocumentControllerTest {
         mockMvc.perform(get("/documents/{id}", docId))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.title").value("Title"))
-            .andExpect(jsonPath("$.summary").value("Summary"));
+            .andExpect(jsonPath("$.summary").value("Summary"))
+            .andExpect(jsonPath("$.progress").value(100));
     }
 
     @Test
@@ -96,4 +197,35 @@ class DocumentControllerTest {
             .andExpect(jsonPath("$.message").value(errorMessage))
             .andExpect(jsonPath("$.errorCode").value("404"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /clients/{id}/documents should return 429 with Retry-After while the backlog is over the throttle threshold")
+    void createDocument_ShouldReturn429WhenThrottled() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        doThrow(new BacklogExceededException("Ingestion backlog too large", false, Duration.ofSeconds(42)))
+            .when(admissionController).admit();
+
+        mockMvc.perform(post("/clients/{id}/documents", clientId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DocumentRequest("Title", "Content"))))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "42"));
+
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    @DisplayName("POST /clients/{id}/documents should return 503 with Retry-After while load is being shed")
+    void createDocument_ShouldReturn503WhenShedding() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        doThrow(new BacklogExceededException("Ingestion backlog too large", true, Duration.ofSeconds(600)))
+            .when(admissionController).admit();
+
+        mockMvc.perform(post("/clients/{id}/documents", clientId)
+                .param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DocumentRequest("Title", "Content"))))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "600"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.nevis.search.infra;
+
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationRateLimiter delegate;
+    private AdaptiveRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new ReservationRateLimiter(10, 1000, Duration.ofMillis(100));
+        limiter = new AdaptiveRateLimiter(delegate,
+            new AdaptiveRateLimiter.Limits(10, 40, 1000, 4000, 10, 0.5, 2, Duration.ofMillis(10)),
+            "test", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        delegate.close();
+    }
+
+    @Test
+    @DisplayName("Should raise the learned rate additively while calls succeed, up to the ceiling")
+    void shouldIncreaseOnSuccess() {
+        limiter.execute("key", 1, () -> "ok");
+        assertThat(limiter.learnedRpm()).isEqualTo(11.0);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.execute("key", 1, () -> "ok");
+        }
+        assertThat(limiter.learnedRpm()).isEqualTo(40.0);
+    }
+
+    @Test
+    @DisplayName("Should halve the learned rate on a 429, retry and return the result")
+    void shouldBackOffAndRetryOnThrottle() {
+        for (int i = 0; i < 5; i++) {
+            limiter.execute("key", 1, () -> "ok");
+        }
+        double before = limiter.learnedRpm();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = limiter.execute("key", 1, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new RateLimitException("RESOURCE_EXHAUSTED");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(limiter.learnedRpm()).isLessThan(before);
+    }
+
+    @Test
+    @DisplayName("Should lower the rate only once for a burst of concurrent 429s")
+    void shouldDecreaseOncePerRetryWindow() throws Exception {
+        AdaptiveRateLimiter burstLimiter = new AdaptiveRateLimiter(delegate,
+            new AdaptiveRateLimiter.Limits(10, 40, 1000, 4000, 10, 0.5, 0, Duration.ofSeconds(5)),
+            "burst", meterRegistry);
+        for (int i = 0; i < 30; i++) {
+            burstLimiter.execute("key", 1, () -> "ok");
+        }
+        double before = burstLimiter.learnedRpm();
+
+        int callers = 4;
+        CyclicBarrier allInFlight = new CyclicBarrier(callers);
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> burstLimiter.execute("key", 1, () -> {
+                    await(allInFlight);
+                    throw new HttpException(429, "Too Many Requests");
+                })));
+            }
+            for (Future<?> result : results) {
+                assertThatThrownBy(result::get).hasCauseInstanceOf(HttpException.class);
+            }
+        }
+
+        assertThat(burstLimiter.learnedRpm()).isEqualTo(Math.max(10.0, before * 0.5));
+    }
+
+    @Test
+    @DisplayName("Should never go below the configured floor and give up after max retries")
+    void shouldRespectFloorAndMaxRetries() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> limiter.execute("key", 1, () -> {
+            calls.incrementAndGet();
+            throw new HttpException(429, "Too Many Requests");
+        })).isInstanceOf(HttpException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(limiter.learnedRpm()).isEqualTo(10.0);
+    }
+
+    @Test
+    @DisplayName("Should pass through errors that are not throttling")
+    void shouldNotRetryOtherErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> limiter.execute("key", 1, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should read the provider retry delay from the error")
+    void shouldParseRetryAfter() {
+        assertThat(ProviderErrors.retryAfter(new RuntimeException("Quota exceeded. Please retry in 2.5s.")))
+            .contains(Duration.ofMillis(2500));
+        assertThat(ProviderErrors.retryAfter(new RuntimeException(new RateLimitException("{\"retryDelay\": \"7s\"}"))))
+            .contains(Duration.ofSeconds(7));
+        assertThat(ProviderErrors.retryAfter(new RuntimeException("Retry-After: 30")))
+            .contains(Duration.ofSeconds(30));
+        assertThat(ProviderErrors.retryAfter(new RuntimeException("boom"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expose the learned rate as a gauge")
+    void shouldExposeGauge() {
+        assertThat(meterRegistry.get("rate_limiter.learned_rpm").tag("limiter", "test").gauge().value())
+            .isEqualTo(10.0);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
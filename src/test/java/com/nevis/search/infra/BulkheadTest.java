@@ -0,0 +1,88 @@
+package com.nevis.search.infra;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkhead bulkhead = new Bulkhead("test", 2, meterRegistry);
+
+    @Test
+    @DisplayName("Should reject work beyond the limit and count the rejection")
+    void shouldRejectOverLimit() {
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isFalse();
+
+        assertThat(bulkhead.available()).isZero();
+        assertThat(meterRegistry.get("bulkhead.active").tag("bulkhead", "test").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("bulkhead.rejected").tag("bulkhead", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should queue waiters until a slot is released")
+    void shouldQueueUntilReleased() throws Exception {
+        bulkhead.tryAcquire();
+        bulkhead.tryAcquire();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try {
+                bulkhead.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> bulkhead.queued() == 1);
+        assertThat(waiter).isNotDone();
+
+        bulkhead.release();
+
+        waiter.get(2, TimeUnit.SECONDS);
+        assertThat(bulkhead.queued()).isZero();
+        assertThat(bulkhead.active()).isEqualTo(2);
+        assertThat(meterRegistry.get("bulkhead.wait").tag("bulkhead", "test").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bulkhead.rejected").tag("bulkhead", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should publish the reported backlog as queued and count deferred claims as rejections")
+    void shouldPublishBacklog() {
+        bulkhead.updateBacklog(42);
+        bulkhead.defer();
+        bulkhead.recordWait(Duration.ofSeconds(3));
+
+        assertThat(meterRegistry.get("bulkhead.queued").tag("bulkhead", "test").gauge().value()).isEqualTo(42);
+        assertThat(meterRegistry.get("bulkhead.rejected").tag("bulkhead", "test").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bulkhead.wait").tag("bulkhead", "test").timer().totalTime(TimeUnit.SECONDS)).isEqualTo(3);
+
+        bulkhead.updateBacklog(-1);
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should apply a new limit at runtime without interrupting running work")
+    void shouldResizeAtRuntime() {
+        bulkhead.tryAcquire();
+        bulkhead.tryAcquire();
+
+        bulkhead.resize(1);
+        assertThat(bulkhead.available()).isZero();
+        bulkhead.release();
+        assertThat(bulkhead.tryAcquire()).isFalse();
+
+        bulkhead.resize(3);
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.limit()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,218 @@
+package com.nevis.search.infra;
+
+import com.nevis.search.exception.BacklogExceededException;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.exception.AuthenticationException;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.InvalidRequestException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ModelPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Chat model that answers with its own name, or throws the configured error for the first failing calls.
+     */
+    static class FakeChatModel implements ChatModel {
+
+        private final String name;
+        private final AtomicInteger failuresLeft;
+        private final Supplier<RuntimeException> failure;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FakeChatModel(String name, int failures, Supplier<RuntimeException> failure) {
+            this.name = name;
+            this.failuresLeft = new AtomicInteger(failures);
+            this.failure = failure;
+        }
+
+        static FakeChatModel healthy(String name) {
+            return new FakeChatModel(name, 0, null);
+        }
+
+        static FakeChatModel throttled(String name) {
+            return new FakeChatModel(name, Integer.MAX_VALUE, () -> new RateLimitException("429 RESOURCE_EXHAUSTED, retry in 30s"));
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            calls.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw failure.get();
+            }
+            return ChatResponse.builder().aiMessage(AiMessage.from(name)).build();
+        }
+    }
+
+    static class FakeEmbeddingModel implements EmbeddingModel {
+
+        private final float value;
+        private final boolean throttled;
+
+        FakeEmbeddingModel(float value, boolean throttled) {
+            this.value = value;
+            this.throttled = throttled;
+        }
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            if (throttled) {
+                throw new RateLimitException("429 Too Many Requests");
+            }
+            return Response.from(segments.stream().map(segment -> new Embedding(new float[]{value})).toList());
+        }
+    }
+
+    private ModelPool.Member<ChatModel> member(String name, ChatModel model) {
+        return new ModelPool.Member<>(name, model, new ReservationRateLimiter(10, Integer.MAX_VALUE, Duration.ofHours(1)));
+    }
+
+    private ModelPool<ChatModel> pool(List<ModelPool.Member<ChatModel>> members) {
+        return new ModelPool<>("chat", members, Duration.ofMinutes(30), Duration.ofSeconds(60), 2, Duration.ofMillis(1), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should dispatch to the member with the most budget left")
+    void shouldPreferMemberWithMostBudget() {
+        ModelPool.Member<ChatModel> first = member("key-1", FakeChatModel.healthy("first"));
+        ModelPool.Member<ChatModel> second = member("key-2", FakeChatModel.healthy("second"));
+        PooledChatModel model = new PooledChatModel(pool(List.of(first, second)));
+
+        for (int i = 0; i < 3; i++) {
+            first.limiter().acquire("key-1", 1);
+        }
+
+        assertThat(model.chat("hello")).isEqualTo("second");
+    }
+
+    @Test
+    @DisplayName("Should eject a throttled member and serve the call from another one")
+    void shouldFailOverOnQuotaErrors() {
+        FakeChatModel throttled = FakeChatModel.throttled("first");
+        ModelPool<ChatModel> pool = pool(List.of(member("key-1", throttled), member("key-2", FakeChatModel.healthy("second"))));
+        PooledChatModel model = new PooledChatModel(pool);
+
+        assertThat(model.chat("hello")).isEqualTo("second");
+        assertThat(model.chat("hello")).isEqualTo("second");
+
+        assertThat(pool.isEjected("key-1")).isTrue();
+        assertThat(throttled.calls).hasValue(1);
+        assertThat(meterRegistry.get("llm.pool.ejections").tag("reason", "quota").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should eject a member whose key is rejected")
+    void shouldEjectOnAuthErrors() {
+        FakeChatModel rejected = new FakeChatModel("first", 1, () -> new AuthenticationException("API_KEY_INVALID"));
+        ModelPool<ChatModel> pool = pool(List.of(member("key-1", rejected), member("key-2", FakeChatModel.healthy("second"))));
+
+        String answer = new PooledChatModel(pool).chat("hello");
+
+        assertThat(answer).isEqualTo("second");
+        assertThat(pool.isEjected("key-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should throw the last error when every member is throttled")
+    void shouldThrowWhenAllMembersThrottled() {
+        PooledChatModel model = new PooledChatModel(pool(List.of(
+            member("key-1", FakeChatModel.throttled("first")),
+            member("key-2", FakeChatModel.throttled("second")))));
+
+        assertThatThrownBy(() -> model.chat("hello")).isInstanceOf(RateLimitException.class);
+        assertThatThrownBy(() -> model.chat("hello"))
+            .isInstanceOf(RateLimitException.class)
+            .hasMessageContaining("are ejected");
+    }
+
+    @Test
+    @DisplayName("Should pass through non-retriable errors without ejecting or retrying")
+    void shouldNotEjectOnOtherErrors() {
+        FakeChatModel invalid = new FakeChatModel("first", 1, () -> new InvalidRequestException("bad request"));
+        ModelPool<ChatModel> pool = pool(List.of(member("key-1", invalid)));
+
+        assertThatThrownBy(() -> new PooledChatModel(pool).chat("hello")).isInstanceOf(InvalidRequestException.class);
+        assertThat(pool.isEjected("key-1")).isFalse();
+        assertThat(invalid.calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should retry transient errors without ejecting the member")
+    void shouldRetryTransientErrors() {
+        FakeChatModel flaky = new FakeChatModel("first", 2, () -> new InternalServerException("503 UNAVAILABLE"));
+        ModelPool<ChatModel> pool = pool(List.of(member("key-1", flaky)));
+
+        assertThat(new PooledChatModel(pool).chat("hello")).isEqualTo("first");
+        assertThat(flaky.calls).hasValue(3);
+        assertThat(pool.isEjected("key-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should give up on transient errors after max retries")
+    void shouldStopRetryingTransientErrors() {
+        FakeChatModel down = new FakeChatModel("first", Integer.MAX_VALUE, () -> new InternalServerException("500 INTERNAL"));
+        ModelPool<ChatModel> pool = pool(List.of(member("key-1", down)));
+
+        assertThatThrownBy(() -> new PooledChatModel(pool).chat("hello")).isInstanceOf(InternalServerException.class);
+        assertThat(down.calls).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should charge embedding requests with the caller's token estimate to the member's own token bucket")
+    void shouldChargeMemberTokenBucket() {
+        ModelPool.Member<EmbeddingModel> member = new ModelPool.Member<>("key-1", new FakeEmbeddingModel(1f, false),
+            new ReservationRateLimiter(10, 100, Duration.ofHours(1)));
+        ModelPool<EmbeddingModel> pool = new ModelPool<>("embedding", List.of(member),
+            Duration.ofMinutes(30), Duration.ofSeconds(60), 2, Duration.ofMillis(1), meterRegistry);
+
+        new PooledEmbeddingModel(pool, texts -> texts.getFirst().length() / 4).embedAll(List.of(TextSegment.from("a".repeat(200))));
+
+        assertThat(member.limiter().availableShare("key-1")).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Should give up with a backlog error when the member's quota is not granted before the deadline")
+    void shouldBoundInteractiveWait() {
+        FakeChatModel model = FakeChatModel.healthy("first");
+        ModelPool.Member<ChatModel> member = new ModelPool.Member<>("key-1", model,
+            new ReservationRateLimiter(1, Integer.MAX_VALUE, Duration.ofHours(1)));
+        ModelPool<ChatModel> pool = pool(List.of(member));
+        member.limiter().acquire("key-1", 1);
+
+        assertThatThrownBy(() -> pool.call(1, Priority.INTERACTIVE, Duration.ofMillis(20), chat -> chat.chat("hello")))
+            .isInstanceOfSatisfying(BacklogExceededException.class, e -> assertThat(e.isOverloaded()).isTrue());
+        assertThat(model.calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should embed through a healthy member of an embedding pool")
+    void shouldPoolEmbeddingModels() {
+        ModelPool<EmbeddingModel> pool = new ModelPool<>("embedding", List.of(
+            new ModelPool.Member<>("key-1", new FakeEmbeddingModel(1f, true), new ReservationRateLimiter(10, Integer.MAX_VALUE)),
+            new ModelPool.Member<>("key-2", new FakeEmbeddingModel(2f, false), new ReservationRateLimiter(10, Integer.MAX_VALUE))
+        ), Duration.ofMinutes(30), Duration.ofSeconds(60), 2, Duration.ofMillis(1), meterRegistry);
+
+        List<Embedding> embeddings = new PooledEmbeddingModel(pool, texts -> texts.size()).embedAll(List.of(TextSegment.from("a"), TextSegment.from("b"))).content();
+
+        assertThat(embeddings).extracting(embedding -> embedding.vector()[0]).containsExactly(2f, 2f);
+    }
+}
@@ -0,0 +1,67 @@
+package com.nevis.search.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PgBinaryCopyWriterTest {
+
+    @Test
+    @DisplayName("Should write header, rows and trailer in PostgreSQL binary COPY format")
+    void shouldWriteBinaryCopyFormat() throws Exception {
+        UUID id = UUID.randomUUID();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (PgBinaryCopyWriter writer = new PgBinaryCopyWriter(buffer)) {
+            writer.startRow(3);
+            writer.writeUuid(id);
+            writer.writeText("Grüezi");
+            writer.writeNull();
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+
+        byte[] signature = in.readNBytes(11);
+        assertThat(signature).isEqualTo(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        assertThat(in.readInt()).isZero();
+        assertThat(in.readInt()).isZero();
+
+        assertThat(in.readShort()).isEqualTo((short) 3);
+
+        assertThat(in.readInt()).isEqualTo(16);
+        assertThat(new UUID(in.readLong(), in.readLong())).isEqualTo(id);
+
+        byte[] text = "Grüezi".getBytes(StandardCharsets.UTF_8);
+        assertThat(in.readInt()).isEqualTo(text.length);
+        assertThat(in.readNBytes(text.length)).isEqualTo(text);
+
+        assertThat(in.readInt()).isEqualTo(-1);
+
+        assertThat(in.readShort()).isEqualTo((short) -1);
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should write a smallint as a two-byte field")
+    void shouldWriteSmallint() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (PgBinaryCopyWriter writer = new PgBinaryCopyWriter(buffer)) {
+            writer.startRow(1);
+            writer.writeSmallint(10);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        in.skipNBytes(19);
+        assertThat(in.readShort()).isEqualTo((short) 1);
+        assertThat(in.readInt()).isEqualTo(2);
+        assertThat(in.readShort()).isEqualTo((short) 10);
+    }
+}
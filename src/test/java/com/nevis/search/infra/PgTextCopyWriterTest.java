@@ -0,0 +1,28 @@
+package com.nevis.search.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PgTextCopyWriterTest {
+
+    @Test
+    @DisplayName("Should escape separators and write rows in PostgreSQL text COPY format")
+    void shouldWriteTextCopyFormat() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (PgTextCopyWriter writer = new PgTextCopyWriter(buffer)) {
+            writer.writeText(new StringReader("Grüezi\tline\r\nC:\\path"));
+            writer.writeText("hash");
+            writer.writeNull();
+            writer.endRow();
+        }
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("Grüezi\\tline\\r\\nC:\\\\path\thash\t\\N\n");
+    }
+}
@@ -0,0 +1,133 @@
+package com.nevis.search.infra;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationRateLimiterTest {
+
+    private ReservationRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ReservationRateLimiter(2, 100, Duration.ofMillis(400));
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.close();
+    }
+
+    @Test
+    @DisplayName("Should grant reservations within the limit immediately and defer the rest without blocking")
+    void shouldDeferReservationsOverLimit() throws Exception {
+        CompletableFuture<Void> first = limiter.reserve("key", 1, Priority.BACKGROUND);
+        CompletableFuture<Void> second = limiter.reserve("key", 1, Priority.BACKGROUND);
+        CompletableFuture<Void> third = limiter.reserve("key", 1, Priority.BACKGROUND);
+
+        assertThat(first).isDone();
+        assertThat(second).isDone();
+        assertThat(third).isNotDone();
+
+        third.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should defer reservations that exceed the token budget")
+    void shouldEnforceTokenLimit() {
+        limiter.reserve("key", 100, Priority.BACKGROUND);
+
+        assertThat(limiter.reserve("key", 1, Priority.BACKGROUND)).isNotDone();
+    }
+
+    @Test
+    @DisplayName("Should serve waiting interactive reservations before earlier background ones")
+    void shouldPreferInteractiveReservations() throws Exception {
+        limiter.reserve("key", 1, Priority.BACKGROUND);
+        limiter.reserve("key", 1, Priority.BACKGROUND);
+
+        List<Priority> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> background = limiter.reserve("key", 1, Priority.BACKGROUND)
+            .thenRun(() -> order.add(Priority.BACKGROUND));
+        CompletableFuture<Void> interactive = limiter.reserve("key", 1, Priority.INTERACTIVE)
+            .thenRun(() -> order.add(Priority.INTERACTIVE));
+
+        CompletableFuture.allOf(background, interactive).get(3, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly(Priority.INTERACTIVE, Priority.BACKGROUND);
+    }
+
+    @Test
+    @DisplayName("Should reschedule the drain when a reservation can be granted sooner than the pending one")
+    void shouldRescheduleForEarlierDeadline() throws Exception {
+        ReservationRateLimiter slow = new ReservationRateLimiter(100, 100, Duration.ofSeconds(10));
+        try {
+            slow.reserve("key", 100, Priority.BACKGROUND);
+            CompletableFuture<Void> background = slow.reserve("key", 100, Priority.BACKGROUND);
+            CompletableFuture<Void> interactive = slow.reserve("key", 1, Priority.INTERACTIVE);
+
+            interactive.get(2, TimeUnit.SECONDS);
+            assertThat(background).isNotDone();
+        } finally {
+            slow.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop cancelled reservations without consuming quota")
+    void shouldSkipCancelledReservations() {
+        ReservationRateLimiter slow = new ReservationRateLimiter(100, 100, Duration.ofHours(1));
+        try {
+            slow.reserve("key", 60, Priority.BACKGROUND);
+            CompletableFuture<Void> abandoned = slow.reserve("key", 60, Priority.INTERACTIVE);
+            CompletableFuture<Void> blocked = slow.reserve("key", 30, Priority.BACKGROUND);
+            assertThat(blocked).isNotDone();
+
+            abandoned.cancel(false);
+            CompletableFuture<Void> next = slow.reserve("key", 10, Priority.BACKGROUND);
+
+            assertThat(blocked).isDone();
+            assertThat(next).isDone();
+            assertThat(slow.reserve("key", 1, Priority.BACKGROUND)).isNotDone();
+        } finally {
+            slow.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep separate budgets per key")
+    void shouldIsolateKeys() {
+        limiter.reserve("a", 1, Priority.BACKGROUND);
+        limiter.reserve("a", 1, Priority.BACKGROUND);
+
+        assertThat(limiter.reserve("b", 1, Priority.BACKGROUND)).isDone();
+    }
+
+    @Test
+    @DisplayName("Should return over-reserved tokens and charge under-reserved ones")
+    void shouldReconcileTokens() {
+        ReservationRateLimiter slow = new ReservationRateLimiter(100, 100, Duration.ofHours(1));
+        try {
+            slow.reserve("key", 80, Priority.BACKGROUND);
+            CompletableFuture<Void> waiting = slow.reserve("key", 50, Priority.BACKGROUND);
+            assertThat(waiting).isNotDone();
+
+            slow.reconcile("key", 80, 40);
+            assertThat(waiting).isDone();
+
+            slow.reconcile("key", 10, 20);
+            assertThat(slow.reserve("key", 1, Priority.BACKGROUND)).isNotDone();
+        } finally {
+            slow.close();
+        }
+    }
+}
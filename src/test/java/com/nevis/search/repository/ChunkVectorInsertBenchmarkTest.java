@@ -0,0 +1,166 @@
+package com.nevis.search.repository;
+
+import com.pgvector.PGvector;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the batched {@link DocumentChunkRepository#insertChunkVectors} against one INSERT per
+ * term vector on the pgvector container. Both paths are warmed up first and then measured in
+ * alternating order, so neither gets the cold JVM and connection pool.
+ * Run with {@code mvn test -Dtest=ChunkVectorInsertBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ChunkVectorInsertBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int VECTOR_SIZE = 768;
+    private static final int CHUNKS = 50;
+    private static final int TERMS_PER_CHUNK = 25;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Autowired
+    private DocumentChunkRepository chunkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    private UUID docId;
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM clients").update();
+
+        UUID clientId = UUID.randomUUID();
+        docId = UUID.randomUUID();
+        jdbcClient.sql("INSERT INTO clients (id, first_name, last_name, email) VALUES (?, 'Bench', 'Mark', 'bench@test.com')")
+            .param(clientId).update();
+        jdbcClient.sql("INSERT INTO documents (id, client_id, title, content) VALUES (?, ?, 'Bench', 'Content')")
+            .params(docId, clientId).update();
+    }
+
+    @Test
+    @DisplayName("Benchmark: batched term vector inserts beat per-row inserts after warmup")
+    void compareBatchedAndPerRowInserts() {
+        List<Map<String, float[]>> payloads = new ArrayList<>();
+        for (int i = 0; i < CHUNKS; i++) {
+            payloads.add(randomTerms());
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runPerRow(payloads);
+            runBatched(payloads);
+        }
+
+        long[] perRowNanos = new long[MEASURED_ROUNDS];
+        long[] batchedNanos = new long[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            if (round % 2 == 0) {
+                perRowNanos[round] = runPerRow(payloads);
+                batchedNanos[round] = runBatched(payloads);
+            } else {
+                batchedNanos[round] = runBatched(payloads);
+                perRowNanos[round] = runPerRow(payloads);
+            }
+        }
+
+        long perRowMs = median(perRowNanos) / 1_000_000;
+        long batchedMs = median(batchedNanos) / 1_000_000;
+        log.info("Inserted {} vectors per round: per-row median {} ms, batched median {} ms",
+            CHUNKS * TERMS_PER_CHUNK, perRowMs, batchedMs);
+
+        assertThat(batchedMs).isLessThan(perRowMs);
+    }
+
+    private long runPerRow(List<Map<String, float[]>> payloads) {
+        List<UUID> chunkIds = insertChunks(payloads.size());
+        long start = System.nanoTime();
+        for (int i = 0; i < payloads.size(); i++) {
+            UUID chunkId = chunkIds.get(i);
+            payloads.get(i).forEach((term, vector) -> insertOneVector(chunkId, term, vector));
+        }
+        long elapsed = System.nanoTime() - start;
+        verifyAndClear(payloads.size());
+        return elapsed;
+    }
+
+    private long runBatched(List<Map<String, float[]>> payloads) {
+        List<UUID> chunkIds = insertChunks(payloads.size());
+        long start = System.nanoTime();
+        for (int i = 0; i < payloads.size(); i++) {
+            chunkRepository.insertChunkVectors(docId, chunkIds.get(i), payloads.get(i));
+        }
+        long elapsed = System.nanoTime() - start;
+        verifyAndClear(payloads.size());
+        return elapsed;
+    }
+
+    /** The per-row path the batch replaced, kept here as the baseline. */
+    private void insertOneVector(UUID chunkId, String term, float[] vector) {
+        jdbcTemplate.update("INSERT INTO document_chunk_embeddings (document_id, chunk_id, content, embedding) VALUES (?, ?, ?, ?)",
+            docId, chunkId, term, new PGvector(vector));
+    }
+
+    private void verifyAndClear(int chunks) {
+        Integer total = jdbcClient.sql("SELECT COUNT(*) FROM document_chunk_embeddings WHERE document_id = ?")
+            .param(docId)
+            .query(Integer.class)
+            .single();
+        assertThat(total).isEqualTo(chunks * TERMS_PER_CHUNK);
+        jdbcClient.sql("DELETE FROM document_chunks WHERE document_id = ?").param(docId).update();
+    }
+
+    private List<UUID> insertChunks(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(jdbcClient.sql("INSERT INTO document_chunks (document_id, content) VALUES (?, ?) RETURNING id")
+                .params(docId, "chunk " + i)
+                .query(UUID.class)
+                .single());
+        }
+        return ids;
+    }
+
+    private Map<String, float[]> randomTerms() {
+        Map<String, float[]> terms = new HashMap<>();
+        for (int t = 0; t < TERMS_PER_CHUNK; t++) {
+            float[] vector = new float[VECTOR_SIZE];
+            for (int d = 0; d < VECTOR_SIZE; d++) {
+                vector[d] = random.nextFloat();
+            }
+            terms.put("term " + t, vector);
+        }
+        return terms;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,6 +27,16 @@ class JdbcClientRepositoryTest extends BaseIntegrationTest {
 	@Autowired
 	private JdbcClient jdbcClient;
 
+	@Test
+	@DisplayName("Should return only the ids of clients that exist")
+	void shouldFindExistingIds() {
+		Client saved = repository.save(new Client(null, "Bulk", "Owner", "bulk.owner@example.com", null, List.of(), null, null));
+		UUID missing = UUID.randomUUID();
+
+		assertThat(repository.findExistingIds(List.of(saved.id(), missing))).containsExactly(saved.id());
+		assertThat(repository.findExistingIds(List.of())).isEmpty();
+	}
+
 	@Test
 	@DisplayName("Happy Path: Save and find client")
 	void shouldSaveAndFindClient() {
@@ -1,10 +1,13 @@
 package com.nevis.search.repository;
 
 import com.nevis.search.exception.EntityNotFoundException;
+import com.nevis.search.infra.Backoff;
+import com.nevis.search.infra.ContentHash;
 import com.nevis.search.model.Client;
 import com.nevis.search.model.Document;
 import com.nevis.search.model.DocumentChunk;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.WorkItem;
 import com.nevis.search.controller.DocumentSearchResultItem;
 import dev.langchain4j.data.segment.TextSegment;
 import lombok.SneakyThrows;
@@ -18,11 +21,15 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StreamUtils;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -34,6 +41,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = "app.provisional-embeddings.enabled=false")
 class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
 
     @Autowired
@@ -61,7 +69,7 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
     void shouldFailWithNonExistentClientId() {
         Document orphan = new Document(
             null, UUID.randomUUID(), "Title", "Content", null,
-            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null
+            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null
         );
         assertThrows(DataIntegrityViolationException.class, () -> documentRepository.save(orphan));
     }
@@ -72,7 +80,7 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         Client owner = clientRepository.save(new Client(null, "Time", "Test", "time@test.com", null, List.of(), null, null));
         Document doc = documentRepository.save(new Document(
             null, owner.id(), "Initial", "Content", null,
-            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null
+            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null
         ));
 
         OffsetDateTime created = doc.updatedAt();
@@ -100,6 +108,8 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
                 rs.getString("summary_error_message"),
                 rs.getInt("summary_attempts"),
                 DocumentTaskStatus.valueOf(rs.getString("status")),
+                0,
+                0,
                 null,
                 null))
             .single();
@@ -115,7 +125,7 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         Client owner = clientRepository.save(new Client(null, "Time", "Test", "time@test2.com", null, List.of(), null, null));
         Document doc = documentRepository.save(new Document(
             null, owner.id(), "Initial", "Content", null,
-            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null
+            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null
         ));
 
         List<TextSegment> segments = List.of(
@@ -140,6 +150,72 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
             );
     }
 
+    @Test
+    @DisplayName("Chunks: insert above the copy threshold with binary COPY")
+    void shouldCopyChunksAboveThreshold() {
+        Object target = AopTestUtils.getUltimateTargetObject(chunkRepository);
+        ReflectionTestUtils.setField(target, "copyThreshold", 2);
+        try {
+            Client owner = clientRepository.save(new Client(null, "Copy", "Test", "copy@test.com", null, List.of(), null, null));
+            Document doc = documentRepository.save(new Document(
+                null, owner.id(), "Copied", "Content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null
+            ));
+
+            List<TextSegment> segments = List.of(
+                TextSegment.from("Chunk content one"),
+                TextSegment.from("Zürich – Grüezi 你好"),
+                TextSegment.from("Chunk content three")
+            );
+
+            chunkRepository.saveChunks(doc.id(), segments);
+
+            List<DocumentChunk> chunks = chunkRepository.claimReadyChunks(10, 5).stream()
+                .filter(chunk -> chunk.documentId().equals(doc.id()))
+                .toList();
+
+            assertThat(chunks)
+                .extracting(DocumentChunk::content)
+                .containsExactlyInAnyOrder("Chunk content one", "Zürich – Grüezi 你好", "Chunk content three");
+            assertThat(chunks)
+                .allSatisfy(chunk -> assertThat(chunk.contentHash()).isEqualTo(ContentHash.sha256(chunk.content())));
+
+            assertThatThrownBy(() -> chunkRepository.saveChunks(UUID.randomUUID(), segments))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        } finally {
+            ReflectionTestUtils.setField(target, "copyThreshold", 200);
+        }
+    }
+
+    @Test
+    @DisplayName("Chunks: copy chunks of several documents in one call")
+    void shouldCopyChunksForSeveralDocuments() {
+        Client owner = clientRepository.save(new Client(null, "Bulk", "Test", "bulk@test.com", null, List.of(), null, null));
+        Document first = documentRepository.save(new Document(
+            null, owner.id(), "First", "Content", null,
+            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null
+        ));
+        Document second = documentRepository.save(new Document(
+            null, owner.id(), "Second", "Content", null,
+            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null
+        ));
+
+        chunkRepository.saveChunks(Map.of(
+            first.id(), List.of(TextSegment.from("First A"), TextSegment.from("First B")),
+            second.id(), List.of(TextSegment.from("Second A"))
+        ), WorkItem.DEFAULT_PRIORITY);
+
+        assertThat(documentRepository.findById(first.id()).orElseThrow())
+            .extracting(Document::totalChunks, Document::pendingChunks)
+            .containsExactly(2, 2);
+        assertThat(documentRepository.findById(second.id()).orElseThrow())
+            .extracting(Document::totalChunks, Document::pendingChunks)
+            .containsExactly(1, 1);
+        assertThat(documentRepository.findById(second.id()).orElseThrow())
+            .extracting(Document::totalChunks, Document::pendingChunks)
+            .containsExactly(1, 1);
+    }
+
     @Test
     @DisplayName("Chunks: handle empty")
     void shouldHandleEmptySegmentsList() {
@@ -241,6 +317,67 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
             assertThat(embeddingResult.get("embedding")).isNotNull();
         }
 
+        @Test
+        @DisplayName("Should insert all vectors of a chunk in one batch")
+        void shouldInsertChunkVectorsInBatch() {
+            Client client = clientRepository.save(new Client(null, "Name4", "Last4", "def@test6.com", null, List.of(), null, null));
+            UUID docId = UUID.randomUUID();
+            insertTestDocument(docId, client.id());
+            UUID chunkId = insertChunk(docId, "Batch content", "PROCESSING", 0);
+
+            float[] vector = new float[768];
+            vector[0] = 0.4f;
+            Map<String, float[]> vectors = Map.of("kyc", vector, "aml", vector, "tax residency", vector);
+
+            chunkRepository.insertChunkVectors(docId, chunkId, vectors);
+
+            List<String> terms = jdbcClient.sql("SELECT content FROM document_chunk_embeddings WHERE chunk_id = ? AND embedding IS NOT NULL")
+                .param(chunkId)
+                .query(String.class)
+                .list();
+
+            assertThat(terms).containsExactlyInAnyOrder("kyc", "aml", "tax residency");
+        }
+
+        @Test
+        @DisplayName("Should find a READY chunk by content hash and copy its vectors")
+        void shouldCopyVectorsFromChunkWithSameContent() {
+            Client client = clientRepository.save(new Client(null, "Name3", "Last3", "def@test5.com", null, List.of(), null, null));
+            UUID sourceDocId = UUID.randomUUID();
+            UUID targetDocId = UUID.randomUUID();
+            insertTestDocument(sourceDocId, client.id());
+            insertTestDocument(targetDocId, client.id());
+
+            chunkRepository.saveChunks(sourceDocId, List.of(TextSegment.from("Standard disclaimer")));
+            chunkRepository.saveChunks(targetDocId, List.of(TextSegment.from("Standard disclaimer")));
+
+            UUID sourceChunkId = jdbcClient.sql("SELECT id FROM document_chunks WHERE document_id = ?")
+                .param(sourceDocId).query(UUID.class).single();
+            UUID targetChunkId = jdbcClient.sql("SELECT id FROM document_chunks WHERE document_id = ?")
+                .param(targetDocId).query(UUID.class).single();
+
+            String hash = ContentHash.sha256("Standard disclaimer");
+            assertThat(chunkRepository.findReadyChunkIdByContentHash(hash)).isEmpty();
+
+            float[] vector = new float[768];
+            vector[0] = 0.3f;
+            chunkRepository.insertChunkVector(sourceDocId, sourceChunkId, "disclaimer", vector);
+            chunkRepository.insertChunkVector(sourceDocId, sourceChunkId, "liability", vector);
+            chunkRepository.updateStatus(sourceChunkId, DocumentTaskStatus.READY);
+
+            assertThat(chunkRepository.findReadyChunkIdByContentHash(hash)).contains(sourceChunkId);
+
+            int copied = chunkRepository.copyChunkVectors(sourceChunkId, targetDocId, targetChunkId);
+
+            List<String> terms = jdbcClient.sql("SELECT content FROM document_chunk_embeddings WHERE chunk_id = ? AND document_id = ?")
+                .params(targetChunkId, targetDocId)
+                .query(String.class)
+                .list();
+
+            assertThat(copied).isEqualTo(2);
+            assertThat(terms).containsExactlyInAnyOrder("disclaimer", "liability");
+        }
+
     }
 
     @Nested
@@ -356,36 +493,71 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         }
 
         @Test
-        @DisplayName("Should return true if all chunks are in READY status")
-        void shouldReturnTrueWhenAllChunksReady() {
-            insertChunk(docId, DocumentTaskStatus.READY);
-            insertChunk(docId, DocumentTaskStatus.READY);
-            boolean result = chunkRepository.areAllChunksProcessed(docId);
-            assertThat(result).isTrue();
+        @DisplayName("Should decrement the pending counter without completing the document while chunks remain")
+        void markReady_ChunksRemaining_KeepsDocumentProcessing() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two")));
+            UUID chunkId = chunkIds(docId).getFirst();
+
+            Optional<Integer> pending = chunkRepository.markReady(chunkId);
+
+            assertThat(pending).contains(1);
+            assertThat(documentStatus(docId)).isEqualTo("PROCESSING");
         }
 
         @Test
-        @DisplayName("Should return false if at least one chunk is PENDING")
-        void shouldReturnFalseWhenChunksArePending() {
-            insertChunk(docId, DocumentTaskStatus.READY);
-            insertChunk(docId, DocumentTaskStatus.PENDING);
-            boolean result = chunkRepository.areAllChunksProcessed(docId);
-            assertThat(result).isFalse();
+        @DisplayName("Should flip the document to READY when the last chunk is marked ready")
+        void markReady_LastChunk_CompletesDocument() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two")));
+            List<UUID> chunkIds = chunkIds(docId);
+
+            chunkRepository.markReady(chunkIds.get(0));
+            Optional<Integer> pending = chunkRepository.markReady(chunkIds.get(1));
+
+            assertThat(pending).contains(0);
+            assertThat(documentStatus(docId)).isEqualTo("READY");
+            assertThat(documentRepository.findById(docId).orElseThrow())
+                .extracting(Document::totalChunks, Document::pendingChunks)
+                .containsExactly(2, 0);
         }
 
         @Test
-        @DisplayName("Should return false if a chunk has FAILED")
-        void shouldReturnFalseWhenChunksHaveFailed() {
-            insertChunk(docId, DocumentTaskStatus.FAILED);
-            boolean result = chunkRepository.areAllChunksProcessed(docId);
-            assertThat(result).isFalse();
+        @DisplayName("Should not decrement twice when the same chunk is marked ready again")
+        void markReady_AlreadyReady_IsNoOp() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two")));
+            UUID chunkId = chunkIds(docId).getFirst();
+
+            chunkRepository.markReady(chunkId);
+            Optional<Integer> again = chunkRepository.markReady(chunkId);
+
+            assertThat(again).isEmpty();
+            assertThat(documentRepository.findById(docId).orElseThrow().pendingChunks()).isEqualTo(1);
+            assertThat(documentStatus(docId)).isEqualTo("PROCESSING");
         }
 
         @Test
-        @DisplayName("Should return true if no chunks exist (edge case)")
-        void shouldReturnTrueIfNoChunksExist() {
-            boolean result = chunkRepository.areAllChunksProcessed(docId);
-            assertThat(result).isTrue();
+        @DisplayName("Should return stored chunk summaries in chunk order")
+        void updateChunkSummary_ThenFindInOrder() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two"), TextSegment.from("Three")));
+            List<UUID> chunkIds = chunkIds(docId);
+
+            chunkRepository.updateChunkSummary(chunkIds.get(2), "Third");
+            chunkRepository.updateChunkSummary(chunkIds.get(0), "First");
+
+            assertThat(chunkRepository.findChunkSummaries(docId)).containsExactly("First", "Third");
+        }
+
+        private List<UUID> chunkIds(UUID documentId) {
+            return jdbcClient.sql("SELECT id FROM document_chunks WHERE document_id = ? ORDER BY created_at, id")
+                .params(documentId)
+                .query(UUID.class)
+                .list();
+        }
+
+        private String documentStatus(UUID documentId) {
+            return jdbcClient.sql("SELECT status FROM documents WHERE id = ?")
+                .params(documentId)
+                .query(String.class)
+                .single();
         }
 
         private void insertChunk(UUID documentId, DocumentTaskStatus status) {
@@ -395,31 +567,102 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         }
 
         @Test
-        @DisplayName("Should claim only one pending chunk and change its status")
-        void shouldClaimOneChunk() {
+        @DisplayName("Should claim a batch of pending chunks in one statement")
+        void shouldClaimBatchOfChunks() {
             insertChunk(docId, DocumentTaskStatus.PENDING);
             insertChunk(docId, DocumentTaskStatus.PENDING);
+            insertChunk(docId, DocumentTaskStatus.PENDING);
+            insertChunk(docId, DocumentTaskStatus.READY);
 
-            Optional<DocumentChunk> claimed = chunkRepository.claimNextPendingChunk(docId, 5);
+            List<DocumentChunk> claimed = chunkRepository.claimReadyChunks(2, 5);
 
-            assertThat(claimed).isPresent();
-            assertThat(claimed.get().status()).isEqualTo(DocumentTaskStatus.PROCESSING);
+            assertThat(claimed).hasSize(2);
+            assertThat(claimed).allMatch(chunk -> chunk.status() == DocumentTaskStatus.PROCESSING);
 
-            int remaining = jdbcClient.sql("SELECT count(*) FROM document_chunks WHERE status = 'PENDING'")
-                .query(Integer.class).single();
-            assertThat(remaining).isEqualTo(1);
+            List<DocumentChunk> rest = chunkRepository.claimReadyChunks(2, 5);
+            assertThat(rest).hasSize(1);
+            assertThat(chunkRepository.claimReadyChunks(2, 5)).isEmpty();
         }
 
         @Test
-        @DisplayName("Should count pending chunks correctly")
-        void shouldCountPendingChunks() {
+        @DisplayName("Should not claim chunks that reached max attempts")
+        void shouldNotClaimExhaustedChunks() {
+            jdbcClient.sql("INSERT INTO document_chunks (document_id, content, status, attempts) VALUES (?, 'Content', 'PENDING', 5)")
+                .params(docId)
+                .update();
+
+            assertThat(chunkRepository.claimReadyChunks(10, 5)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should claim ready chunks round-robin across documents")
+        void shouldClaimAcrossDocuments() {
+            UUID otherDocId = UUID.randomUUID();
+            jdbcClient.sql("INSERT INTO documents (id, client_id, title, content, status) SELECT ?, client_id, 'Other', 'Content', 'PROCESSING'::task_status FROM documents WHERE id = ?")
+                .params(otherDocId, docId).update();
             insertChunk(docId, DocumentTaskStatus.PENDING);
             insertChunk(docId, DocumentTaskStatus.PENDING);
-            insertChunk(docId, DocumentTaskStatus.READY);
+            insertChunk(docId, DocumentTaskStatus.PENDING);
+            insertChunk(otherDocId, DocumentTaskStatus.PENDING);
+
+            List<DocumentChunk> claimed = chunkRepository.claimReadyChunks(2, 5);
 
-            int count = chunkRepository.countPendingByDocumentId(docId);
+            assertThat(claimed).extracting(DocumentChunk::documentId).containsExactlyInAnyOrder(docId, otherDocId);
+            assertThat(claimed).allMatch(chunk -> chunk.status() == DocumentTaskStatus.PROCESSING);
+            assertThat(chunkRepository.claimReadyChunks(10, 5)).hasSize(2);
+            assertThat(chunkRepository.claimReadyChunks(10, 5)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should skip documents whose pending chunks are exhausted or backing off")
+        void shouldSkipDocumentsWithoutClaimableChunks() {
+            UUID exhaustedDocId = UUID.randomUUID();
+            UUID backingOffDocId = UUID.randomUUID();
+            for (UUID id : List.of(exhaustedDocId, backingOffDocId)) {
+                jdbcClient.sql("INSERT INTO documents (id, client_id, title, content, status) SELECT ?, client_id, 'Other', 'Content', 'PROCESSING'::task_status FROM documents WHERE id = ?")
+                    .params(id, docId).update();
+            }
+            jdbcClient.sql("INSERT INTO document_chunks (document_id, content, status, attempts) VALUES (?, 'Content', 'PENDING', 5)")
+                .params(exhaustedDocId).update();
+            jdbcClient.sql("INSERT INTO document_chunks (document_id, content, status, next_attempt_at) VALUES (?, 'Content', 'PENDING', NOW() + INTERVAL '1 hour')")
+                .params(backingOffDocId).update();
+            insertChunk(docId, DocumentTaskStatus.PENDING);
+
+            assertThat(chunkRepository.claimReadyChunks(1, 5))
+                .singleElement()
+                .extracting(DocumentChunk::documentId)
+                .isEqualTo(docId);
+        }
+
+        @Test
+        @DisplayName("Should claim interactive chunks before bulk-loaded ones and fill the rest with bulk chunks")
+        void shouldPreferInteractiveChunks() {
+            UUID bulkDocId = UUID.randomUUID();
+            jdbcClient.sql("INSERT INTO documents (id, client_id, title, content, status) SELECT ?, client_id, 'Bulk', 'Content', 'PROCESSING'::task_status FROM documents WHERE id = ?")
+                .params(bulkDocId, docId).update();
+            chunkRepository.saveChunks(Map.of(bulkDocId, List.of(TextSegment.from("Bulk A"), TextSegment.from("Bulk B"))), WorkItem.BACKGROUND_PRIORITY);
+            insertChunk(docId, DocumentTaskStatus.PENDING);
+
+            assertThat(chunkRepository.claimReadyChunks(1, 5))
+                .singleElement()
+                .extracting(DocumentChunk::documentId)
+                .isEqualTo(docId);
+            assertThat(chunkRepository.claimReadyChunks(10, 5))
+                .extracting(DocumentChunk::documentId)
+                .containsExactly(bulkDocId, bulkDocId);
+        }
+
+        @Test
+        @DisplayName("Should count claimable and in-flight chunks across all documents")
+        void shouldCountUnprocessedChunks() {
+            insertChunk(docId, DocumentTaskStatus.PENDING);
+            insertChunk(docId, DocumentTaskStatus.PROCESSING);
+            insertChunk(docId, DocumentTaskStatus.READY);
+            insertChunk(docId, DocumentTaskStatus.FAILED);
+            jdbcClient.sql("INSERT INTO document_chunks (document_id, content, status, attempts) VALUES (?, 'Content', 'PENDING', 5)")
+                .params(docId).update();
 
-            assertThat(count).isEqualTo(2);
+            assertThat(chunkRepository.countUnprocessed(5)).isEqualTo(2);
         }
 
         @Test
@@ -434,7 +677,7 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
 
             CompletableFuture<Optional<DocumentChunk>> thread1Claim = CompletableFuture.supplyAsync(() ->
                 transactionTemplate.execute(status -> {
-                    Optional<DocumentChunk> claim = chunkRepository.claimNextPendingChunk(docId, 5);
+                    Optional<DocumentChunk> claim = chunkRepository.claimReadyChunks(1, 5).stream().findFirst();
                     latch.countDown();
                     try {
                         Thread.sleep(1000);
@@ -445,7 +688,7 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
             );
 
             latch.await();
-            Optional<DocumentChunk> thread2Claim = chunkRepository.claimNextPendingChunk(docId, 5);
+            Optional<DocumentChunk> thread2Claim = chunkRepository.claimReadyChunks(1, 5).stream().findFirst();
 
             assertThat(thread1Claim.get()).isPresent();
             assertThat(thread2Claim).isPresent();
@@ -666,6 +909,8 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
     @DisplayName("Maintenance: resetStaleAndFailedChunks")
     class MaintenanceResetTest {
 
+        private static final Backoff BACKOFF = new Backoff(Duration.ofMinutes(1), Duration.ofMinutes(30));
+
         private UUID docId;
 
         @BeforeEach
@@ -688,24 +933,61 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         void shouldRecoverFailedChunks() {
             UUID chunkId = insertChunkAtState(docId, DocumentTaskStatus.FAILED, 0, OffsetDateTime.now());
 
-            List<UUID> affectedDocs = chunkRepository.resetStaleAndFailedChunks(5, 5);
+            int recovered = chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 100);
 
-            assertThat(affectedDocs).containsExactly(docId);
+            assertThat(recovered).isEqualTo(1);
 
             var updated = getChunkRaw(chunkId);
             assertThat(updated.get("status")).isEqualTo("PENDING");
             assertThat(updated.get("attempts")).isEqualTo(1);
         }
 
+        @Test
+        @DisplayName("Should schedule the next attempt with jittered exponential backoff and hold it back until due")
+        void shouldBackOffRecoveredChunks() {
+            UUID firstRetry = insertChunkAtState(docId, DocumentTaskStatus.FAILED, 0, OffsetDateTime.now());
+            UUID thirdRetry = insertChunkAtState(docId, DocumentTaskStatus.FAILED, 2, OffsetDateTime.now());
+
+            chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 100);
+
+            assertThat(delaySeconds(firstRetry)).isBetween(29.0, 61.0);
+            assertThat(delaySeconds(thirdRetry)).isBetween(119.0, 241.0);
+            assertThat(chunkRepository.claimReadyChunks(10, 5)).isEmpty();
+
+            jdbcClient.sql("UPDATE document_chunks SET next_attempt_at = NOW() - INTERVAL '1 second' WHERE id = ?")
+                .param(firstRetry).update();
+            assertThat(chunkRepository.claimReadyChunks(10, 5))
+                .extracting(DocumentChunk::id)
+                .containsExactly(firstRetry);
+        }
+
+        @Test
+        @DisplayName("Should reset at most the given number of chunks per pass")
+        void shouldCapResetsPerPass() {
+            insertChunkAtState(docId, DocumentTaskStatus.FAILED, 0, OffsetDateTime.now());
+            insertChunkAtState(docId, DocumentTaskStatus.FAILED, 0, OffsetDateTime.now());
+            insertChunkAtState(docId, DocumentTaskStatus.FAILED, 0, OffsetDateTime.now());
+
+            assertThat(chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 2)).isEqualTo(2);
+            assertThat(chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 2)).isEqualTo(1);
+        }
+
+        private double delaySeconds(UUID chunkId) {
+            return jdbcClient.sql("SELECT EXTRACT(EPOCH FROM next_attempt_at - NOW()) FROM document_chunks WHERE id = ?")
+                .param(chunkId)
+                .query(Double.class)
+                .single();
+        }
+
         @Test
         @DisplayName("Should recover PROCESSING chunks older than threshold")
         void shouldRecoverStaleProcessingChunks() {
             OffsetDateTime staleTime = OffsetDateTime.now().minusMinutes(10);
             UUID chunkId = insertChunkAtState(docId, DocumentTaskStatus.PROCESSING, 0, staleTime);
 
-            List<UUID> affectedDocs = chunkRepository.resetStaleAndFailedChunks(5, 5);
+            int recovered = chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 100);
 
-            assertThat(affectedDocs).containsExactly(docId);
+            assertThat(recovered).isEqualTo(1);
 
             var updated = getChunkRaw(chunkId);
             assertThat(updated.get("status")).isEqualTo("PENDING");
@@ -716,9 +998,9 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         void shouldNotRecoverRecentProcessingChunks() {
             UUID chunkId = insertChunkAtState(docId, DocumentTaskStatus.PROCESSING, 0, OffsetDateTime.now());
 
-            List<UUID> affectedDocs = chunkRepository.resetStaleAndFailedChunks(5, 5);
+            int recovered = chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 100);
 
-            assertThat(affectedDocs).isEmpty();
+            assertThat(recovered).isZero();
 
             var updated = getChunkRaw(chunkId);
             assertThat(updated.get("status")).isEqualTo("PROCESSING");
@@ -730,9 +1012,9 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         void shouldIgnoreDeadLetterChunks() {
             UUID chunkId = insertChunkAtState(docId, DocumentTaskStatus.FAILED, 5, OffsetDateTime.now());
 
-            List<UUID> affectedDocs = chunkRepository.resetStaleAndFailedChunks(5, 5);
+            int recovered = chunkRepository.resetStaleAndFailedChunks(5, 5, BACKOFF, 100);
 
-            assertThat(affectedDocs).isEmpty();
+            assertThat(recovered).isZero();
 
             var updated = getChunkRaw(chunkId);
             assertThat(updated.get("status")).isEqualTo("FAILED");
@@ -758,5 +1040,89 @@ class JdbcDocumentChunkRepositoryTest extends BaseIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Provisional embeddings")
+    class ProvisionalEmbeddingTest {
+
+        private UUID docId;
+
+        @BeforeEach
+        void setUp() {
+            jdbcClient.sql("delete from clients").update();
+            jdbcClient.sql("delete from documents").update();
+            jdbcClient.sql("delete from document_chunks").update();
+
+            UUID clientId = UUID.randomUUID();
+            jdbcClient.sql("INSERT INTO clients (id, first_name, last_name, email) VALUES (?, 'Test', 'User', 'test@test.com')")
+                .params(clientId).update();
+
+            docId = UUID.randomUUID();
+            jdbcClient.sql("INSERT INTO documents (id, client_id, title, content, status) VALUES (?, ?, 'Doc', 'Content', 'PROCESSING'::task_status)")
+                .params(docId, clientId).update();
+        }
+
+        @Test
+        @DisplayName("Should claim each new chunk only once")
+        void claimForProvisionalEmbedding_ClaimsOnce() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two")));
+
+            List<DocumentChunk> first = chunkRepository.claimForProvisionalEmbedding(10);
+            List<DocumentChunk> second = chunkRepository.claimForProvisionalEmbedding(10);
+
+            assertThat(first).extracting(DocumentChunk::content).containsExactlyInAnyOrder("One", "Two");
+            assertThat(second).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should claim released chunks again on the next poll")
+        void releaseProvisionalClaims_MakesChunksClaimableAgain() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two")));
+            List<DocumentChunk> first = chunkRepository.claimForProvisionalEmbedding(10);
+
+            chunkRepository.releaseProvisionalClaims(List.of(first.getFirst().id()));
+
+            assertThat(chunkRepository.claimForProvisionalEmbedding(10))
+                .extracting(DocumentChunk::id)
+                .containsExactly(first.getFirst().id());
+        }
 
-}
\ No newline at end of file
+        @Test
+        @DisplayName("Should store provisional vectors only for chunks that are not ready yet")
+        void insertProvisionalVectors_SkipsReadyChunks() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One"), TextSegment.from("Two")));
+            List<DocumentChunk> chunks = chunkRepository.claimForProvisionalEmbedding(10);
+            chunkRepository.markReady(chunks.get(1).id());
+
+            int inserted = chunkRepository.insertProvisionalVectors(Map.of(
+                chunks.get(0).id(), new float[768],
+                chunks.get(1).id(), new float[768]
+            ));
+
+            assertThat(inserted).isEqualTo(1);
+            assertThat(sources(chunks.get(0).id())).containsExactly("PROVISIONAL");
+            assertThat(sources(chunks.get(1).id())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should replace the provisional vector only once term vectors exist")
+        void deleteProvisionalVectors_RequiresTermVectors() {
+            chunkRepository.saveChunks(docId, List.of(TextSegment.from("One")));
+            UUID chunkId = chunkRepository.claimForProvisionalEmbedding(10).getFirst().id();
+            chunkRepository.insertProvisionalVectors(Map.of(chunkId, new float[768]));
+
+            assertThat(chunkRepository.deleteProvisionalVectors(chunkId)).isZero();
+
+            chunkRepository.insertChunkVectors(docId, chunkId, Map.of("Tax Residency", new float[768]));
+
+            assertThat(chunkRepository.deleteProvisionalVectors(chunkId)).isEqualTo(1);
+            assertThat(sources(chunkId)).containsExactly("TERM");
+        }
+
+        private List<String> sources(UUID chunkId) {
+            return jdbcClient.sql("SELECT source::text FROM document_chunk_embeddings WHERE chunk_id = ?")
+                .params(chunkId)
+                .query(String.class)
+                .list();
+        }
+    }
+}
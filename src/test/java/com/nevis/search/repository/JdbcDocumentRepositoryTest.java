@@ -1,17 +1,27 @@
 package com.nevis.search.repository;
 
 import com.nevis.search.exception.EntityNotFoundException;
+import com.nevis.search.infra.Backoff;
 import com.nevis.search.model.Client;
 import com.nevis.search.model.Document;
+import com.nevis.search.model.DocumentIdentity;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.ScheduledRetry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -55,6 +65,8 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
             null,
             0,
             DocumentTaskStatus.PENDING,
+            0,
+            0,
             null,
             null
         );
@@ -75,6 +87,32 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
         assertThat(foundDoc.content()).isEqualTo("Content");
     }
 
+    @Test
+    @DisplayName("Should stream a multi-MB body into the content column unchanged")
+    void shouldStreamLargeContent() throws Exception {
+        Client owner = clientRepository.save(new Client(null, "Stream", "Owner", "stream@test.com", null, List.of(), null, null));
+        Document doc = documentRepository.save(new Document(null, owner.id(), "Statement", "", null, DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null));
+        String content = "Position\tCHF 1'200.50\r\nC:\\statements\\Q3 – Zürich\n".repeat(200_000);
+
+        documentRepository.updateContent(doc.id(), new StringReader(content), "hash");
+
+        Map<String, Object> stored = jdbcClient.sql("SELECT length(content) AS length, md5(content) AS md5, content_hash FROM documents WHERE id = ?")
+            .param(doc.id())
+            .query()
+            .singleRow();
+        assertThat(content.length()).isGreaterThan(8_000_000);
+        assertThat(stored.get("length")).isEqualTo(content.codePointCount(0, content.length()));
+        assertThat(stored.get("md5")).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content.getBytes(StandardCharsets.UTF_8))));
+        assertThat(stored.get("content_hash")).isEqualTo("hash");
+    }
+
+    @Test
+    @DisplayName("Should fail to stream content into a missing document")
+    void shouldFailToStreamContentIntoMissingDocument() {
+        assertThatThrownBy(() -> documentRepository.updateContent(UUID.randomUUID(), new StringReader("Content"), "hash"))
+            .isInstanceOf(EntityNotFoundException.class);
+    }
+
     @Test
     @DisplayName("Should return empty Optional when finding non-existent document")
     void shouldReturnEmptyWhenNotFound() {
@@ -85,7 +123,7 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
     @Test
     @DisplayName("Constraint: Fail when client_id does not exist (FK)")
     void shouldFailWithNonExistentClientId() {
-        Document orphan = new Document(null, UUID.randomUUID(), "Title", "Content", null, DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
+        Document orphan = new Document(null, UUID.randomUUID(), "Title", "Content", null, DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
         assertThrows(DataIntegrityViolationException.class, () -> documentRepository.save(orphan));
     }
 
@@ -93,7 +131,7 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
     @DisplayName("Trigger: updated_at should change on update")
     void shouldUpdateTimestampOnRowChange() throws InterruptedException {
         Client owner = clientRepository.save(new Client(null, "Time", "Test", "time@test.com", null, List.of(), null, null));
-        Document doc = documentRepository.save(new Document(null, owner.id(), "Initial", "Content", null, DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null));
+        Document doc = documentRepository.save(new Document(null, owner.id(), "Initial", "Content", null, DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null));
         OffsetDateTime created = doc.updatedAt();
 
         Thread.sleep(100);
@@ -119,6 +157,8 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
                 rs.getString("summary_error_message"),
                 rs.getInt("summary_attempts"),
                 DocumentTaskStatus.valueOf(rs.getString("status")),
+                0,
+                0,
                 rs.getObject("created_at", OffsetDateTime.class),
                 rs.getObject("updated_at", OffsetDateTime.class)))
             .single();
@@ -258,6 +298,8 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
     @DisplayName("Worker: Reset Stale and Failed Summaries Tests")
     class ResetSummaryWorkerTests {
 
+        private static final Backoff BACKOFF = new Backoff(Duration.ofMinutes(1), Duration.ofMinutes(30));
+
         private UUID clientId;
 
         @BeforeEach
@@ -279,7 +321,9 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
                 VALUES (?, ?, 'Failed Doc', 'Content', 'FAILED'::task_status, 1, 'PENDING'::task_status)
                 """).params(docId, clientId).update();
 
-            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(3, 10);
+            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(3, 10, BACKOFF, 100).stream()
+                .map(ScheduledRetry::documentId)
+                .toList();
 
             assertThat(resetIds).containsExactly(docId);
 
@@ -288,6 +332,23 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
             assertThat(currentStatus).isEqualTo("PENDING");
         }
 
+        @Test
+        @DisplayName("Should schedule the retry after a jittered exponential backoff")
+        void shouldScheduleRetryWithBackoff() {
+            UUID docId = UUID.randomUUID();
+            jdbcClient.sql("""
+                INSERT INTO documents (id, client_id, title, content, summary_status, summary_attempts, status)
+                VALUES (?, ?, 'Failed Doc', 'Content', 'FAILED'::task_status, 1, 'PENDING'::task_status)
+                """).params(docId, clientId).update();
+
+            List<ScheduledRetry> retries = documentRepository.resetStaleAndFailedSummaries(3, 10, BACKOFF, 100);
+
+            assertThat(retries).singleElement().satisfies(retry -> {
+                assertThat(retry.documentId()).isEqualTo(docId);
+                assertThat(retry.dueAt().toInstant()).isBetween(Instant.now().plusSeconds(59), Instant.now().plusSeconds(121));
+            });
+        }
+
         @Test
         @DisplayName("Should NOT reset FAILED status if attempts reached max limit")
         void shouldNotResetIfMaxAttemptsReached() {
@@ -297,7 +358,9 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
                 VALUES (?, ?, 'Maxed Doc', 'Content', 'FAILED'::task_status, 5, 'PENDING'::task_status)
                 """).params(docId, clientId).update();
 
-            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(5, 10);
+            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(5, 10, BACKOFF, 100).stream()
+                .map(ScheduledRetry::documentId)
+                .toList();
 
             assertThat(resetIds).isEmpty();
         }
@@ -311,7 +374,9 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
                 VALUES (?, ?, 'Stale Doc', 'Content', 'PROCESSING'::task_status, 0, NOW() - INTERVAL '20 minutes', 'PENDING'::task_status)
                 """).params(docId, clientId).update();
 
-            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(3, 10);
+            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(3, 10, BACKOFF, 100).stream()
+                .map(ScheduledRetry::documentId)
+                .toList();
 
             assertThat(resetIds).containsExactly(docId);
 
@@ -329,10 +394,47 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
                 VALUES (?, ?, 'Fresh Doc', 'Content', 'PROCESSING'::task_status, 0, NOW(), 'PENDING'::task_status)
                 """).params(docId, clientId).update();
 
-            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(3, 10);
+            List<UUID> resetIds = documentRepository.resetStaleAndFailedSummaries(3, 10, BACKOFF, 100).stream()
+                .map(ScheduledRetry::documentId)
+                .toList();
 
             assertThat(resetIds).isEmpty();
         }
+
+        private UUID insertSplitDocument(int pendingChunks) {
+            UUID docId = UUID.randomUUID();
+            jdbcClient.sql("""
+                INSERT INTO documents (id, client_id, title, content, summary_status, status, pending_chunks)
+                VALUES (?, ?, 'Split Doc', 'Content', 'PENDING'::task_status, 'PROCESSING'::task_status, ?)
+                """).params(docId, clientId, pendingChunks).update();
+            return docId;
+        }
+
+        private void insertChunk(UUID docId, String status, int attempts) {
+            jdbcClient.sql("INSERT INTO document_chunks (document_id, content, status, attempts) VALUES (?, 'Content', ?::task_status, ?)")
+                .params(docId, status, attempts).update();
+        }
+
+        @Test
+        @DisplayName("Should claim pending summaries whose remaining chunks used up their attempts")
+        void shouldClaimStrandedSummaries() {
+            UUID strandedDoc = insertSplitDocument(2);
+            insertChunk(strandedDoc, "READY", 0);
+            insertChunk(strandedDoc, "FAILED", 5);
+            insertChunk(strandedDoc, "PENDING", 5);
+
+            UUID retryingDoc = insertSplitDocument(1);
+            insertChunk(retryingDoc, "FAILED", 2);
+
+            UUID inFlightDoc = insertSplitDocument(1);
+            insertChunk(inFlightDoc, "PROCESSING", 4);
+
+            UUID queuedDoc = insertSplitDocument(1);
+            insertChunk(queuedDoc, "FAILED", 5);
+            jdbcClient.sql("INSERT INTO work_queue (work_type, document_id) VALUES ('SUMMARIZE'::work_type, ?)").param(queuedDoc).update();
+
+            assertThat(documentRepository.claimStrandedSummaries(5, 100)).containsExactly(strandedDoc);
+        }
     }
 
     @Nested
@@ -418,4 +520,148 @@ class JdbcDocumentRepositoryTest extends BaseIntegrationTest {
             executor.shutdown();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Idempotent ingest lookups")
+    class IdempotencyLookupTests {
+
+        private Client owner;
+
+        @BeforeEach
+        void setUp() {
+            jdbcClient.sql("DELETE FROM documents").update();
+            jdbcClient.sql("DELETE FROM clients").update();
+            owner = clientRepository.save(new Client(null, "Idem", "Potent", "idem@test.com", null, List.of(), null, null));
+        }
+
+        private Document newDocument(String content) {
+            return new Document(null, owner.id(), "Title", content, null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+        }
+
+        @Test
+        @DisplayName("Should find a document by client and Idempotency-Key")
+        void shouldFindByIdempotencyKey() {
+            Document saved = documentRepository.save(newDocument("Content"), "key-1");
+
+            assertThat(documentRepository.findByIdempotencyKey(owner.id(), "key-1"))
+                .map(Document::id)
+                .contains(saved.id());
+            assertThat(documentRepository.findByIdempotencyKey(UUID.randomUUID(), "key-1")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should reject a second document with the same Idempotency-Key for the same client")
+        void shouldEnforceUniqueKeyPerClient() {
+            documentRepository.save(newDocument("Content"), "key-1");
+
+            assertThrows(DataIntegrityViolationException.class,
+                () -> documentRepository.save(newDocument("Other content"), "key-1"));
+        }
+
+        @Test
+        @DisplayName("Should find the earliest document of a client with the same content")
+        void shouldFindByContentHash() {
+            Document first = documentRepository.save(newDocument("Same content"));
+            documentRepository.save(newDocument("Same content"));
+
+            String hash = jdbcClient.sql("SELECT encode(sha256(convert_to('Same content', 'UTF8')), 'hex')")
+                .query(String.class)
+                .single();
+
+            assertThat(documentRepository.findByContentHash(owner.id(), hash))
+                .map(Document::id)
+                .contains(first.id());
+            assertThat(documentRepository.findByContentHash(UUID.randomUUID(), hash)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should COPY documents with pre-assigned ids and find their identities")
+        void shouldCopyDocumentsAndFindIdentities() {
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            List<Document> documents = List.of(
+                new Document(first, owner.id(), "First", "First content", null,
+                    DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PROCESSING, 0, 0, null, null),
+                new Document(second, owner.id(), "Second", "Second content", null,
+                    DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.READY, 0, 0, null, null)
+            );
+
+            documentRepository.copyAll(documents, Map.of(second, "bulk-key"));
+
+            assertThat(documentRepository.findById(first)).get()
+                .extracting(Document::status)
+                .isEqualTo(DocumentTaskStatus.PROCESSING);
+            assertThat(documentRepository.findByIdempotencyKey(owner.id(), "bulk-key"))
+                .map(Document::id)
+                .contains(second);
+
+            String firstHash = jdbcClient.sql("SELECT content_hash FROM documents WHERE id = ?")
+                .param(first)
+                .query(String.class)
+                .single();
+
+            List<DocumentIdentity> identities = documentRepository.findIdentities(
+                List.of(owner.id()), List.of(firstHash), List.of("bulk-key"));
+
+            assertThat(identities)
+                .extracting(DocumentIdentity::id)
+                .containsExactlyInAnyOrder(first, second);
+        }
+
+        @Test
+        @DisplayName("Should acquire the ingest lock inside a transaction without error")
+        void shouldAcquireIngestLock() {
+            documentRepository.lockForIngest(owner.id(), "a".repeat(64));
+        }
+
+        @Test
+        @DisplayName("Should acquire several ingest locks in one statement without error")
+        void shouldAcquireBatchIngestLocks() {
+            documentRepository.lockForIngest(List.of(Map.entry(owner.id(), "key:bulk-key"), Map.entry(owner.id(), "content:" + "a".repeat(64))));
+        }
+    }
+
+    @Nested
+    @DisplayName("Accepted document split claims")
+    class SplitClaimTests {
+
+        private Client owner;
+
+        @BeforeEach
+        void setUp() {
+            jdbcClient.sql("DELETE FROM documents").update();
+            jdbcClient.sql("DELETE FROM clients").update();
+            owner = clientRepository.save(new Client(null, "Async", "Ingest", "async@test.com", null, List.of(), null, null));
+        }
+
+        private Document savePending() {
+            return documentRepository.save(new Document(null, owner.id(), "Title", "Accepted content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null));
+        }
+
+        @Test
+        @DisplayName("Should claim a PENDING document exactly once")
+        void shouldClaimPendingDocumentOnce() {
+            Document saved = savePending();
+
+            assertThat(documentRepository.claimForSplit(saved.id()))
+                .map(Document::status)
+                .contains(DocumentTaskStatus.PROCESSING);
+            assertThat(documentRepository.claimForSplit(saved.id())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should fail a document that was never split, but not one already split")
+        void shouldFailOnlyUnsplitDocument() {
+            Document unsplit = savePending();
+            Document split = savePending();
+            documentRepository.claimForSplit(split.id());
+
+            assertThat(documentRepository.failUnsplit(unsplit.id())).isTrue();
+            assertThat(documentRepository.failUnsplit(split.id())).isFalse();
+            assertThat(documentRepository.findById(unsplit.id())).map(Document::status).contains(DocumentTaskStatus.FAILED);
+            assertThat(documentRepository.findById(split.id())).map(Document::status).contains(DocumentTaskStatus.PROCESSING);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.nevis.search.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class JdbcQueryEmbeddingRepositoryTest extends BaseIntegrationTest {
+
+    private static final int VECTOR_SIZE = 768;
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @Autowired
+    private QueryEmbeddingRepository queryEmbeddingRepository;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM query_embeddings").update();
+    }
+
+    @Test
+    @DisplayName("Should save and find a query vector by key and model version")
+    void shouldSaveAndFind() {
+        float[] vector = createVector(0.5f);
+
+        queryEmbeddingRepository.save("passport", "model@1", vector);
+
+        assertThat(queryEmbeddingRepository.find("passport", "model@1", TTL)).contains(vector);
+        assertThat(queryEmbeddingRepository.find("passport", "model@2", TTL)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should overwrite the vector when the same query is saved again")
+    void shouldUpsertVector() {
+        float[] updated = createVector(0.9f);
+        queryEmbeddingRepository.save("passport", "model@1", createVector(0.5f));
+        queryEmbeddingRepository.save("passport", "model@1", updated);
+
+        assertThat(queryEmbeddingRepository.find("passport", "model@1", TTL)).contains(updated);
+    }
+
+    @Test
+    @DisplayName("Should ignore and purge entries older than the TTL")
+    void shouldExpireOldEntries() {
+        queryEmbeddingRepository.save("stale", "model@1", createVector(0.1f));
+        queryEmbeddingRepository.save("fresh", "model@1", createVector(0.2f));
+        jdbcClient.sql("UPDATE query_embeddings SET created_at = NOW() - INTERVAL '2 hours' WHERE query_key = 'stale'").update();
+
+        assertThat(queryEmbeddingRepository.find("stale", "model@1", TTL)).isEmpty();
+        assertThat(queryEmbeddingRepository.deleteOlderThan(TTL)).isEqualTo(1);
+        assertThat(queryEmbeddingRepository.find("fresh", "model@1", TTL)).isPresent();
+    }
+
+    private float[] createVector(float value) {
+        float[] vector = new float[VECTOR_SIZE];
+        vector[0] = value;
+        vector[VECTOR_SIZE - 1] = value;
+        return vector;
+    }
+}
@@ -0,0 +1,75 @@
+package com.nevis.search.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class JdbcTermEmbeddingRepositoryTest extends BaseIntegrationTest {
+
+    private static final int VECTOR_SIZE = 768;
+
+    @Autowired
+    private TermEmbeddingRepository termEmbeddingRepository;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM term_embeddings").update();
+    }
+
+    @Test
+    @DisplayName("Should save term vectors and find them by term and model version")
+    void shouldSaveAndFindTerms() {
+        float[] kyc = createVector(0.5f);
+        float[] aml = createVector(0.25f);
+
+        termEmbeddingRepository.saveAll(Map.of("kyc", kyc, "aml", aml), "model@1");
+
+        Map<String, float[]> found = termEmbeddingRepository.findByTerms(List.of("kyc", "aml", "unknown"), "model@1");
+
+        assertThat(found).containsOnlyKeys("kyc", "aml");
+        assertThat(found.get("kyc")).isEqualTo(kyc);
+        assertThat(found.get("aml")).isEqualTo(aml);
+    }
+
+    @Test
+    @DisplayName("Should isolate vectors by model version")
+    void shouldIsolateByModelVersion() {
+        termEmbeddingRepository.saveAll(Map.of("kyc", createVector(0.5f)), "model@1");
+
+        assertThat(termEmbeddingRepository.findByTerms(List.of("kyc"), "model@2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the first stored vector when a term is saved twice")
+    void shouldIgnoreDuplicateTerms() {
+        float[] original = createVector(0.5f);
+        termEmbeddingRepository.saveAll(Map.of("kyc", original), "model@1");
+        termEmbeddingRepository.saveAll(Map.of("kyc", createVector(0.9f)), "model@1");
+
+        Integer count = jdbcClient.sql("SELECT COUNT(*) FROM term_embeddings WHERE term = 'kyc'")
+            .query(Integer.class)
+            .single();
+
+        assertThat(count).isEqualTo(1);
+        assertThat(termEmbeddingRepository.findByTerms(List.of("kyc"), "model@1").get("kyc")).isEqualTo(original);
+    }
+
+    private float[] createVector(float value) {
+        float[] vector = new float[VECTOR_SIZE];
+        vector[0] = value;
+        vector[VECTOR_SIZE - 1] = value;
+        return vector;
+    }
+}
@@ -0,0 +1,157 @@
+package com.nevis.search.repository;
+
+import com.nevis.search.model.Client;
+import com.nevis.search.model.Document;
+import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = "app.work-queue.enabled=false")
+class JdbcWorkQueueRepositoryTest extends BaseIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    @Autowired
+    private WorkQueueRepository workQueueRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    private UUID firstDoc;
+    private UUID secondDoc;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM work_queue").update();
+        jdbcClient.sql("DELETE FROM documents").update();
+        jdbcClient.sql("DELETE FROM clients").update();
+
+        Client owner = clientRepository.save(new Client(null, "Queue", "Owner", "queue@test.com", null, List.of(), null, null));
+        firstDoc = saveDocument(owner, "First");
+        secondDoc = saveDocument(owner, "Second");
+    }
+
+    private UUID saveDocument(Client owner, String content) {
+        return documentRepository.save(new Document(null, owner.id(), "Title", content, null,
+            DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null)).id();
+    }
+
+    @Test
+    @DisplayName("Should claim fresh work of one type by priority and hide claimed items until the lease expires")
+    void shouldClaimByTypeAndPriorityWithLease() {
+        workQueueRepository.enqueueAll(WorkType.SUMMARIZE, List.of(firstDoc), WorkItem.BACKGROUND_PRIORITY);
+        workQueueRepository.enqueue(WorkType.SUMMARIZE, secondDoc);
+        workQueueRepository.enqueue(WorkType.SPLIT, firstDoc);
+
+        List<WorkItem> claimed = workQueueRepository.claim(WorkType.SUMMARIZE, 1, LEASE);
+
+        assertThat(claimed).singleElement().satisfies(item -> {
+            assertThat(item.workType()).isEqualTo(WorkType.SUMMARIZE);
+            assertThat(item.documentId()).isEqualTo(secondDoc);
+            assertThat(item.attempts()).isEqualTo(1);
+        });
+
+        assertThat(workQueueRepository.claim(WorkType.SUMMARIZE, 10, LEASE))
+            .extracting(WorkItem::documentId)
+            .containsExactly(firstDoc);
+        assertThat(workQueueRepository.claim(WorkType.SUMMARIZE, 10, LEASE)).isEmpty();
+        assertThat(workQueueRepository.claim(WorkType.SPLIT, 10, LEASE)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should reclaim items whose lease has expired as retries")
+    void shouldReclaimExpiredLease() {
+        workQueueRepository.enqueue(WorkType.SPLIT, firstDoc);
+        workQueueRepository.claim(WorkType.SPLIT, 1, LEASE);
+
+        jdbcClient.sql("UPDATE work_queue SET locked_until = NOW() - INTERVAL '1 second'").update();
+
+        assertThat(workQueueRepository.claim(WorkType.SPLIT, 1, LEASE)).isEmpty();
+        assertThat(workQueueRepository.claimRetries(1, LEASE))
+            .singleElement()
+            .extracting(WorkItem::attempts)
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should delete completed items and delay retried ones")
+    void shouldCompleteAndRetry() {
+        workQueueRepository.enqueueAll(WorkType.SPLIT, List.of(firstDoc, secondDoc), WorkItem.DEFAULT_PRIORITY);
+        List<WorkItem> claimed = workQueueRepository.claim(WorkType.SPLIT, 2, LEASE);
+
+        workQueueRepository.complete(claimed.get(0).id());
+        workQueueRepository.retryLater(claimed.get(1).id(), Duration.ofMinutes(1));
+
+        assertThat(workQueueRepository.countQueued()).isEqualTo(1L);
+        assertThat(workQueueRepository.claimRetries(10, LEASE)).isEmpty();
+
+        workQueueRepository.retryLater(claimed.get(1).id(), Duration.ZERO);
+        assertThat(workQueueRepository.claim(WorkType.SPLIT, 10, LEASE)).isEmpty();
+        assertThat(workQueueRepository.claimRetries(10, LEASE)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should count claimable first attempts by type and retries separately")
+    void shouldCountWaitingWork() {
+        workQueueRepository.enqueueAll(WorkType.SPLIT, List.of(firstDoc, secondDoc), WorkItem.DEFAULT_PRIORITY);
+        workQueueRepository.enqueue(WorkType.SUMMARIZE, firstDoc);
+
+        assertThat(workQueueRepository.countWaitingByType()).containsExactlyInAnyOrderEntriesOf(Map.of(WorkType.SPLIT, 2L, WorkType.SUMMARIZE, 1L));
+        assertThat(workQueueRepository.countWaitingRetries()).isZero();
+
+        WorkItem claimed = workQueueRepository.claim(WorkType.SPLIT, 1, LEASE).getFirst();
+        assertThat(workQueueRepository.countWaitingByType()).containsEntry(WorkType.SPLIT, 1L);
+        assertThat(workQueueRepository.countWaitingRetries()).isZero();
+
+        workQueueRepository.retryLater(claimed.id(), Duration.ZERO);
+        assertThat(workQueueRepository.countWaitingRetries()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should map every work type the database accepts")
+    void shouldMatchDatabaseWorkTypes() {
+        List<String> databaseTypes = jdbcClient.sql("SELECT unnest(enum_range(NULL::work_type))::text")
+            .query(String.class)
+            .list();
+
+        assertThat(databaseTypes).containsExactly(Arrays.stream(WorkType.values()).map(Enum::name).toArray(String[]::new));
+    }
+
+    @Test
+    @DisplayName("Should drop queued work when its document is deleted")
+    void shouldCascadeOnDocumentDelete() {
+        workQueueRepository.enqueue(WorkType.SPLIT, firstDoc);
+
+        jdbcClient.sql("DELETE FROM documents WHERE id = ?").param(firstDoc).update();
+
+        assertThat(workQueueRepository.claim(WorkType.SPLIT, 10, LEASE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should send a chunks-ready notification without error")
+    void shouldNotifyChunksReady() {
+        workQueueRepository.notifyChunksReady();
+    }
+}
@@ -0,0 +1,100 @@
+package com.nevis.search.service;
+
+import com.nevis.search.exception.BacklogExceededException;
+import com.nevis.search.repository.DocumentChunkRepository;
+import com.nevis.search.repository.WorkQueueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AdmissionControllerTest {
+
+    private final DocumentChunkRepository chunkRepository = mock(DocumentChunkRepository.class);
+    private final WorkQueueRepository workQueueRepository = mock(WorkQueueRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdmissionControllerImpl admissionController;
+
+    @BeforeEach
+    void setUp() {
+        admissionController = new AdmissionControllerImpl(chunkRepository, workQueueRepository, meterRegistry);
+        ReflectionTestUtils.setField(admissionController, "enabled", true);
+        ReflectionTestUtils.setField(admissionController, "throttlePendingChunks", 100L);
+        ReflectionTestUtils.setField(admissionController, "shedPendingChunks", 1000L);
+        ReflectionTestUtils.setField(admissionController, "throttleQueuedWork", 50L);
+        ReflectionTestUtils.setField(admissionController, "shedQueuedWork", 500L);
+        ReflectionTestUtils.setField(admissionController, "drainPerMinute", 60.0);
+        ReflectionTestUtils.setField(admissionController, "maxRetryAfterSeconds", 600L);
+        ReflectionTestUtils.setField(admissionController, "maxChunkAttempts", 5);
+    }
+
+    private void backlog(long chunks, long work) {
+        when(chunkRepository.countUnprocessed(5)).thenReturn(chunks);
+        when(workQueueRepository.countQueued()).thenReturn(work);
+        admissionController.refreshBacklog();
+    }
+
+    @Test
+    @DisplayName("Should admit ingests while the backlog is under the thresholds")
+    void shouldAdmitUnderThreshold() {
+        backlog(99, 49);
+
+        assertThatCode(admissionController::admit).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should throttle with a Retry-After that covers draining the excess")
+    void shouldThrottleOverThreshold() {
+        backlog(129, 0);
+
+        assertThatThrownBy(admissionController::admit)
+            .isInstanceOfSatisfying(BacklogExceededException.class, e -> {
+                assertThat(e.isOverloaded()).isFalse();
+                assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(30));
+            });
+        assertThat(meterRegistry.get("ingest.admission.rejected").tag("reason", "throttle").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should shed load when the work queue is past the shed threshold and cap the Retry-After")
+    void shouldShedOverShedThreshold() {
+        backlog(0, 5000);
+
+        assertThatThrownBy(admissionController::admit)
+            .isInstanceOfSatisfying(BacklogExceededException.class, e -> {
+                assertThat(e.isOverloaded()).isTrue();
+                assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(600));
+            });
+    }
+
+    @Test
+    @DisplayName("Should keep the last backlog sample when the refresh fails")
+    void shouldKeepLastSampleOnFailure() {
+        backlog(500, 0);
+        when(chunkRepository.countUnprocessed(5)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        admissionController.refreshBacklog();
+
+        assertThatThrownBy(admissionController::admit).isInstanceOf(BacklogExceededException.class);
+        assertThat(meterRegistry.get("ingest.backlog").tag("kind", "chunks").gauge().value()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Should admit everything when disabled")
+    void shouldAdmitWhenDisabled() {
+        backlog(5000, 5000);
+        ReflectionTestUtils.setField(admissionController, "enabled", false);
+
+        assertThatCode(admissionController::admit).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,101 @@
+package com.nevis.search.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevis.search.controller.BulkDocumentRequest;
+import com.nevis.search.controller.BulkIngestResult;
+import com.nevis.search.repository.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.StringReader;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BulkIngestServiceTest {
+
+    @Mock
+    private DocumentService documentService;
+    @Mock
+    private ClientRepository clientRepository;
+
+    private final UUID clientId = UUID.randomUUID();
+    private final List<BulkIngestResult> results = new ArrayList<>();
+
+    private BulkIngestServiceImpl bulkIngestService;
+
+    @BeforeEach
+    void setUp() {
+        bulkIngestService = new BulkIngestServiceImpl(documentService, clientRepository, new ObjectMapper(), 2);
+        when(clientRepository.findExistingIds(anyCollection())).thenReturn(Set.of(clientId));
+        when(documentService.ingestBatch(anyMap())).thenAnswer(invocation -> {
+            Map<Integer, BulkDocumentRequest> batch = invocation.getArgument(0);
+            return batch.keySet().stream().map(line -> BulkIngestResult.created(line, UUID.randomUUID())).toList();
+        });
+    }
+
+    @Test
+    @DisplayName("Should ingest valid lines in batches and report one result per line in order")
+    void shouldIngestInBatches() {
+        String body = line("Doc 1") + "\n" + line("Doc 2") + "\n\n" + line("Doc 3") + "\n";
+
+        bulkIngestService.ingest(new StringReader(body), results::add);
+
+        verify(documentService, times(2)).ingestBatch(anyMap());
+        assertThat(results).extracting(BulkIngestResult::line).containsExactly(1, 2, 4);
+        assertThat(results).allMatch(result -> result.status() == BulkIngestResult.Status.CREATED);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed, incomplete and unknown-client lines without failing the batch")
+    void shouldRejectInvalidLines() {
+        UUID unknownClient = UUID.randomUUID();
+        String body = String.join("\n",
+            "{not json",
+            "{\"client_id\":\"" + clientId + "\",\"title\":\"\",\"content\":\"text\"}",
+            "{\"client_id\":\"" + unknownClient + "\",\"title\":\"T\",\"content\":\"text\"}",
+            line("Valid"));
+
+        bulkIngestService.ingest(new StringReader(body), results::add);
+
+        assertThat(results).extracting(BulkIngestResult::status).containsExactly(
+            BulkIngestResult.Status.REJECTED,
+            BulkIngestResult.Status.REJECTED,
+            BulkIngestResult.Status.REJECTED,
+            BulkIngestResult.Status.CREATED);
+        assertThat(results.get(0).error()).isEqualTo("Malformed JSON");
+        assertThat(results.get(1).error()).isEqualTo("title is required");
+        assertThat(results.get(2).error()).contains("Client not found");
+    }
+
+    @Test
+    @DisplayName("Should report every line of a failed batch as rejected and continue with the next batch")
+    void shouldContinueAfterFailedBatch() {
+        when(documentService.ingestBatch(anyMap()))
+            .thenThrow(new IllegalStateException("db down"))
+            .thenAnswer(invocation -> List.of(BulkIngestResult.created(3, UUID.randomUUID())));
+
+        String body = line("Doc 1") + "\n" + line("Doc 2") + "\n" + line("Doc 3");
+
+        bulkIngestService.ingest(new StringReader(body), results::add);
+
+        assertThat(results).extracting(BulkIngestResult::status).containsExactly(
+            BulkIngestResult.Status.REJECTED,
+            BulkIngestResult.Status.REJECTED,
+            BulkIngestResult.Status.CREATED);
+    }
+
+    private String line(String title) {
+        return "{\"client_id\":\"" + clientId + "\",\"title\":\"" + title + "\",\"content\":\"Content of " + title + "\"}";
+    }
+}
@@ -0,0 +1,112 @@
+package com.nevis.search.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevis.search.exception.MalformedEnrichmentException;
+import com.nevis.search.infra.ContentHash;
+import com.nevis.search.model.ChunkEnrichment;
+import com.nevis.search.model.DocumentChunk;
+import com.nevis.search.model.DocumentTaskStatus;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ResponseFormatType;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChunkEnrichmentServiceTest {
+
+    private final ChatModel chatModel = mock(ChatModel.class);
+    private final ChunkEnrichmentService enrichmentService = new ChunkEnrichmentServiceImpl(chatModel, new ObjectMapper());
+
+    @Test
+    @DisplayName("Should request a JSON schema response and return terms and summary")
+    void shouldParseStructuredResponse() {
+        when(chatModel.chat(any(ChatRequest.class))).thenReturn(response("""
+            {"terms": [" Tax Residency ", "KYC", ""], "summary": " Proof of tax residency. "}
+            """));
+
+        ChunkEnrichment enrichment = enrichmentService.enrich(chunk("Certificate of tax residence"));
+
+        assertThat(enrichment.terms()).containsExactly("Tax Residency", "KYC");
+        assertThat(enrichment.summary()).isEqualTo("Proof of tax residency.");
+
+        ArgumentCaptor<ChatRequest> captor = ArgumentCaptor.forClass(ChatRequest.class);
+        verify(chatModel).chat(captor.capture());
+        assertThat(captor.getValue().responseFormat().type()).isEqualTo(ResponseFormatType.JSON);
+        assertThat(captor.getValue().responseFormat().jsonSchema()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should return an empty enrichment for a blank response")
+    void shouldHandleBlankResponse() {
+        when(chatModel.chat(any(ChatRequest.class))).thenReturn(response(" "));
+
+        ChunkEnrichment enrichment = enrichmentService.enrich(chunk("Content"));
+
+        assertThat(enrichment.terms()).isEmpty();
+        assertThat(enrichment.summary()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fail on a response that is not valid JSON")
+    void shouldRejectMalformedResponse() {
+        when(chatModel.chat(any(ChatRequest.class))).thenReturn(response("Tax, KYC"));
+
+        assertThatThrownBy(() -> enrichmentService.enrich(chunk("Content")))
+            .isInstanceOf(MalformedEnrichmentException.class)
+            .hasMessageContaining("malformed chunk enrichment");
+    }
+
+    @Test
+    @DisplayName("Should map packed results back to the requested chunks and drop unknown ids")
+    void shouldParsePackedResponse() {
+        DocumentChunk first = chunk("Certificate of tax residence");
+        DocumentChunk second = chunk("Brokerage statement");
+        when(chatModel.chat(any(ChatRequest.class))).thenReturn(response("""
+            {"chunks": [
+              {"id": "%s", "terms": ["Tax Residency"], "summary": "Tax residency proof."},
+              {"id": "%s", "terms": ["Hallucinated"], "summary": "Not asked for."},
+              {"id": " %s ", "terms": ["Fixed Income"], "summary": "Holdings statement."}
+            ]}
+            """.formatted(first.id(), UUID.randomUUID(), second.id())));
+
+        Map<UUID, ChunkEnrichment> enrichments = enrichmentService.enrichAll(List.of(first, second));
+
+        assertThat(enrichments).containsOnlyKeys(first.id(), second.id());
+        assertThat(enrichments.get(second.id()).terms()).containsExactly("Fixed Income");
+
+        ArgumentCaptor<ChatRequest> captor = ArgumentCaptor.forClass(ChatRequest.class);
+        verify(chatModel).chat(captor.capture());
+        String prompt = ((UserMessage) captor.getValue().messages().getFirst()).singleText();
+        assertThat(prompt).contains("### Chunk " + first.id(), "### Chunk " + second.id());
+    }
+
+    @Test
+    @DisplayName("Should fail on a packed response without chunk entries")
+    void shouldRejectPackedResponseWithoutChunks() {
+        when(chatModel.chat(any(ChatRequest.class))).thenReturn(response("{\"terms\": []}"));
+
+        assertThatThrownBy(() -> enrichmentService.enrichAll(List.of(chunk("One"), chunk("Two"))))
+            .isInstanceOf(MalformedEnrichmentException.class);
+    }
+
+    private ChatResponse response(String text) {
+        return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    }
+
+    private DocumentChunk chunk(String content) {
+        return new DocumentChunk(UUID.randomUUID(), UUID.randomUUID(), content, ContentHash.sha256(content), null, DocumentTaskStatus.PENDING, null, 0, null, null);
+    }
+}
@@ -1,23 +1,39 @@
 package com.nevis.search.service;
 
+import com.nevis.search.controller.BulkDocumentRequest;
+import com.nevis.search.controller.BulkIngestResult;
 import com.nevis.search.controller.DocumentResponse;
+import com.nevis.search.exception.WrongQueryException;
+import com.nevis.search.infra.ContentHash;
 import com.nevis.search.model.Document;
+import com.nevis.search.model.DocumentIdentity;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
 import com.nevis.search.repository.DocumentChunkRepository;
 import com.nevis.search.repository.DocumentRepository;
+import com.nevis.search.repository.WorkQueueRepository;
 import dev.langchain4j.data.segment.TextSegment;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -25,8 +41,9 @@ class DocumentServiceTest {
 
     private final DocumentRepository repository = Mockito.mock(DocumentRepository.class);
     private final DocumentChunkRepository chunkRepository = Mockito.mock(DocumentChunkRepository.class);
-    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
-    private final DocumentService documentService = new DocumentServiceImpl(repository, chunkRepository, eventPublisher, 3000, 300);
+    private final WorkQueueRepository workQueueRepository = Mockito.mock(WorkQueueRepository.class);
+    private final DocumentService documentService = new DocumentServiceImpl(
+        repository, chunkRepository, workQueueRepository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), 3000, 300);
 
     @Nested
     @DisplayName("Split document to chunks")
@@ -46,11 +63,11 @@ class DocumentServiceTest {
             UUID docId = UUID.randomUUID();
 
             Document mockDoc = new Document(docId, clientId, "Test", content, null,
-                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
 
-            when(repository.save(any(Document.class))).thenReturn(mockDoc);
+            when(repository.save(any(Document.class), any())).thenReturn(mockDoc);
 
-            documentService.ingestDocument("Test", content, clientId);
+            documentService.ingestDocument("Test", content, clientId, Optional.empty());
 
             ArgumentCaptor<List<TextSegment>> captor = ArgumentCaptor.forClass(List.class);
             verify(chunkRepository).saveChunks(eq(docId), captor.capture());
@@ -77,10 +94,10 @@ class DocumentServiceTest {
             UUID docId = UUID.randomUUID();
 
             Document mockDoc = new Document(docId, clientId, "Exact", content, null,
-                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
-            when(repository.save(any(Document.class))).thenReturn(mockDoc);
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(mockDoc);
 
-            documentService.ingestDocument("Exact", content, clientId);
+            documentService.ingestDocument("Exact", content, clientId, Optional.empty());
 
             ArgumentCaptor<List<TextSegment>> captor = ArgumentCaptor.forClass(List.class);
             verify(chunkRepository).saveChunks(eq(docId), captor.capture());
@@ -96,13 +113,14 @@ class DocumentServiceTest {
             UUID docId = UUID.randomUUID();
 
             Document mockDoc = new Document(docId, clientId, "Empty", content, null,
-                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
-            when(repository.save(any(Document.class))).thenReturn(mockDoc);
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(mockDoc);
 
-            documentService.ingestDocument("Empty", content, clientId);
+            DocumentResponse response = documentService.ingestDocument("Empty", content, clientId, Optional.empty());
 
             verify(chunkRepository, never()).saveChunks(any(), any());
             verify(repository).updateStatus(docId, DocumentTaskStatus.READY);
+            assertThat(response.progress()).isEqualTo(100);
         }
 
         @Test
@@ -113,13 +131,14 @@ class DocumentServiceTest {
             UUID docId = UUID.randomUUID();
 
             Document mockDoc = new Document(docId, clientId, "Short", content, null,
-                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
-            when(repository.save(any(Document.class))).thenReturn(mockDoc);
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(mockDoc);
 
-            documentService.ingestDocument("Short", content, clientId);
+            DocumentResponse response = documentService.ingestDocument("Short", content, clientId, Optional.empty());
 
             verify(chunkRepository).saveChunks(eq(docId), anyList());
             verify(repository).updateStatus(docId, DocumentTaskStatus.PROCESSING);
+            assertThat(response.progress()).isZero();
         }
 
         @Test
@@ -130,10 +149,10 @@ class DocumentServiceTest {
             UUID docId = UUID.randomUUID();
 
             Document mockDoc = new Document(docId, clientId, "Whitespace", content, null,
-                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
-            when(repository.save(any(Document.class))).thenReturn(mockDoc);
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(mockDoc);
 
-            documentService.ingestDocument("Whitespace", content, clientId);
+            documentService.ingestDocument("Whitespace", content, clientId, Optional.empty());
 
             verify(chunkRepository, never()).saveChunks(any(), any());
             verify(repository).updateStatus(docId, DocumentTaskStatus.READY);
@@ -147,15 +166,318 @@ class DocumentServiceTest {
             UUID docId = UUID.randomUUID();
 
             Document mockDoc = new Document(docId, clientId, "LargeWord", content, null,
-                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, null, null);
-            when(repository.save(any(Document.class))).thenReturn(mockDoc);
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(mockDoc);
 
-            documentService.ingestDocument("LargeWord", content, clientId);
+            documentService.ingestDocument("LargeWord", content, clientId, Optional.empty());
 
             verify(repository).updateStatus(docId, DocumentTaskStatus.PROCESSING);
         }
     }
 
+    @Nested
+    @DisplayName("Idempotent ingest")
+    class IdempotentIngestTest {
+
+        private final UUID clientId = UUID.randomUUID();
+        private final String content = "Passport copy, verified by compliance.";
+
+        @Test
+        @DisplayName("Should return the existing document for a repeated Idempotency-Key without re-processing")
+        void shouldReturnExistingDocumentForSameKey() {
+            Document existing = new Document(UUID.randomUUID(), clientId, "Passport", content, null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PROCESSING, 0, 0, null, null);
+            when(repository.findByIdempotencyKey(clientId, "key-1")).thenReturn(Optional.of(existing));
+
+            DocumentResponse response = documentService.ingestDocument("Passport", content, clientId, Optional.of("key-1"));
+
+            assertThat(response.id()).isEqualTo(existing.id());
+            verify(repository).lockForIngest(clientId, "key:key-1");
+            verify(repository, never()).lockForIngest(eq(clientId), startsWith("content:"));
+            verify(repository, never()).save(any(Document.class), any());
+            verifyNoInteractions(chunkRepository, workQueueRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject an Idempotency-Key reused for different content")
+        void shouldRejectKeyReusedForDifferentContent() {
+            Document existing = new Document(UUID.randomUUID(), clientId, "Passport", "Other content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PROCESSING, 0, 0, null, null);
+            when(repository.findByIdempotencyKey(clientId, "key-1")).thenReturn(Optional.of(existing));
+
+            assertThatThrownBy(() -> documentService.ingestDocument("Passport", content, clientId, Optional.of("key-1")))
+                .isInstanceOf(WrongQueryException.class);
+            verify(repository, never()).save(any(Document.class), any());
+        }
+
+        @Test
+        @DisplayName("Should return the existing document when the client uploads identical content again")
+        void shouldReturnExistingDocumentForSameContent() {
+            ReflectionTestUtils.setField(documentService, "contentDedupEnabled", true);
+            Document existing = new Document(UUID.randomUUID(), clientId, "Passport", content, "Summary",
+                DocumentTaskStatus.READY, null, 0, DocumentTaskStatus.READY, 0, 0, null, null);
+            when(repository.findByContentHash(clientId, ContentHash.sha256(content))).thenReturn(Optional.of(existing));
+
+            DocumentResponse response = documentService.ingestDocument("Passport", content, clientId, Optional.empty());
+
+            assertThat(response.id()).isEqualTo(existing.id());
+            assertThat(response.summary()).isEqualTo("Summary");
+            verify(repository).lockForIngest(clientId, "content:" + ContentHash.sha256(content));
+            verify(repository, never()).save(any(Document.class), any());
+            verifyNoInteractions(workQueueRepository);
+        }
+
+        @Test
+        @DisplayName("Should store the Idempotency-Key with a new document")
+        void shouldStoreKeyWithNewDocument() {
+            Document saved = new Document(UUID.randomUUID(), clientId, "Passport", content, null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), eq("key-2"))).thenReturn(saved);
+
+            documentService.ingestDocument("Passport", content, clientId, Optional.of("key-2"));
+
+            verify(repository).save(any(Document.class), eq("key-2"));
+            verify(workQueueRepository).notifyChunksReady();
+        }
+
+        @Test
+        @DisplayName("Should create a new document for repeated content while content dedup is off")
+        void shouldNotDedupContentByDefault() {
+            Document saved = new Document(UUID.randomUUID(), clientId, "Passport", content, null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(saved);
+
+            DocumentResponse response = documentService.ingestDocument("Passport", content, clientId, Optional.empty());
+
+            assertThat(response.id()).isEqualTo(saved.id());
+            verify(repository, never()).findByContentHash(any(), any());
+            verify(repository, never()).lockForIngest(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Streamed ingest")
+    class StreamedIngestTest {
+
+        private final UUID clientId = UUID.randomUUID();
+        private final UUID docId = UUID.randomUUID();
+
+        @Test
+        @DisplayName("Should save chunks in several batches and store the full content once")
+        void shouldSaveChunksIncrementally() {
+            ReflectionTestUtils.setField(documentService, "streamWindowSize", 10_000);
+            String content = "Quarterly statement line with holdings and fees.\n".repeat(2000);
+            Document saved = new Document(docId, clientId, "Statement", "", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(saved);
+
+            DocumentResponse response = documentService.ingestDocumentStream("Statement", new StringReader(content), clientId, Optional.empty());
+
+            verify(chunkRepository, atLeast(2)).saveChunks(eq(docId), anyList());
+            verify(repository).updateContent(eq(docId), any(Reader.class), eq(ContentHash.sha256(content)));
+            verify(repository).updateStatus(docId, DocumentTaskStatus.PROCESSING);
+            verify(workQueueRepository).notifyChunksReady();
+            assertThat(response.status()).isEqualTo(DocumentTaskStatus.PROCESSING);
+            assertThat(response.content()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject a blank streamed body before touching the database")
+        void shouldRejectBlankBody() {
+            assertThatThrownBy(() -> documentService.ingestDocumentStream("Empty", new StringReader(" \n\t "), clientId, Optional.empty()))
+                .isInstanceOf(WrongQueryException.class);
+
+            verifyNoInteractions(repository, chunkRepository, workQueueRepository);
+        }
+
+        @Test
+        @DisplayName("Should return the existing document for a repeated Idempotency-Key")
+        void shouldReturnExistingDocumentForSameKey() {
+            Document existing = new Document(docId, clientId, "Statement", "Content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PROCESSING, 0, 0, null, null);
+            when(repository.findByIdempotencyKey(clientId, "key-1")).thenReturn(Optional.of(existing));
+
+            DocumentResponse response = documentService.ingestDocumentStream("Statement", new StringReader("Content"), clientId, Optional.of("key-1"));
+
+            assertThat(response.id()).isEqualTo(docId);
+            assertThat(response.content()).isNull();
+            verify(repository).lockForIngest(clientId, "key:key-1");
+            verify(repository, never()).save(any(Document.class), any());
+            verifyNoInteractions(chunkRepository);
+        }
+
+        @Test
+        @DisplayName("Should return the existing document for the same content when content dedup is on")
+        void shouldDedupStreamedContent() {
+            ReflectionTestUtils.setField(documentService, "contentDedupEnabled", true);
+            String contentHash = ContentHash.sha256("Content");
+            Document existing = new Document(docId, clientId, "Statement", "Content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.READY, 0, 0, null, null);
+            when(repository.findByContentHash(clientId, contentHash)).thenReturn(Optional.of(existing));
+
+            DocumentResponse response = documentService.ingestDocumentStream("Statement", new StringReader("Content"), clientId, Optional.empty());
+
+            assertThat(response.id()).isEqualTo(docId);
+            verify(repository).lockForIngest(clientId, "content:" + contentHash);
+            verify(repository, never()).save(any(Document.class), any());
+            verifyNoInteractions(chunkRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Asynchronous ingest")
+    class AsyncIngestTest {
+
+        private final UUID clientId = UUID.randomUUID();
+        private final UUID docId = UUID.randomUUID();
+
+        @Test
+        @DisplayName("Should persist only the raw document and queue it for splitting")
+        void shouldAcceptWithoutSplitting() {
+            Document saved = new Document(docId, clientId, "Title", "Content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null);
+            when(repository.save(any(Document.class), any())).thenReturn(saved);
+
+            DocumentResponse response = documentService.acceptDocument("Title", "Content", clientId, Optional.empty());
+
+            assertThat(response.status()).isEqualTo(DocumentTaskStatus.PENDING);
+            verify(workQueueRepository).enqueue(WorkType.SPLIT, docId);
+            verifyNoInteractions(chunkRepository);
+        }
+
+        @Test
+        @DisplayName("Should return the existing document for a repeated Idempotency-Key")
+        void shouldReturnExistingDocumentForSameKey() {
+            Document existing = new Document(docId, clientId, "Title", "Content", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PROCESSING, 0, 0, null, null);
+            when(repository.findByIdempotencyKey(clientId, "key-1")).thenReturn(Optional.of(existing));
+
+            DocumentResponse response = documentService.acceptDocument("Title", "Content", clientId, Optional.of("key-1"));
+
+            assertThat(response.id()).isEqualTo(docId);
+            verify(repository, never()).save(any(Document.class), any());
+            verifyNoInteractions(workQueueRepository);
+        }
+
+        @Test
+        @DisplayName("Should split a claimed document and start embedding")
+        void shouldSplitClaimedDocument() {
+            Document claimed = new Document(docId, clientId, "Title", "Some text to split.", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PROCESSING, 0, 0, null, null);
+            when(repository.claimForSplit(docId)).thenReturn(Optional.of(claimed));
+
+            documentService.splitDocument(docId);
+
+            verify(chunkRepository).saveChunks(eq(docId), anyList());
+            verify(workQueueRepository).notifyChunksReady();
+            verify(workQueueRepository).enqueue(WorkType.SUMMARIZE, docId);
+        }
+
+        @Test
+        @DisplayName("Should skip a document that was already split")
+        void shouldSkipWhenAlreadyClaimed() {
+            when(repository.claimForSplit(docId)).thenReturn(Optional.empty());
+
+            documentService.splitDocument(docId);
+
+            verifyNoInteractions(chunkRepository, workQueueRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk ingest batch")
+    class IngestBatchTest {
+
+        private final UUID clientId = UUID.randomUUID();
+
+        @Test
+        @DisplayName("Should copy new documents and chunks and queue them for background enrichment")
+        void shouldCopyNewDocumentsAndQueueBackfill() {
+            Map<Integer, BulkDocumentRequest> batch = new LinkedHashMap<>();
+            batch.put(1, new BulkDocumentRequest(clientId, "Passport", "Passport copy.", null));
+            batch.put(2, new BulkDocumentRequest(clientId, "Statement", "Bank statement.", "key-1"));
+
+            List<BulkIngestResult> results = documentService.ingestBatch(batch);
+
+            assertThat(results).extracting(BulkIngestResult::status)
+                .containsOnly(BulkIngestResult.Status.CREATED);
+
+            ArgumentCaptor<List<Document>> documents = ArgumentCaptor.forClass(List.class);
+            ArgumentCaptor<Map<UUID, String>> keys = ArgumentCaptor.forClass(Map.class);
+            verify(repository).copyAll(documents.capture(), keys.capture());
+            assertThat(documents.getValue()).extracting(Document::status).containsOnly(DocumentTaskStatus.PROCESSING);
+            assertThat(keys.getValue()).containsValue("key-1");
+
+            ArgumentCaptor<Map<UUID, List<TextSegment>>> chunks = ArgumentCaptor.forClass(Map.class);
+            verify(chunkRepository).saveChunks(chunks.capture(), eq(WorkItem.BACKGROUND_PRIORITY));
+            assertThat(chunks.getValue()).hasSize(2);
+
+            verify(workQueueRepository).notifyChunksReady();
+            ArgumentCaptor<List<UUID>> queued = ArgumentCaptor.forClass(List.class);
+            verify(workQueueRepository).enqueueAll(eq(WorkType.SUMMARIZE), queued.capture(), eq(WorkItem.BACKGROUND_PRIORITY));
+            assertThat(queued.getValue()).hasSize(2);
+            verify(workQueueRepository, never()).enqueue(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should report duplicates by key or content and reject reused keys")
+        void shouldDetectDuplicates() {
+            ReflectionTestUtils.setField(documentService, "contentDedupEnabled", true);
+            UUID keyedDoc = UUID.randomUUID();
+            UUID sameContentDoc = UUID.randomUUID();
+            when(repository.findIdentities(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of(
+                new DocumentIdentity(keyedDoc, clientId, ContentHash.sha256("Keyed content."), "key-1"),
+                new DocumentIdentity(sameContentDoc, clientId, ContentHash.sha256("Known content."), null)
+            ));
+
+            Map<Integer, BulkDocumentRequest> batch = new LinkedHashMap<>();
+            batch.put(1, new BulkDocumentRequest(clientId, "Retry", "Keyed content.", "key-1"));
+            batch.put(2, new BulkDocumentRequest(clientId, "Reused key", "Different content.", "key-1"));
+            batch.put(3, new BulkDocumentRequest(clientId, "Copy", "Known content.", null));
+            batch.put(4, new BulkDocumentRequest(clientId, "New", "Fresh content.", null));
+            batch.put(5, new BulkDocumentRequest(clientId, "New again", "Fresh content.", null));
+
+            List<BulkIngestResult> results = documentService.ingestBatch(batch);
+
+            assertThat(results).extracting(BulkIngestResult::status).containsExactly(
+                BulkIngestResult.Status.DUPLICATE,
+                BulkIngestResult.Status.REJECTED,
+                BulkIngestResult.Status.DUPLICATE,
+                BulkIngestResult.Status.CREATED,
+                BulkIngestResult.Status.DUPLICATE);
+            assertThat(results.get(0).documentId()).isEqualTo(keyedDoc);
+            assertThat(results.get(2).documentId()).isEqualTo(sameContentDoc);
+            assertThat(results.get(4).documentId()).isEqualTo(results.get(3).documentId());
+
+            ArgumentCaptor<List<Document>> documents = ArgumentCaptor.forClass(List.class);
+            verify(repository).copyAll(documents.capture(), anyMap());
+            assertThat(documents.getValue()).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should take all key locks, then all content locks, before looking for duplicates")
+        void shouldLockLinesBeforeLookup() {
+            ReflectionTestUtils.setField(documentService, "contentDedupEnabled", true);
+            UUID otherClientId = new UUID(0, 1);
+            UUID firstClientId = new UUID(0, 0);
+            Map<Integer, BulkDocumentRequest> batch = new LinkedHashMap<>();
+            batch.put(1, new BulkDocumentRequest(otherClientId, "B", "Content B.", "key-b"));
+            batch.put(2, new BulkDocumentRequest(firstClientId, "A", "Content A.", "key-a"));
+            batch.put(3, new BulkDocumentRequest(firstClientId, "A again", "Content A.", null));
+
+            documentService.ingestBatch(batch);
+
+            InOrder inOrder = inOrder(repository);
+            inOrder.verify(repository).lockForIngest(List.of(
+                Map.entry(firstClientId, "key:key-a"),
+                Map.entry(otherClientId, "key:key-b"),
+                Map.entry(firstClientId, "content:" + ContentHash.sha256("Content A.")),
+                Map.entry(otherClientId, "content:" + ContentHash.sha256("Content B."))
+            ));
+            inOrder.verify(repository).findIdentities(anyCollection(), anyCollection(), anyCollection());
+        }
+    }
+
     @Nested
     @DisplayName("Save embeddings")
     class DocumentSaveEmbeddingsTest {
@@ -169,7 +491,7 @@ class DocumentServiceTest {
             documentService.saveEmbeddings(docId, chunkId, null);
             documentService.saveEmbeddings(docId, chunkId, Map.of());
 
-            verify(chunkRepository, never()).insertChunkVector(any(), any(), any(), any());
+            verify(chunkRepository, never()).insertChunkVectors(any(), any(), any());
             verify(repository, never()).updateStatus(any(), any());
         }
 
@@ -181,10 +503,10 @@ class DocumentServiceTest {
             float[] vector1 = new float[]{0.1f};
             Map<String, float[]> embeddingMap = Map.of(term1, vector1);
 
-            when(chunkRepository.areAllChunksProcessed(docId)).thenReturn(false);
+            when(chunkRepository.markReady(chunkId)).thenReturn(Optional.of(2));
             documentService.saveEmbeddings(docId, chunkId, embeddingMap);
-            verify(chunkRepository).insertChunkVector(eq(docId), eq(chunkId), eq(term1), eq(vector1));
-            verify(chunkRepository).updateStatus(chunkId, DocumentTaskStatus.READY);
+            verify(chunkRepository).insertChunkVectors(docId, chunkId, embeddingMap);
+            verify(chunkRepository).markReady(chunkId);
             verify(repository, never()).updateStatus(any(), any());
         }
 
@@ -197,14 +519,107 @@ class DocumentServiceTest {
                 "term B", new float[]{0.2f}
             );
 
-            when(chunkRepository.areAllChunksProcessed(docId)).thenReturn(true);
+            when(chunkRepository.markReady(chunkId)).thenReturn(Optional.of(0));
             documentService.saveEmbeddings(docId, chunkId, embeddingMap);
 
-            verify(chunkRepository).insertChunkVector(eq(docId), eq(chunkId), eq("term A"), any(float[].class));
-            verify(chunkRepository).insertChunkVector(eq(docId), eq(chunkId), eq("term B"), any(float[].class));
+            verify(chunkRepository).insertChunkVectors(docId, chunkId, embeddingMap);
+            verify(chunkRepository, never()).insertChunkVector(any(), any(), any(), any());
 
-            verify(chunkRepository).updateStatus(chunkId, DocumentTaskStatus.READY);
-            verify(repository).updateStatus(docId, DocumentTaskStatus.READY);
+            verify(chunkRepository).markReady(chunkId);
+            verify(chunkRepository).deleteProvisionalVectors(chunkId);
+        }
+    }
+
+    @Nested
+    @DisplayName("Reuse embeddings")
+    class ReuseEmbeddingsTest {
+
+        private final UUID docId = UUID.randomUUID();
+        private final UUID chunkId = UUID.randomUUID();
+        private final String contentHash = "a".repeat(64);
+
+        @Test
+        @DisplayName("Should copy vectors from an identical READY chunk and mark the chunk as READY")
+        void reuseEmbeddings_KnownHash_CopiesVectors() {
+            UUID sourceChunkId = UUID.randomUUID();
+            when(chunkRepository.findReadyChunkIdByContentHash(contentHash)).thenReturn(Optional.of(sourceChunkId));
+            when(chunkRepository.markReady(chunkId)).thenReturn(Optional.of(0));
+
+            boolean reused = documentService.reuseEmbeddings(docId, chunkId, contentHash);
+
+            assertThat(reused).isTrue();
+            verify(chunkRepository).copyChunkVectors(sourceChunkId, docId, chunkId);
+            verify(chunkRepository).markReady(chunkId);
+        }
+
+        @Test
+        @DisplayName("Should do nothing when no processed chunk has the same content")
+        void reuseEmbeddings_UnknownHash_ReturnsFalse() {
+            when(chunkRepository.findReadyChunkIdByContentHash(contentHash)).thenReturn(Optional.empty());
+
+            boolean reused = documentService.reuseEmbeddings(docId, chunkId, contentHash);
+
+            assertThat(reused).isFalse();
+            verify(chunkRepository, never()).copyChunkVectors(any(), any(), any());
+            verify(chunkRepository, never()).markReady(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Document progress")
+    class ProgressTest {
+
+        @Test
+        @DisplayName("Should report the share of processed chunks from the document counters")
+        void getById_PartiallyProcessed_ReportsProgress() {
+            UUID docId = UUID.randomUUID();
+            when(repository.findById(docId)).thenReturn(Optional.of(new Document(docId, UUID.randomUUID(), "Title", "Content", null,
+                DocumentTaskStatus.PROCESSING, null, 0, DocumentTaskStatus.PROCESSING, 8, 6, null, null)));
+
+            DocumentResponse response = documentService.getById(docId);
+
+            assertThat(response.progress()).isEqualTo(25);
+        }
+
+        @Test
+        @DisplayName("Should queue the summary reduce step when the last chunk completes with combined enrichment")
+        void completeChunk_LastChunkCombined_QueuesSummary() {
+            ReflectionTestUtils.setField(documentService, "combinedEnrichment", true);
+            UUID docId = UUID.randomUUID();
+            UUID chunkId = UUID.randomUUID();
+            when(chunkRepository.markReady(chunkId)).thenReturn(Optional.of(0));
+
+            documentService.completeChunk(docId, chunkId);
+
+            verify(workQueueRepository).enqueue(WorkType.SUMMARIZE, docId);
+        }
+
+        @Test
+        @DisplayName("Should not queue a document summary at ingest with combined enrichment")
+        void ingest_Combined_QueuesOnlyEmbedding() {
+            ReflectionTestUtils.setField(documentService, "combinedEnrichment", true);
+            UUID docId = UUID.randomUUID();
+            UUID clientId = UUID.randomUUID();
+            when(repository.save(any(Document.class), any())).thenReturn(new Document(docId, clientId, "Short", "Short text.", null,
+                DocumentTaskStatus.PENDING, null, 0, DocumentTaskStatus.PENDING, 0, 0, null, null));
+
+            documentService.ingestDocument("Short", "Short text.", clientId, Optional.empty());
+
+            verify(workQueueRepository).notifyChunksReady();
+            verify(workQueueRepository, never()).enqueue(eq(WorkType.SUMMARIZE), any());
+        }
+
+        @Test
+        @DisplayName("Should not change the document when the chunk was already ready")
+        void completeChunk_AlreadyReady_DoesNothing() {
+            UUID docId = UUID.randomUUID();
+            UUID chunkId = UUID.randomUUID();
+            when(chunkRepository.markReady(chunkId)).thenReturn(Optional.empty());
+
+            documentService.completeChunk(docId, chunkId);
+
+            verify(repository, never()).updateStatus(any(), any());
+            verify(chunkRepository, never()).deleteProvisionalVectors(any());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.nevis.search.service;
+
+import com.nevis.search.infra.RateLimiter;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EmbeddingBatcherTest {
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+    @Mock
+    private RateLimiter embeddingLimiter;
+    @Mock
+    private EmbeddingTokenAccountant tokenAccountant;
+
+    private EmbeddingBatcherImpl batcher;
+
+    @BeforeEach
+    void setUp() {
+        when(embeddingLimiter.execute(anyString(), anyInt(), any()))
+            .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(2)).get());
+
+        when(embeddingModel.embedAll(anyList())).thenAnswer(inv -> {
+            List<TextSegment> segments = inv.getArgument(0);
+            return Response.from(segments.stream()
+                .map(segment -> new Embedding(new float[]{segment.text().length()}))
+                .toList());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    private void startBatcher(int maxBatchSize, long lingerMs) {
+        batcher = new EmbeddingBatcherImpl(embeddingModel, embeddingLimiter, tokenAccountant, maxBatchSize, lingerMs);
+        batcher.start();
+    }
+
+    @Test
+    @DisplayName("Should pack requests submitted within the linger window into one embedAll call")
+    void shouldPackRequestsIntoOneCall() throws Exception {
+        startBatcher(100, 300);
+
+        CompletableFuture<List<Embedding>> first = batcher.submit(List.of("a", "bb"));
+        CompletableFuture<List<Embedding>> second = batcher.submit(List.of("ccc"));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).extracting(e -> e.vector()[0]).containsExactly(1f, 2f);
+        assertThat(second.get(5, TimeUnit.SECONDS)).extracting(e -> e.vector()[0]).containsExactly(3f);
+
+        verify(embeddingModel, times(1)).embedAll(anyList());
+        verify(embeddingLimiter, times(1)).execute(eq(EmbeddingServiceImpl.EMBEDDING_LIMIT), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should flush without waiting for linger once the batch is full")
+    void shouldFlushWhenBatchIsFull() throws Exception {
+        startBatcher(2, 60_000);
+
+        CompletableFuture<List<Embedding>> first = batcher.submit(List.of("a"));
+        CompletableFuture<List<Embedding>> second = batcher.submit(List.of("b"));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).hasSize(1);
+        assertThat(second.get(5, TimeUnit.SECONDS)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should split a request larger than the max batch size across several calls")
+    void shouldSplitOversizedRequest() throws Exception {
+        startBatcher(2, 50);
+
+        List<Embedding> result = batcher.submit(List.of("a", "bb", "ccc", "dddd", "eeeee")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).extracting(e -> e.vector()[0]).containsExactly(1f, 2f, 3f, 4f, 5f);
+
+        ArgumentCaptor<List<TextSegment>> captor = ArgumentCaptor.forClass(List.class);
+        verify(embeddingModel, times(3)).embedAll(captor.capture());
+        assertThat(captor.getAllValues()).allMatch(call -> call.size() <= 2);
+    }
+
+    @Test
+    @DisplayName("Should fail every request of a batch when the model call fails")
+    void shouldPropagateFailureToAllRequests() {
+        when(embeddingModel.embedAll(anyList())).thenThrow(new RuntimeException("API Down"));
+        startBatcher(100, 200);
+
+        CompletableFuture<List<Embedding>> first = batcher.submit(List.of("a"));
+        CompletableFuture<List<Embedding>> second = batcher.submit(List.of("b"));
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("API Down");
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("API Down");
+    }
+
+    @Test
+    @DisplayName("Should complete empty requests immediately without calling the model")
+    void shouldCompleteEmptyRequestImmediately() {
+        startBatcher(100, 200);
+
+        assertThat(batcher.submit(List.of())).isCompletedWithValue(List.of());
+        verifyNoInteractions(embeddingModel);
+    }
+}
@@ -1,7 +1,13 @@
 package com.nevis.search.service;
 
+import com.nevis.search.exception.BacklogExceededException;
 import com.nevis.search.exception.EmbeddingException;
+import com.nevis.search.exception.MalformedEnrichmentException;
+import com.nevis.search.infra.ContentHash;
+import com.nevis.search.infra.PooledEmbeddingModel;
+import com.nevis.search.infra.Priority;
 import com.nevis.search.infra.RateLimiter;
+import com.nevis.search.model.ChunkEnrichment;
 import com.nevis.search.model.DocumentChunk;
 import com.nevis.search.model.DocumentTaskStatus;
 import com.nevis.search.repository.DocumentChunkRepository;
@@ -22,10 +28,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -49,6 +63,14 @@ class EmbeddingServiceTest {
     private RateLimiter chatLimiter;
     @Mock
     private RateLimiter embeddingLimiter;
+    @Mock
+    private EmbeddingTokenAccountant tokenAccountant;
+    @Mock
+    private TermEmbeddingService termEmbeddingService;
+    @Mock
+    private QueryEmbeddingCache queryEmbeddingCache;
+    @Mock
+    private ChunkEnrichmentService chunkEnrichmentService;
 
     private EmbeddingServiceImpl embeddingService;
 
@@ -57,6 +79,10 @@ class EmbeddingServiceTest {
         embeddingService = new EmbeddingServiceImpl(
             chatLimiter,
             embeddingLimiter,
+            tokenAccountant,
+            termEmbeddingService,
+            queryEmbeddingCache,
+            chunkEnrichmentService,
             documentService,
             chunkRepository,
             embeddingModel,
@@ -65,51 +91,78 @@ class EmbeddingServiceTest {
 
         when(chatLimiter.execute(anyString(), anyInt(), any()))
             .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(2)).get());
-
-        when(embeddingLimiter.execute(anyString(), anyInt(), any()))
-            .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(2)).get());
+        when(embeddingLimiter.reserve(anyString(), anyInt(), any(Priority.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        ReflectionTestUtils.setField(embeddingService, "queryQuotaWait", Duration.ofSeconds(2));
     }
 
     @Nested
-    @DisplayName("generateForDocument Tests")
-    class GenerateForDocumentTests {
+    @DisplayName("processChunk Tests")
+    class ProcessChunkTests {
 
         @Test
-        @DisplayName("Should successfully process all pending chunks")
-        void shouldProcessAllPendingChunks() {
+        @DisplayName("Should extract terms and save their embeddings")
+        void shouldSaveEmbeddingsForExtractedTerms() {
             UUID docId = UUID.randomUUID();
             DocumentChunk chunk = createChunk(docId, "Sample content");
 
-            when(chunkRepository.countPendingByDocumentId(docId)).thenReturn(1);
-            when(chunkRepository.claimNextPendingChunk(eq(docId), anyInt())).thenReturn(Optional.of(chunk));
             when(chatModel.chat(anyString())).thenReturn("Tax, KYC, AML");
 
             float[] vector = new float[]{0.1f, 0.2f};
-            Response<List<Embedding>> mockResponse = Response.from(List.of(
-                new Embedding(vector), new Embedding(vector), new Embedding(vector)
+            when(termEmbeddingService.embedTerms(anyList())).thenReturn(Map.of(
+                "Tax", vector, "KYC", vector, "AML", vector
             ));
-            when(embeddingModel.embedAll(anyList())).thenReturn(mockResponse);
 
-            embeddingService.generateForDocument(docId);
+            embeddingService.processChunk(chunk);
 
             verify(documentService).saveEmbeddings(eq(docId), eq(chunk.id()), anyMap());
             verify(chunkRepository, never()).markAsFailed(any(), any());
         }
 
+        @Test
+        @DisplayName("Should store the chunk summary and embed the terms from one combined enrichment call")
+        void shouldUseCombinedEnrichment() {
+            ReflectionTestUtils.setField(embeddingService, "combinedEnrichment", true);
+            UUID docId = UUID.randomUUID();
+            DocumentChunk chunk = createChunk(docId, "Sample content");
+
+            when(chunkEnrichmentService.enrich(chunk)).thenReturn(new ChunkEnrichment(List.of("Tax", "KYC"), "Covers tax residency."));
+            when(termEmbeddingService.embedTerms(List.of("Tax", "KYC"))).thenReturn(Map.of("Tax", new float[]{0.1f}, "KYC", new float[]{0.2f}));
+
+            embeddingService.processChunk(chunk);
+
+            verify(chatModel, never()).chat(anyString());
+            verify(chunkRepository).updateChunkSummary(chunk.id(), "Covers tax residency.");
+            verify(documentService).saveEmbeddings(eq(docId), eq(chunk.id()), anyMap());
+        }
+
+        @Test
+        @DisplayName("Should reuse embeddings of an identical processed chunk without calling the models")
+        void shouldReuseEmbeddingsForKnownContent() {
+            UUID docId = UUID.randomUUID();
+            DocumentChunk chunk = createChunk(docId, "Standard disclaimer");
+
+            when(documentService.reuseEmbeddings(docId, chunk.id(), ContentHash.sha256("Standard disclaimer"))).thenReturn(true);
+
+            embeddingService.processChunk(chunk);
+
+            verifyNoInteractions(chatModel, termEmbeddingService);
+            verify(documentService, never()).saveEmbeddings(any(), any(), anyMap());
+            verify(chunkRepository, never()).markAsFailed(any(), any());
+        }
+
         @Test
         @DisplayName("Should handle empty terms from LLM by marking chunk as ready")
         void shouldHandleEmptyTerms() {
             UUID docId = UUID.randomUUID();
             DocumentChunk chunk = createChunk(docId, "Content");
 
-            when(chunkRepository.countPendingByDocumentId(docId)).thenReturn(1);
-            when(chunkRepository.claimNextPendingChunk(eq(docId), anyInt())).thenReturn(Optional.of(chunk));
             when(chatModel.chat(anyString())).thenReturn("");
 
-            embeddingService.generateForDocument(docId);
+            embeddingService.processChunk(chunk);
 
-            verify(chunkRepository).updateStatus(chunk.id(), DocumentTaskStatus.READY);
-            verify(embeddingModel, never()).embedAll(anyList());
+            verify(documentService).completeChunk(docId, chunk.id());
+            verify(termEmbeddingService, never()).embedTerms(anyList());
         }
 
         @Test
@@ -118,43 +171,116 @@ class EmbeddingServiceTest {
             UUID docId = UUID.randomUUID();
             DocumentChunk chunk = createChunk(docId, "Error content");
 
-            when(chunkRepository.countPendingByDocumentId(docId)).thenReturn(1);
-            when(chunkRepository.claimNextPendingChunk(eq(docId), anyInt())).thenReturn(Optional.of(chunk));
             when(chatModel.chat(anyString())).thenThrow(new RuntimeException("API Down"));
 
-            embeddingService.generateForDocument(docId);
+            embeddingService.processChunk(chunk);
 
             verify(chunkRepository).markAsFailed(eq(chunk.id()), contains("API Down"));
         }
 
         @Test
-        @DisplayName("Should do nothing if no pending chunks found")
-        void shouldHandleNoPendingChunks() {
+        @DisplayName("Should rate limit term extraction and resolve the extracted terms")
+        void shouldRespectRateLimits() {
             UUID docId = UUID.randomUUID();
-            when(chunkRepository.countPendingByDocumentId(docId)).thenReturn(0);
+            DocumentChunk chunk = createChunk(docId, "Test content");
+
+            when(chatModel.chat(anyString())).thenReturn("Term1, Term2");
+            when(termEmbeddingService.embedTerms(anyList())).thenReturn(Map.of("Term1", new float[0], "Term2", new float[0]));
 
-            embeddingService.generateForDocument(docId);
+            embeddingService.processChunk(chunk);
 
-            verify(chunkRepository, never()).claimNextPendingChunk(any(), anyInt());
-            verifyNoInteractions(chatModel, embeddingModel, documentService);
+            verify(chatLimiter).execute(eq(EmbeddingServiceImpl.CHAT_LIMIT), eq(1), any());
+            verify(termEmbeddingService).embedTerms(List.of("Term1", "Term2"));
         }
 
         @Test
-        @DisplayName("Should respect rate limits with correct token estimates")
-        void shouldRespectRateLimits() {
+        @DisplayName("Should mark chunk as failed with the root cause when the embedding batch fails")
+        void shouldMarkAsFailedWhenBatchFails() {
             UUID docId = UUID.randomUUID();
-            DocumentChunk chunk = createChunk(docId, "Test content");
-            String terms = "Term1, Term2"; // 12 characters
+            DocumentChunk chunk = createChunk(docId, "Content");
 
-            when(chunkRepository.countPendingByDocumentId(docId)).thenReturn(1);
-            when(chunkRepository.claimNextPendingChunk(eq(docId), anyInt())).thenReturn(Optional.of(chunk));
-            when(chatModel.chat(anyString())).thenReturn(terms);
-            when(embeddingModel.embedAll(anyList())).thenReturn(Response.from(List.of(new Embedding(new float[0]), new Embedding(new float[0]))));
+            when(chatModel.chat(anyString())).thenReturn("Term1");
+            when(termEmbeddingService.embedTerms(anyList()))
+                .thenThrow(new CompletionException(new RuntimeException("Quota exhausted")));
 
-            embeddingService.generateForDocument(docId);
+            embeddingService.processChunk(chunk);
 
-            verify(chatLimiter).execute(eq(EmbeddingServiceImpl.CHAT_LIMIT), eq(1), any());
-            verify(embeddingLimiter).execute(eq(EmbeddingServiceImpl.EMBEDDING_LIMIT), anyInt(), any());
+            verify(chunkRepository).markAsFailed(chunk.id(), "Quota exhausted");
+            verify(documentService, never()).saveEmbeddings(any(), any(), anyMap());
+        }
+    }
+
+    @Nested
+    @DisplayName("processChunks Tests")
+    class ProcessChunksTests {
+
+        @Test
+        @DisplayName("Should enrich all chunks with one packed request and embed each chunk's terms")
+        void shouldFanOutPackedEnrichment() {
+            DocumentChunk first = createChunk(UUID.randomUUID(), "First content");
+            DocumentChunk second = createChunk(UUID.randomUUID(), "Second content");
+            when(chunkEnrichmentService.enrichAll(List.of(first, second))).thenReturn(Map.of(
+                first.id(), new ChunkEnrichment(List.of("Tax"), "First summary."),
+                second.id(), new ChunkEnrichment(List.of("KYC"), "Second summary.")
+            ));
+            when(termEmbeddingService.embedTerms(anyList())).thenReturn(Map.of("term", new float[]{0.1f}));
+
+            embeddingService.processChunks(List.of(first, second));
+
+            verify(chatLimiter, times(1)).execute(eq(EmbeddingServiceImpl.CHAT_LIMIT), eq(1), any());
+            verify(chatModel, never()).chat(anyString());
+            verify(termEmbeddingService).embedTerms(List.of("Tax"));
+            verify(termEmbeddingService).embedTerms(List.of("KYC"));
+            verify(documentService).saveEmbeddings(eq(first.documentId()), eq(first.id()), anyMap());
+            verify(documentService).saveEmbeddings(eq(second.documentId()), eq(second.id()), anyMap());
+            verify(chunkRepository).updateChunkSummary(first.id(), "First summary.");
+        }
+
+        @Test
+        @DisplayName("Should fall back to single requests when the packed output is malformed")
+        void shouldFallBackOnMalformedOutput() {
+            DocumentChunk first = createChunk(UUID.randomUUID(), "First content");
+            DocumentChunk second = createChunk(UUID.randomUUID(), "Second content");
+            when(chunkEnrichmentService.enrichAll(anyList())).thenThrow(new MalformedEnrichmentException("bad json"));
+            when(chatModel.chat(anyString())).thenReturn("Tax");
+            when(termEmbeddingService.embedTerms(anyList())).thenReturn(Map.of("Tax", new float[]{0.1f}));
+
+            embeddingService.processChunks(List.of(first, second));
+
+            verify(chatModel, times(2)).chat(anyString());
+            verify(documentService).saveEmbeddings(eq(first.documentId()), eq(first.id()), anyMap());
+            verify(documentService).saveEmbeddings(eq(second.documentId()), eq(second.id()), anyMap());
+            verify(chunkRepository, never()).markAsFailed(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should enrich a chunk missing from the packed output on its own")
+        void shouldEnrichMissingChunkSeparately() {
+            DocumentChunk first = createChunk(UUID.randomUUID(), "First content");
+            DocumentChunk second = createChunk(UUID.randomUUID(), "Second content");
+            when(chunkEnrichmentService.enrichAll(anyList())).thenReturn(Map.of(first.id(), new ChunkEnrichment(List.of(), null)));
+            when(chatModel.chat(anyString())).thenReturn("KYC");
+            when(termEmbeddingService.embedTerms(anyList())).thenReturn(Map.of("KYC", new float[]{0.1f}));
+
+            embeddingService.processChunks(List.of(first, second));
+
+            verify(documentService).completeChunk(first.documentId(), first.id());
+            verify(chatModel, times(1)).chat(anyString());
+            verify(documentService).saveEmbeddings(eq(second.documentId()), eq(second.id()), anyMap());
+        }
+
+        @Test
+        @DisplayName("Should mark every chunk as failed when the packed request itself fails")
+        void shouldFailAllChunksOnRequestError() {
+            DocumentChunk first = createChunk(UUID.randomUUID(), "First content");
+            DocumentChunk second = createChunk(UUID.randomUUID(), "Second content");
+            when(chunkEnrichmentService.enrichAll(anyList())).thenThrow(new RuntimeException("429 Too Many Requests"));
+
+            embeddingService.processChunks(List.of(first, second));
+
+            verify(chatModel, never()).chat(anyString());
+            verify(chunkRepository).markAsFailed(first.id(), "429 Too Many Requests");
+            verify(chunkRepository).markAsFailed(second.id(), "429 Too Many Requests");
         }
     }
 
@@ -175,6 +301,47 @@ class EmbeddingServiceTest {
             verify(embeddingModel).embed("what is kyc?");
         }
 
+        @Test
+        @DisplayName("Should rate limit query embeddings as interactive work")
+        void shouldReserveInteractiveQuota() {
+            when(embeddingModel.embed(anyString())).thenReturn(Response.from(new Embedding(new float[]{0.5f})));
+
+            embeddingService.embedQuery("What is KYC?");
+
+            verify(embeddingLimiter).reserve(eq(EmbeddingServiceImpl.EMBEDDING_LIMIT), anyInt(), eq(Priority.INTERACTIVE));
+        }
+
+        @Test
+        @DisplayName("Should wait for a pooled member's quota as interactive work within the query wait")
+        void shouldBoundPooledMemberWait() {
+            PooledEmbeddingModel pooledModel = mock(PooledEmbeddingModel.class);
+            when(pooledModel.embed(anyString(), any(Priority.class), any(Duration.class)))
+                .thenReturn(Response.from(new Embedding(new float[]{0.5f})));
+            EmbeddingServiceImpl service = new EmbeddingServiceImpl(chatLimiter, embeddingLimiter, tokenAccountant, termEmbeddingService,
+                queryEmbeddingCache, chunkEnrichmentService, documentService, chunkRepository, pooledModel, chatModel);
+            ReflectionTestUtils.setField(service, "queryQuotaWait", Duration.ofSeconds(2));
+
+            service.embedQuery("What is KYC?");
+
+            ArgumentCaptor<Duration> maxWait = ArgumentCaptor.forClass(Duration.class);
+            verify(pooledModel).embed(eq("what is kyc?"), eq(Priority.INTERACTIVE), maxWait.capture());
+            assertThat(maxWait.getValue()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(2));
+        }
+
+        @Test
+        @DisplayName("Should fail with 503 instead of waiting indefinitely for embedding quota")
+        void shouldGiveUpWhenQuotaIsNotGrantedInTime() {
+            CompletableFuture<Void> neverGranted = new CompletableFuture<>();
+            when(embeddingLimiter.reserve(anyString(), anyInt(), eq(Priority.INTERACTIVE))).thenReturn(neverGranted);
+            ReflectionTestUtils.setField(embeddingService, "queryQuotaWait", Duration.ofMillis(20));
+
+            assertThatThrownBy(() -> embeddingService.embedQuery("What is KYC?"))
+                .isInstanceOfSatisfying(BacklogExceededException.class, e -> assertThat(e.isOverloaded()).isTrue());
+
+            assertThat(neverGranted).isCancelled();
+            verifyNoInteractions(embeddingModel);
+        }
+
         @ParameterizedTest
         @NullAndEmptySource
         @ValueSource(strings = {"   ", "\n", "\t"})
@@ -228,9 +395,33 @@ class EmbeddingServiceTest {
 
             verify(embeddingModel).embed(sanitized);
         }
+
+        @Test
+        @DisplayName("Should return cached vector without calling the model")
+        void shouldReturnCachedVector() {
+            float[] cachedVector = new float[]{0.7f, 0.3f};
+            when(queryEmbeddingCache.find("tax return")).thenReturn(Optional.of(cachedVector));
+
+            float[] result = embeddingService.embedQuery("  Tax \t Return ");
+
+            assertThat(result).isEqualTo(cachedVector);
+            verifyNoInteractions(embeddingModel);
+            verify(queryEmbeddingCache, never()).put(anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should store freshly generated vector in the cache")
+        void shouldCacheGeneratedVector() {
+            float[] vector = new float[]{0.1f, 0.9f};
+            when(embeddingModel.embed("passport")).thenReturn(Response.from(new Embedding(vector)));
+
+            embeddingService.embedQuery("Passport");
+
+            verify(queryEmbeddingCache).put("passport", vector);
+        }
     }
 
     private DocumentChunk createChunk(UUID docId, String content) {
-        return new DocumentChunk(UUID.randomUUID(), docId, content, null, DocumentTaskStatus.PENDING, null, 0, null, null);
+        return new DocumentChunk(UUID.randomUUID(), docId, content, ContentHash.sha256(content), null, DocumentTaskStatus.PENDING, null, 0, null, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.nevis.search.service;
+
+import com.nevis.search.infra.Priority;
+import com.nevis.search.infra.RateLimiter;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmbeddingTokenAccountantTest {
+
+    private final RateLimiter embeddingLimiter = mock(RateLimiter.class);
+    private final RateLimiter tokenCountLimiter = mock(RateLimiter.class);
+    private final TokenCountEstimator tokenCountEstimator = mock(TokenCountEstimator.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @SuppressWarnings("unchecked")
+    private EmbeddingTokenAccountantImpl accountant(double sampleRate) {
+        ObjectProvider<TokenCountEstimator> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(tokenCountEstimator);
+        return new EmbeddingTokenAccountantImpl(embeddingLimiter, tokenCountLimiter, provider, meterRegistry, 4.0, sampleRate, 0.5);
+    }
+
+    @Test
+    @DisplayName("Should estimate from the initial characters-per-token ratio")
+    void shouldEstimateFromInitialRatio() {
+        assertThat(accountant(0).estimate(List.of("a".repeat(40), "b".repeat(40)))).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should reconcile the limiter and recalibrate from reported usage")
+    void shouldSettleWithReportedUsage() {
+        EmbeddingTokenAccountantImpl accountant = accountant(0);
+        List<String> texts = List.of("a".repeat(80));
+
+        accountant.settle(texts, 20, new TokenUsage(40));
+
+        verify(embeddingLimiter).reconcile(EmbeddingServiceImpl.EMBEDDING_LIMIT, 20, 40);
+        assertThat(accountant.estimate(texts)).isEqualTo(27);
+        assertThat(meterRegistry.get("embedding.tokens.chars_per_token").gauge().value()).isEqualTo(3.0);
+        verifyNoInteractions(tokenCountEstimator);
+    }
+
+    @Test
+    @DisplayName("Should count a sampled batch in one call under its own limiter off the caller's thread when usage is missing")
+    void shouldCountSampledCalls() {
+        when(tokenCountLimiter.execute(anyString(), anyInt(), any(Priority.class), any()))
+            .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(3)).get());
+        when(tokenCountEstimator.estimateTokenCountInText("first\nsecond")).thenReturn(20);
+
+        accountant(1.0).settle(List.of("first", "second"), 4, null);
+
+        verify(embeddingLimiter, timeout(1000)).reconcile(EmbeddingServiceImpl.EMBEDDING_LIMIT, 4, 20);
+        verify(tokenCountEstimator, times(1)).estimateTokenCountInText(anyString());
+        verify(tokenCountLimiter).execute(eq(EmbeddingTokenAccountantImpl.TOKEN_COUNT_LIMIT), eq(0), eq(Priority.BACKGROUND), any());
+        verify(embeddingLimiter, never()).execute(anyString(), anyInt(), any(Priority.class), any());
+    }
+
+    @Test
+    @DisplayName("Should leave the reservation as is when no real count is available")
+    void shouldSkipWithoutCount() {
+        accountant(0).settle(List.of("text"), 1, null);
+
+        verify(embeddingLimiter, never()).reconcile(anyString(), anyInt(), anyInt());
+    }
+}
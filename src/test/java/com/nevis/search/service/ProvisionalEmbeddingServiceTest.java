@@ -0,0 +1,72 @@
+package com.nevis.search.service;
+
+import com.nevis.search.model.DocumentChunk;
+import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.repository.DocumentChunkRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProvisionalEmbeddingServiceTest {
+
+    private final DocumentChunkRepository chunkRepository = mock(DocumentChunkRepository.class);
+    private final EmbeddingBatcher embeddingBatcher = mock(EmbeddingBatcher.class);
+    private final ProvisionalEmbeddingService service = new ProvisionalEmbeddingServiceImpl(chunkRepository, embeddingBatcher);
+
+    @Test
+    @DisplayName("Should embed the raw text of claimed chunks in one batch and store provisional vectors")
+    @SuppressWarnings("unchecked")
+    void shouldStoreProvisionalVectors() {
+        DocumentChunk first = createChunk("First content");
+        DocumentChunk second = createChunk("Second content");
+        when(chunkRepository.claimForProvisionalEmbedding(100)).thenReturn(List.of(first, second));
+        when(embeddingBatcher.submit(List.of("First content", "Second content"))).thenReturn(CompletableFuture.completedFuture(List.of(
+            Embedding.from(new float[]{0.1f}), Embedding.from(new float[]{0.2f})
+        )));
+
+        int claimed = service.embedNewChunks(100);
+
+        assertThat(claimed).isEqualTo(2);
+        ArgumentCaptor<Map<UUID, float[]>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(chunkRepository).insertProvisionalVectors(captor.capture());
+        assertThat(captor.getValue()).containsOnlyKeys(first.id(), second.id());
+        assertThat(captor.getValue().get(second.id())).containsExactly(0.2f);
+    }
+
+    @Test
+    @DisplayName("Should not call the embedding model when no chunk is waiting")
+    void shouldSkipWhenNothingClaimed() {
+        when(chunkRepository.claimForProvisionalEmbedding(anyInt())).thenReturn(List.of());
+
+        assertThat(service.embedNewChunks(100)).isZero();
+
+        verifyNoInteractions(embeddingBatcher);
+    }
+
+    @Test
+    @DisplayName("Should release the claimed chunks for the next poll when the embedding batch fails")
+    void shouldReleaseChunksOnEmbeddingFailure() {
+        DocumentChunk chunk = createChunk("Content");
+        when(chunkRepository.claimForProvisionalEmbedding(anyInt())).thenReturn(List.of(chunk));
+        when(embeddingBatcher.submit(anyList())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("quota")));
+
+        assertThat(service.embedNewChunks(100)).isZero();
+
+        verify(chunkRepository, never()).insertProvisionalVectors(any());
+        verify(chunkRepository).releaseProvisionalClaims(List.of(chunk.id()));
+    }
+
+    private DocumentChunk createChunk(String content) {
+        return new DocumentChunk(UUID.randomUUID(), UUID.randomUUID(), content, null, null, DocumentTaskStatus.PENDING, null, 0, null, null);
+    }
+}
@@ -0,0 +1,103 @@
+package com.nevis.search.service;
+
+import com.nevis.search.repository.QueryEmbeddingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class QueryEmbeddingCacheTest {
+
+    private static final String MODEL_VERSION = "test-model@2";
+
+    @Mock
+    private QueryEmbeddingRepository queryEmbeddingRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated queries from memory without touching the database")
+    void shouldServeFromMemory() {
+        QueryEmbeddingCacheImpl cache = createCache(true);
+        float[] vector = {0.1f, 0.2f};
+
+        cache.put("passport", vector);
+
+        assertThat(cache.find("passport")).contains(vector);
+        verify(queryEmbeddingRepository, never()).find(anyString(), anyString(), any());
+        assertThat(count("memory", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database tier and promote the hit to memory")
+    void shouldPromoteDatabaseHit() {
+        QueryEmbeddingCacheImpl cache = createCache(true);
+        float[] vector = {0.3f};
+        when(queryEmbeddingRepository.find(eq("tax return"), eq(MODEL_VERSION), any(Duration.class)))
+            .thenReturn(Optional.of(vector));
+
+        assertThat(cache.find("tax return")).contains(vector);
+        assertThat(cache.find("tax return")).contains(vector);
+
+        verify(queryEmbeddingRepository, times(1)).find(anyString(), anyString(), any());
+        assertThat(count("database", "hit")).isEqualTo(1);
+        assertThat(count("memory", "hit")).isEqualTo(1);
+        assertThat(count("memory", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not use the database tier when persistence is disabled")
+    void shouldSkipDatabaseWhenDisabled() {
+        QueryEmbeddingCacheImpl cache = createCache(false);
+
+        assertThat(cache.find("passport")).isEmpty();
+        cache.put("passport", new float[]{1f});
+        cache.purgeExpired();
+
+        verifyNoInteractions(queryEmbeddingRepository);
+    }
+
+    @Test
+    @DisplayName("Should treat database failures as cache misses")
+    void shouldTreatDatabaseFailureAsMiss() {
+        QueryEmbeddingCacheImpl cache = createCache(true);
+        when(queryEmbeddingRepository.find(anyString(), anyString(), any()))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+        doThrow(new DataAccessResourceFailureException("down"))
+            .when(queryEmbeddingRepository).save(anyString(), anyString(), any());
+
+        assertThat(cache.find("passport")).isEmpty();
+        cache.put("passport", new float[]{1f});
+
+        assertThat(count("database", "miss")).isEqualTo(1);
+        assertThat(cache.find("passport")).isPresent();
+    }
+
+    private QueryEmbeddingCacheImpl createCache(boolean persistentEnabled) {
+        return new QueryEmbeddingCacheImpl(queryEmbeddingRepository, meterRegistry, MODEL_VERSION, 100, 60, persistentEnabled, 168);
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.counter("search.query_embedding.cache", "tier", tier, "result", result).count();
+    }
+}
@@ -0,0 +1,59 @@
+package com.nevis.search.service;
+
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingTextSplitterTest {
+
+    private final DocumentSplitter splitter = DocumentSplitters.recursive(300, 30);
+
+    @Test
+    @DisplayName("Should emit segments window by window and cover the whole text")
+    void shouldSplitIncrementally() throws Exception {
+        String text = String.join("\n\n", IntStream.range(0, 200)
+            .mapToObj(i -> "Paragraph " + i + " describes the source of wealth for account review number " + i + ".")
+            .toList());
+
+        List<List<TextSegment>> batches = new ArrayList<>();
+
+        new StreamingTextSplitter(splitter, 2000).split(new StringReader(text), batches::add);
+
+        List<TextSegment> segments = batches.stream().flatMap(List::stream).toList();
+
+        assertThat(batches).hasSizeGreaterThan(1);
+        assertThat(segments).allMatch(segment -> segment.text().length() <= 300);
+        IntStream.range(0, 200).forEach(i ->
+            assertThat(segments).anyMatch(segment -> segment.text().contains("account review number " + i + ".")));
+    }
+
+    @Test
+    @DisplayName("Should produce the same segments as a whole-document split when the text fits one window")
+    void shouldMatchWholeDocumentSplitForSmallText() throws Exception {
+        String text = "Tax residency certificate. ".repeat(40);
+        List<TextSegment> segments = new ArrayList<>();
+
+        new StreamingTextSplitter(splitter, 10_000).split(new StringReader(text), segments::addAll);
+
+        assertThat(segments).isEqualTo(splitter.split(dev.langchain4j.data.document.Document.from(text)));
+    }
+
+    @Test
+    @DisplayName("Should emit nothing for blank input")
+    void shouldIgnoreBlankInput() throws Exception {
+        List<List<TextSegment>> batches = new ArrayList<>();
+
+        new StreamingTextSplitter(splitter, 100).split(new StringReader("  \n\t "), batches::add);
+
+        assertThat(batches).isEmpty();
+    }
+}
@@ -3,6 +3,7 @@ package com.nevis.search.service;
 import com.nevis.search.infra.RateLimiter;
 import com.nevis.search.model.Document;
 import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.repository.DocumentChunkRepository;
 import com.nevis.search.repository.DocumentRepository;
 import dev.langchain4j.model.chat.ChatModel;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,6 +28,9 @@ class SummaryGeneratorServiceTest {
     @Mock
     private DocumentRepository documentRepository;
 
+    @Mock
+    private DocumentChunkRepository chunkRepository;
+
     @Mock
     private ChatModel chatModel;
 
@@ -39,7 +44,7 @@ class SummaryGeneratorServiceTest {
 
     @BeforeEach
     void setUp() {
-        summaryGeneratorService = new SummaryGeneratorServiceImpl(documentRepository, chatModel, chatLimiter);
+        summaryGeneratorService = new SummaryGeneratorServiceImpl(documentRepository, chunkRepository, chatModel, chatLimiter);
         
         ReflectionTestUtils.setField(summaryGeneratorService, "maxSummaryChars", 200000);
         ReflectionTestUtils.setField(summaryGeneratorService, "maxAttempts", maxAttempts);
@@ -124,6 +129,48 @@ class SummaryGeneratorServiceTest {
         verify(chatModel).chat((String) argThat(prompt -> ((String)prompt).contains("Content th")));
     }
 
+    @Test
+    @DisplayName("Should reduce chunk summaries into the document summary when enrichment is combined")
+    void shouldReduceChunkSummaries() {
+        ReflectionTestUtils.setField(summaryGeneratorService, "combinedEnrichment", true);
+        when(documentRepository.claimForSummary(eq(docId), eq(maxAttempts))).thenReturn(Optional.of(createMockDocument("Full content")));
+        when(chunkRepository.findChunkSummaries(docId)).thenReturn(List.of("Covers tax residency.", "Lists fixed income holdings."));
+        when(chatModel.chat((String) any())).thenReturn("Reduced summary.");
+
+        summaryGeneratorService.generateSummary(docId);
+
+        verify(chatModel).chat((String) argThat(prompt -> ((String) prompt).contains("- Covers tax residency.\n- Lists fixed income holdings.")
+            && !((String) prompt).contains("Full content")));
+        verify(documentRepository).updateSummary(eq(docId), eq("Reduced summary."), eq(DocumentTaskStatus.READY));
+    }
+
+    @Test
+    @DisplayName("Should use a single chunk summary as is without calling the LLM")
+    void shouldUseSingleChunkSummary() {
+        ReflectionTestUtils.setField(summaryGeneratorService, "combinedEnrichment", true);
+        when(documentRepository.claimForSummary(eq(docId), eq(maxAttempts))).thenReturn(Optional.of(createMockDocument("Full content")));
+        when(chunkRepository.findChunkSummaries(docId)).thenReturn(List.of("Covers tax residency."));
+
+        summaryGeneratorService.generateSummary(docId);
+
+        verifyNoInteractions(chatModel);
+        verify(documentRepository).updateSummary(eq(docId), eq("Covers tax residency."), eq(DocumentTaskStatus.READY));
+    }
+
+    @Test
+    @DisplayName("Should summarize the content when no chunk has a summary")
+    void shouldFallBackToContentWithoutChunkSummaries() {
+        ReflectionTestUtils.setField(summaryGeneratorService, "combinedEnrichment", true);
+        when(documentRepository.claimForSummary(eq(docId), eq(maxAttempts))).thenReturn(Optional.of(createMockDocument("Full content")));
+        when(chunkRepository.findChunkSummaries(docId)).thenReturn(List.of());
+        when(chatModel.chat((String) any())).thenReturn("Content summary.");
+
+        summaryGeneratorService.generateSummary(docId);
+
+        verify(chatModel).chat((String) argThat(prompt -> ((String) prompt).contains("Full content")));
+        verify(documentRepository).updateSummary(eq(docId), eq("Content summary."), eq(DocumentTaskStatus.READY));
+    }
+
     private Document createMockDocument(String content) {
         return new Document(
             docId,
@@ -135,6 +182,8 @@ class SummaryGeneratorServiceTest {
             null,
             0,
             DocumentTaskStatus.PENDING,
+            0,
+            0,
             null,
             null
         );
@@ -0,0 +1,95 @@
+package com.nevis.search.service;
+
+import com.nevis.search.repository.TermEmbeddingRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TermEmbeddingServiceTest {
+
+    private static final String MODEL_VERSION = "test-model@2";
+
+    @Mock
+    private TermEmbeddingRepository termEmbeddingRepository;
+    @Mock
+    private EmbeddingBatcher embeddingBatcher;
+
+    private TermEmbeddingServiceImpl termEmbeddingService;
+
+    @BeforeEach
+    void setUp() {
+        termEmbeddingService = new TermEmbeddingServiceImpl(termEmbeddingRepository, embeddingBatcher, MODEL_VERSION, 100);
+        when(termEmbeddingRepository.findByTerms(anyCollection(), anyString())).thenReturn(Map.of());
+    }
+
+    @Test
+    @DisplayName("Should only embed terms missing from the dictionary and store the new vectors")
+    void shouldEmbedOnlyDictionaryMisses() {
+        float[] kyc = {0.1f, 0.2f};
+        float[] aml = {0.3f, 0.4f};
+        when(termEmbeddingRepository.findByTerms(anyCollection(), eq(MODEL_VERSION))).thenReturn(Map.of("kyc", kyc));
+        when(embeddingBatcher.submit(List.of("aml"))).thenReturn(CompletableFuture.completedFuture(List.of(new Embedding(aml))));
+
+        Map<String, float[]> result = termEmbeddingService.embedTerms(List.of("KYC", "AML"));
+
+        assertThat(result).containsOnlyKeys("KYC", "AML");
+        assertThat(result.get("KYC")).isEqualTo(kyc);
+        assertThat(result.get("AML")).isEqualTo(aml);
+        verify(termEmbeddingRepository).saveAll(argThat(map -> map.keySet().equals(Set.of("aml"))), eq(MODEL_VERSION));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated terms from the in-memory cache")
+    void shouldServeRepeatedTermsFromCache() {
+        when(embeddingBatcher.submit(anyList()))
+            .thenReturn(CompletableFuture.completedFuture(List.of(new Embedding(new float[]{1f}))));
+
+        termEmbeddingService.embedTerms(List.of("Source of Wealth"));
+        Map<String, float[]> second = termEmbeddingService.embedTerms(List.of("  source   of wealth "));
+
+        assertThat(second).hasSize(1);
+        verify(embeddingBatcher, times(1)).submit(anyList());
+        verify(termEmbeddingRepository, times(1)).findByTerms(anyCollection(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should collapse terms that normalize to the same key")
+    void shouldDeduplicateNormalizedTerms() {
+        when(embeddingBatcher.submit(List.of("tax residency")))
+            .thenReturn(CompletableFuture.completedFuture(List.of(new Embedding(new float[]{1f}))));
+
+        Map<String, float[]> result = termEmbeddingService.embedTerms(List.of("Tax Residency", "tax residency", " "));
+
+        assertThat(result).containsOnlyKeys("Tax Residency");
+        verify(embeddingBatcher).submit(List.of("tax residency"));
+    }
+
+    @Test
+    @DisplayName("Should not call the embedding model when every term is known")
+    void shouldSkipModelWhenAllTermsKnown() {
+        when(termEmbeddingRepository.findByTerms(anyCollection(), eq(MODEL_VERSION)))
+            .thenReturn(Map.of("fixed income", new float[]{1f}));
+
+        termEmbeddingService.embedTerms(List.of("Fixed Income"));
+
+        verifyNoInteractions(embeddingBatcher);
+        verify(termEmbeddingRepository, never()).saveAll(anyMap(), anyString());
+    }
+}
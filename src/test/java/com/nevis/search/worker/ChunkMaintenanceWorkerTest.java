@@ -1,18 +1,19 @@
 package com.nevis.search.worker;
 
-import com.nevis.search.event.DocumentEmbeddingsRetryEvent;
+import com.nevis.search.infra.Backoff;
 import com.nevis.search.repository.DocumentChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.List;
-import java.util.UUID;
+import java.time.Duration;
 
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,33 +22,26 @@ class ChunkMaintenanceWorkerTest {
     @Mock
     private DocumentChunkRepository chunkRepository;
 
-    @Mock
-    private ApplicationEventPublisher eventPublisher;
-
     @InjectMocks
     private ChunkMaintenanceWorker worker;
 
-    @Test
-    @DisplayName("Should deduplicate document IDs and publish exactly one event per document")
-    void shouldDeduplicateAndPublishEvents() {
-        UUID docId1 = UUID.randomUUID();
-        UUID docId2 = UUID.randomUUID();
-        List<UUID> affectedIds = List.of(docId1, docId1, docId2);
-        
-        when(chunkRepository.resetStaleAndFailedChunks(anyInt(), anyInt())).thenReturn(affectedIds);
-
-        worker.cleanupStaleChunks();
-
-        verify(eventPublisher, times(1)).publishEvent(new DocumentEmbeddingsRetryEvent(docId1));
-        verify(eventPublisher, times(1)).publishEvent(new DocumentEmbeddingsRetryEvent(docId2));
-        verify(eventPublisher, times(2)).publishEvent(any(DocumentEmbeddingsRetryEvent.class));
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(worker, "maxAttempts", 5);
+        ReflectionTestUtils.setField(worker, "staleThresholdMinutes", 5);
+        ReflectionTestUtils.setField(worker, "baseDelayMs", 60_000L);
+        ReflectionTestUtils.setField(worker, "maxDelayMs", 1_800_000L);
+        ReflectionTestUtils.setField(worker, "batchSize", 500);
     }
 
     @Test
-    @DisplayName("Should not publish any events if no chunks were reset")
-    void shouldDoNothingWhenNoChunksAffected() {
-        when(chunkRepository.resetStaleAndFailedChunks(anyInt(), anyInt())).thenReturn(List.of());
+    @DisplayName("Should reset a capped batch of chunks with the configured backoff")
+    void shouldResetWithBackoffAndCap() {
+        when(chunkRepository.resetStaleAndFailedChunks(anyInt(), anyInt(), any(), anyInt())).thenReturn(3);
+
         worker.cleanupStaleChunks();
-        verifyNoInteractions(eventPublisher);
+
+        verify(chunkRepository).resetStaleAndFailedChunks(5, 5,
+            new Backoff(Duration.ofMinutes(1), Duration.ofMinutes(30)), 500);
     }
-}
\ No newline at end of file
+}
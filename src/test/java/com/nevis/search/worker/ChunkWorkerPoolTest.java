@@ -0,0 +1,118 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.infra.Bulkhead;
+import com.nevis.search.infra.BulkheadRegistry;
+import com.nevis.search.model.DocumentChunk;
+import com.nevis.search.model.DocumentTaskStatus;
+import com.nevis.search.repository.DocumentChunkRepository;
+import com.nevis.search.service.EmbeddingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChunkWorkerPoolTest {
+
+    private final DocumentChunkRepository chunkRepository = mock(DocumentChunkRepository.class);
+    private final EmbeddingService embeddingService = mock(EmbeddingService.class);
+    private final Bulkhead bulkhead = new Bulkhead(BulkheadRegistry.EMBEDDING, 4, new SimpleMeterRegistry());
+
+    private final ChunkWorkerPool pool = new ChunkWorkerPool(chunkRepository, embeddingService,
+        new BulkheadRegistry(List.of(bulkhead)), 10, 5, 1, 50);
+
+    @Test
+    @DisplayName("Should process buffered chunks of different documents before claiming again")
+    void shouldDrainClaimedBatch() throws Exception {
+        DocumentChunk first = createChunk(UUID.randomUUID());
+        DocumentChunk second = createChunk(UUID.randomUUID());
+        when(chunkRepository.claimReadyChunks(anyInt(), eq(5))).thenReturn(List.of(first, second), List.of());
+
+        assertThat(pool.dispatchNext()).isTrue();
+        assertThat(pool.dispatchNext()).isTrue();
+
+        verify(embeddingService, timeout(1000)).processChunk(first);
+        verify(embeddingService, timeout(1000)).processChunk(second);
+        verify(chunkRepository, times(1)).claimReadyChunks(4, 5);
+    }
+
+    @Test
+    @DisplayName("Should report idle when no chunk is ready")
+    void shouldReportIdle() throws Exception {
+        when(chunkRepository.claimReadyChunks(anyInt(), anyInt())).thenReturn(List.of());
+
+        assertThat(pool.dispatchNext()).isFalse();
+
+        verifyNoInteractions(embeddingService);
+    }
+
+    @Test
+    @DisplayName("Should not claim more chunks than the embedding bulkhead can start")
+    void shouldClaimWithinBulkhead() throws Exception {
+        bulkhead.resize(2);
+        when(chunkRepository.claimReadyChunks(anyInt(), anyInt())).thenReturn(List.of());
+
+        pool.dispatchNext();
+
+        verify(chunkRepository).claimReadyChunks(2, 5);
+    }
+
+    @Test
+    @DisplayName("Should publish claimable and buffered chunks as the embedding backlog")
+    void shouldPublishBacklog() throws Exception {
+        when(chunkRepository.claimReadyChunks(anyInt(), eq(5)))
+            .thenReturn(List.of(createChunk(UUID.randomUUID()), createChunk(UUID.randomUUID()), createChunk(UUID.randomUUID())));
+        when(chunkRepository.countClaimable(5)).thenReturn(7L);
+
+        pool.dispatchNext();
+        pool.refreshBacklog();
+
+        assertThat(bulkhead.queued()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should keep feeding and pick up new chunks after a wake-up")
+    void shouldProcessChunksInBackground() {
+        DocumentChunk chunk = createChunk(UUID.randomUUID());
+        doThrow(new IllegalStateException("boom")).doNothing().when(embeddingService).processChunk(any());
+        when(chunkRepository.claimReadyChunks(anyInt(), anyInt()))
+            .thenReturn(List.of(chunk), List.of(), List.of(chunk))
+            .thenReturn(List.of());
+
+        pool.start();
+        try {
+            pool.wake();
+            verify(embeddingService, timeout(2000).times(2)).processChunk(chunk);
+        } finally {
+            pool.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand several chunks to one worker when packing is enabled")
+    void shouldDispatchPacks() throws Exception {
+        ChunkWorkerPool packingPool = new ChunkWorkerPool(chunkRepository, embeddingService,
+            new BulkheadRegistry(List.of(bulkhead)), 10, 5, 3, 50);
+        List<DocumentChunk> chunks = List.of(
+            createChunk(UUID.randomUUID()), createChunk(UUID.randomUUID()),
+            createChunk(UUID.randomUUID()), createChunk(UUID.randomUUID())
+        );
+        when(chunkRepository.claimReadyChunks(anyInt(), eq(5))).thenReturn(chunks, List.of());
+
+        assertThat(packingPool.dispatchNext()).isTrue();
+        assertThat(packingPool.dispatchNext()).isTrue();
+
+        verify(chunkRepository).claimReadyChunks(10, 5);
+        verify(embeddingService, timeout(1000)).processChunks(chunks.subList(0, 3));
+        verify(embeddingService, timeout(1000)).processChunk(chunks.get(3));
+    }
+
+    private DocumentChunk createChunk(UUID docId) {
+        return new DocumentChunk(UUID.randomUUID(), docId, "Content", null, null, DocumentTaskStatus.PROCESSING, null, 1, null, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.service.ProvisionalEmbeddingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.Mockito.*;
+
+class ProvisionalEmbeddingWorkerTest {
+
+    private final ProvisionalEmbeddingService service = mock(ProvisionalEmbeddingService.class);
+    private final ProvisionalEmbeddingWorker worker = new ProvisionalEmbeddingWorker(service);
+
+    @Test
+    @DisplayName("Should keep claiming while batches come back full")
+    void shouldDrainFullBatches() {
+        ReflectionTestUtils.setField(worker, "batchSize", 50);
+        when(service.embedNewChunks(50)).thenReturn(50, 50, 7);
+
+        worker.embedNewChunks();
+
+        verify(service, times(3)).embedNewChunks(50);
+    }
+}
@@ -0,0 +1,65 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
+import com.nevis.search.repository.DocumentRepository;
+import com.nevis.search.repository.WorkQueueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SummaryRetryWorkerTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private WorkQueueRepository workQueueRepository;
+
+    @InjectMocks
+    private SummaryRetryWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(worker, "maxAttempts", 5);
+        ReflectionTestUtils.setField(worker, "staleThresholdMinutes", 5);
+        ReflectionTestUtils.setField(worker, "baseDelayMs", 60_000L);
+        ReflectionTestUtils.setField(worker, "maxDelayMs", 1_800_000L);
+        ReflectionTestUtils.setField(worker, "batchSize", 500);
+        ReflectionTestUtils.setField(worker, "maxChunkAttempts", 3);
+        when(documentRepository.resetStaleAndFailedSummaries(anyInt(), anyInt(), any(), anyInt())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should queue the combined summary of documents whose chunks can no longer progress")
+    void shouldQueueStrandedCombinedSummaries() {
+        ReflectionTestUtils.setField(worker, "combinedEnrichment", true);
+        UUID docId = UUID.randomUUID();
+        when(documentRepository.claimStrandedSummaries(3, 500)).thenReturn(List.of(docId));
+
+        worker.retrySummaries();
+
+        verify(workQueueRepository).enqueueAll(WorkType.SUMMARIZE, List.of(docId), WorkItem.DEFAULT_PRIORITY);
+    }
+
+    @Test
+    @DisplayName("Should not look for stranded summaries when summaries do not wait for chunks")
+    void shouldSkipStrandedSummariesWithoutCombinedEnrichment() {
+        worker.retrySummaries();
+
+        verify(documentRepository, never()).claimStrandedSummaries(anyInt(), anyInt());
+        verifyNoInteractions(workQueueRepository);
+    }
+}
@@ -0,0 +1,165 @@
+package com.nevis.search.worker;
+
+import com.nevis.search.infra.Bulkhead;
+import com.nevis.search.infra.BulkheadRegistry;
+import com.nevis.search.model.WorkItem;
+import com.nevis.search.model.WorkType;
+import com.nevis.search.repository.WorkQueueRepository;
+import com.nevis.search.service.DocumentService;
+import com.nevis.search.service.SummaryGeneratorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WorkQueueDispatcherTest {
+
+    private final WorkQueueRepository workQueueRepository = mock(WorkQueueRepository.class);
+    private final DocumentService documentService = mock(DocumentService.class);
+    private final ChunkWorkerPool chunkWorkerPool = mock(ChunkWorkerPool.class);
+    private final SummaryGeneratorService summaryGeneratorService = mock(SummaryGeneratorService.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BulkheadRegistry bulkheads = new BulkheadRegistry(List.of(
+        new Bulkhead(BulkheadRegistry.SPLIT, 4, meterRegistry),
+        new Bulkhead(BulkheadRegistry.EMBEDDING, 4, meterRegistry),
+        new Bulkhead(BulkheadRegistry.SUMMARY, 2, meterRegistry),
+        new Bulkhead(BulkheadRegistry.RETRY, 1, meterRegistry)
+    ));
+
+    private final WorkQueueDispatcher dispatcher = new WorkQueueDispatcher(workQueueRepository, mock(DataSource.class),
+        documentService, chunkWorkerPool, summaryGeneratorService, bulkheads, 60, 3, 1000, 100);
+
+    @Test
+    @DisplayName("Should route claimed items to their handlers and complete them")
+    void shouldDispatchByWorkType() {
+        UUID splitDoc = UUID.randomUUID();
+        UUID summaryDoc = UUID.randomUUID();
+        when(workQueueRepository.claim(any(WorkType.class), anyInt(), any(Duration.class))).thenReturn(List.of());
+        when(workQueueRepository.claim(eq(WorkType.SPLIT), anyInt(), any(Duration.class)))
+            .thenReturn(List.of(new WorkItem(1, WorkType.SPLIT, splitDoc, 0, 1, Instant.now())), List.of());
+        when(workQueueRepository.claim(eq(WorkType.SUMMARIZE), anyInt(), any(Duration.class)))
+            .thenReturn(List.of(new WorkItem(3, WorkType.SUMMARIZE, summaryDoc, 0, 1, Instant.now())), List.of());
+
+        dispatcher.drain();
+
+        verify(documentService, timeout(1000)).splitDocument(splitDoc);
+        verify(summaryGeneratorService, timeout(1000)).generateSummary(summaryDoc);
+        verify(workQueueRepository, timeout(1000)).complete(1);
+        verify(workQueueRepository, timeout(1000)).complete(3);
+    }
+
+    @Test
+    @DisplayName("Should claim each workload only up to the free slots of its own bulkhead")
+    void shouldClaimUpToBulkheadCapacity() {
+        when(workQueueRepository.claim(any(WorkType.class), anyInt(), any(Duration.class))).thenReturn(List.of());
+        when(workQueueRepository.claimRetries(anyInt(), any(Duration.class))).thenReturn(List.of());
+
+        dispatcher.drain();
+
+        verify(workQueueRepository).claim(eq(WorkType.SPLIT), eq(4), any(Duration.class));
+        verify(workQueueRepository).claim(eq(WorkType.SUMMARIZE), eq(2), any(Duration.class));
+        verify(workQueueRepository).claimRetries(eq(1), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Should keep claiming fresh summaries while the retry bulkhead is saturated")
+    void shouldIsolateRetriesFromFreshWork() throws Exception {
+        UUID retriedDoc = UUID.randomUUID();
+        UUID freshDoc = UUID.randomUUID();
+        CountDownLatch retryBlocked = new CountDownLatch(1);
+        doAnswer(inv -> {
+            retryBlocked.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(summaryGeneratorService).generateSummary(retriedDoc);
+
+        when(workQueueRepository.claim(any(WorkType.class), anyInt(), any(Duration.class))).thenReturn(List.of());
+        when(workQueueRepository.claimRetries(anyInt(), any(Duration.class)))
+            .thenReturn(List.of(new WorkItem(1, WorkType.SUMMARIZE, retriedDoc, 0, 2, Instant.now())), List.of());
+
+        dispatcher.drain();
+        verify(summaryGeneratorService, timeout(1000)).generateSummary(retriedDoc);
+
+        when(workQueueRepository.claim(eq(WorkType.SUMMARIZE), anyInt(), any(Duration.class)))
+            .thenReturn(List.of(new WorkItem(2, WorkType.SUMMARIZE, freshDoc, 0, 1, Instant.now())), List.of());
+
+        dispatcher.drain();
+
+        verify(summaryGeneratorService, timeout(1000)).generateSummary(freshDoc);
+        verify(workQueueRepository, times(1)).claimRetries(anyInt(), any(Duration.class));
+        assertThat(bulkheads.get(BulkheadRegistry.RETRY).active()).isEqualTo(1);
+        retryBlocked.countDown();
+    }
+
+    @Test
+    @DisplayName("Should publish the claimable queue depth and count passes that leave work behind as rejections")
+    void shouldPublishBacklogAndDeferrals() {
+        when(workQueueRepository.countWaitingByType()).thenReturn(Map.of(WorkType.SPLIT, 12L));
+        when(workQueueRepository.countWaitingRetries()).thenReturn(3L);
+        when(workQueueRepository.claim(any(WorkType.class), anyInt(), any(Duration.class))).thenReturn(List.of());
+        when(workQueueRepository.claimRetries(anyInt(), any(Duration.class))).thenReturn(List.of());
+
+        dispatcher.refreshBacklog();
+
+        assertThat(bulkheads.get(BulkheadRegistry.SPLIT).queued()).isEqualTo(12);
+        assertThat(bulkheads.get(BulkheadRegistry.SUMMARY).queued()).isZero();
+        assertThat(bulkheads.get(BulkheadRegistry.RETRY).queued()).isEqualTo(3);
+
+        Bulkhead split = bulkheads.get(BulkheadRegistry.SPLIT);
+        for (int i = 0; i < 4; i++) {
+            split.tryAcquire();
+        }
+        dispatcher.drain();
+
+        assertThat(meterRegistry.get("bulkhead.rejected").tag("bulkhead", BulkheadRegistry.SPLIT).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bulkhead.rejected").tag("bulkhead", BulkheadRegistry.SUMMARY).counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry a failed item later with a growing delay")
+    void shouldRetryFailedItem() {
+        UUID docId = UUID.randomUUID();
+        doThrow(new IllegalStateException("boom")).when(documentService).splitDocument(docId);
+
+        dispatcher.process(new WorkItem(7, WorkType.SPLIT, docId, 0, 2, Instant.now()));
+
+        verify(workQueueRepository).retryLater(7, Duration.ofSeconds(2));
+        verify(workQueueRepository, never()).complete(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should drop an item that failed max-attempts times")
+    void shouldGiveUpAfterMaxAttempts() {
+        UUID docId = UUID.randomUUID();
+        doThrow(new IllegalStateException("boom")).when(summaryGeneratorService).generateSummary(docId);
+
+        dispatcher.process(new WorkItem(8, WorkType.SUMMARIZE, docId, 0, 3, Instant.now()));
+
+        verify(workQueueRepository).complete(8);
+        verify(workQueueRepository, never()).retryLater(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should mark the document FAILED when giving up on its split")
+    void shouldFailDocumentWhenSplitGivesUp() {
+        UUID docId = UUID.randomUUID();
+        doThrow(new IllegalStateException("boom")).when(documentService).splitDocument(docId);
+
+        dispatcher.process(new WorkItem(9, WorkType.SPLIT, docId, 0, 3, Instant.now()));
+
+        verify(documentService).failSplit(docId);
+        verify(workQueueRepository).complete(9);
+    }
+}